@@ -0,0 +1,7 @@
+package dev.vepo.passport.channelfollow;
+
+/**
+ * Fired when a user follows or unfollows a channel, observed after the
+ * transaction commits.
+ */
+public record ChannelFollowChangedEvent(Long engageChannelId, Long userId, boolean following) {}
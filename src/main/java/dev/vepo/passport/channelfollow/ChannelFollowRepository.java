@@ -1,7 +1,16 @@
 package dev.vepo.passport.channelfollow;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
 
 import dev.vepo.passport.model.ChannelFollow;
 import dev.vepo.passport.model.User;
@@ -63,4 +72,198 @@ public class ChannelFollowRepository {
     public boolean existsByUserAndEngageChannelId(User user, Long engageChannelId) {
         return findByUserAndEngageChannelId(user, engageChannelId).isPresent();
     }
+
+    /**
+     * The subset of {@code engageChannelIds} the user follows, in one query.
+     */
+    public List<Long> findFollowedChannelIds(User user, Collection<Long> engageChannelIds) {
+        return entityManager.createQuery("""
+                                         SELECT cf.engageChannelId FROM ChannelFollow cf
+                                         WHERE cf.user = :user AND cf.engageChannelId IN :engageChannelIds
+                                         """, Long.class)
+                            .setParameter("user", user)
+                            .setParameter("engageChannelIds", engageChannelIds)
+                            .getResultList();
+    }
+
+    /**
+     * Makes {@code engageChannelIds} the user's whole follow set with a single
+     * statement: follows missing from the list are deleted, new ones inserted and
+     * both logged in {@code tb_channel_follow_changes} and applied to
+     * {@code tb_channel_follower_counts}. Returns only what changed.
+     */
+    @Transactional
+    public List<FollowSetChange> replaceFollowSet(User user, Collection<Long> engageChannelIds) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             WITH desired AS (
+                                                                 SELECT DISTINCT unnest(?::BIGINT[]) AS engage_channel_id
+                                                             ),
+                                                             removed AS (
+                                                                 DELETE FROM tb_channel_follows cf
+                                                                 WHERE cf.user_id = ?
+                                                                   AND NOT EXISTS (SELECT 1 FROM desired d WHERE d.engage_channel_id = cf.engage_channel_id)
+                                                                 RETURNING cf.engage_channel_id
+                                                             ),
+                                                             added AS (
+                                                                 INSERT INTO tb_channel_follows (user_id, engage_channel_id)
+                                                                 SELECT ?, d.engage_channel_id FROM desired d
+                                                                 ON CONFLICT (user_id, engage_channel_id) DO NOTHING
+                                                                 RETURNING engage_channel_id
+                                                             ),
+                                                             changes AS (
+                                                                 SELECT engage_channel_id, TRUE AS following FROM added
+                                                                 UNION ALL
+                                                                 SELECT engage_channel_id, FALSE AS following FROM removed
+                                                             ),
+                                                             logged AS (
+                                                                 INSERT INTO tb_channel_follow_changes (engage_channel_id)
+                                                                 SELECT engage_channel_id FROM changes
+                                                             ),
+                                                             counted AS (
+                                                                 INSERT INTO tb_channel_follower_counts (engage_channel_id, follower_count)
+                                                                 SELECT engage_channel_id, CASE WHEN following THEN 1 ELSE 0 END FROM changes
+                                                                 ON CONFLICT (engage_channel_id) DO UPDATE
+                                                                 SET follower_count = tb_channel_follower_counts.follower_count
+                                                                                      + CASE WHEN EXCLUDED.follower_count = 1 THEN 1 ELSE -1 END,
+                                                                     updated_at = NOW()
+                                                             )
+                                                             SELECT engage_channel_id, following FROM changes
+                                                             ORDER BY engage_channel_id
+                                                             """)) {
+                statement.setArray(1, connection.createArrayOf("bigint", engageChannelIds.toArray()));
+                statement.setLong(2, user.getId());
+                statement.setLong(3, user.getId());
+                var changes = new ArrayList<FollowSetChange>();
+                try (var rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        changes.add(new FollowSetChange(rows.getLong(1), rows.getBoolean(2)));
+                    }
+                }
+                return changes;
+            }
+        });
+    }
+
+    /**
+     * Adds {@code delta} to the channel's follower count, creating the row on the
+     * first follow. Runs in the caller's transaction so the count commits with the
+     * follow change.
+     */
+    @Transactional
+    public void adjustFollowerCount(Long engageChannelId, int delta) {
+        entityManager.createNativeQuery("""
+                                        INSERT INTO tb_channel_follower_counts (engage_channel_id, follower_count)
+                                        VALUES (:engageChannelId, GREATEST(:delta, 0))
+                                        ON CONFLICT (engage_channel_id) DO UPDATE
+                                        SET follower_count = tb_channel_follower_counts.follower_count + :delta,
+                                            updated_at = NOW()
+                                        """)
+                     .setParameter("engageChannelId", engageChannelId)
+                     .setParameter("delta", delta)
+                     .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> findFollowerCounts(Collection<Long> engageChannelIds) {
+        var counts = new HashMap<Long, Long>();
+        ((List<Object[]>) entityManager.createNativeQuery("""
+                                                          SELECT engage_channel_id, follower_count FROM tb_channel_follower_counts
+                                                          WHERE engage_channel_id IN (:engageChannelIds)
+                                                          """)
+                                       .setParameter("engageChannelIds", engageChannelIds)
+                                       .getResultList())
+                                                        .forEach(row -> counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+        return counts;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ChannelFollowerCount> findTopFollowed(int limit) {
+        return ((List<Object[]>) entityManager.createNativeQuery("""
+                                                                 SELECT engage_channel_id, follower_count FROM tb_channel_follower_counts
+                                                                 WHERE follower_count > 0
+                                                                 ORDER BY follower_count DESC, engage_channel_id
+                                                                 """)
+                                              .setMaxResults(limit)
+                                              .getResultList())
+                                                               .stream()
+                                                               .map(row -> new ChannelFollowerCount(((Number) row[0]).longValue(),
+                                                                                                    ((Number) row[1]).longValue()))
+                                                               .toList();
+    }
+
+    /**
+     * Follower user ids of every channel, each as a sorted array. Rows are streamed
+     * so the entity graph is never hydrated.
+     */
+    public Map<Long, long[]> findAllFollowerIds() {
+        return toFollowerIds(entityManager.createNativeQuery("""
+                                                             SELECT engage_channel_id, user_id FROM tb_channel_follows
+                                                             ORDER BY engage_channel_id, user_id
+                                                             """)
+                                          .getResultStream());
+    }
+
+    public Map<Long, long[]> findFollowerIds(Collection<Long> engageChannelIds) {
+        return toFollowerIds(entityManager.createNativeQuery("""
+                                                             SELECT engage_channel_id, user_id FROM tb_channel_follows
+                                                             WHERE engage_channel_id IN (:engageChannelIds)
+                                                             ORDER BY engage_channel_id, user_id
+                                                             """)
+                                          .setParameter("engageChannelIds", engageChannelIds)
+                                          .getResultStream());
+    }
+
+    @Transactional
+    public void recordChange(Long engageChannelId) {
+        entityManager.createNativeQuery("INSERT INTO tb_channel_follow_changes (engage_channel_id) VALUES (:engageChannelId)")
+                     .setParameter("engageChannelId", engageChannelId)
+                     .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Long> findChangedChannelIds(Instant since) {
+        return ((List<Number>) entityManager.createNativeQuery("""
+                                                               SELECT DISTINCT engage_channel_id FROM tb_channel_follow_changes
+                                                               WHERE changed_at >= :since
+                                                               """)
+                                            .setParameter("since", since)
+                                            .getResultList())
+                                                             .stream()
+                                                             .map(Number::longValue)
+                                                             .toList();
+    }
+
+    @Transactional
+    public int deleteChangesBefore(Instant before) {
+        return entityManager.createNativeQuery("DELETE FROM tb_channel_follow_changes WHERE changed_at < :before")
+                            .setParameter("before", before)
+                            .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, long[]> toFollowerIds(Stream<?> rows) {
+        var followerIds = new HashMap<Long, long[]>();
+        try (var stream = (Stream<Object[]>) rows) {
+            Long channelId = null;
+            var userIds = new long[16];
+            var size = 0;
+            for (var row : (Iterable<Object[]>) stream::iterator) {
+                var rowChannelId = ((Number) row[0]).longValue();
+                if (channelId != null && channelId != rowChannelId) {
+                    followerIds.put(channelId, Arrays.copyOf(userIds, size));
+                    size = 0;
+                }
+                channelId = rowChannelId;
+                if (size == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, size * 2);
+                }
+                userIds[size++] = ((Number) row[1]).longValue();
+            }
+            if (channelId != null) {
+                followerIds.put(channelId, Arrays.copyOf(userIds, size));
+            }
+        }
+        return followerIds;
+    }
 }
@@ -1,11 +1,15 @@
 package dev.vepo.passport.channelfollow;
 
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import dev.vepo.passport.model.ChannelFollow;
 import dev.vepo.passport.model.User;
 import dev.vepo.passport.user.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
@@ -15,11 +19,15 @@ public class ChannelFollowService {
 
     private final ChannelFollowRepository channelFollowRepository;
     private final UserRepository userRepository;
+    private final Event<ChannelFollowChangedEvent> followChangedEmitter;
 
     @Inject
-    public ChannelFollowService(ChannelFollowRepository channelFollowRepository, UserRepository userRepository) {
+    public ChannelFollowService(ChannelFollowRepository channelFollowRepository,
+                                UserRepository userRepository,
+                                Event<ChannelFollowChangedEvent> followChangedEmitter) {
         this.channelFollowRepository = channelFollowRepository;
         this.userRepository = userRepository;
+        this.followChangedEmitter = followChangedEmitter;
     }
 
     public List<ChannelFollowResponse> listForUser(String username) {
@@ -35,8 +43,11 @@ public class ChannelFollowService {
         var user = requireActiveUser(username);
         return channelFollowRepository.findByUserAndEngageChannelId(user, engageChannelId)
                                       .map(ChannelFollowResponse::from)
-                                      .orElseGet(() -> ChannelFollowResponse.from(channelFollowRepository.save(new ChannelFollow(user,
-                                                                                                                                 engageChannelId))));
+                                      .orElseGet(() -> {
+                                          var follow = channelFollowRepository.save(new ChannelFollow(user, engageChannelId));
+                                          followersChanged(engageChannelId, user, true);
+                                          return ChannelFollowResponse.from(follow);
+                                      });
     }
 
     @Transactional
@@ -45,6 +56,7 @@ public class ChannelFollowService {
         var follow = channelFollowRepository.findByUserAndEngageChannelId(user, engageChannelId)
                                             .orElseThrow(() -> new NotFoundException("Channel follow not found for channel id: %d".formatted(engageChannelId)));
         channelFollowRepository.delete(follow);
+        followersChanged(engageChannelId, user, false);
     }
 
     public boolean isFollowing(String username, Long engageChannelId) {
@@ -52,6 +64,62 @@ public class ChannelFollowService {
         return channelFollowRepository.existsByUserAndEngageChannelId(user, engageChannelId);
     }
 
+    /**
+     * Follow state of many channels, resolving the user once and querying all ids
+     * with a single {@code IN}.
+     */
+    public ChannelFollowStatusesResponse statuses(String username, List<Long> engageChannelIds) {
+        var user = requireActiveUser(username);
+        var requested = new LinkedHashSet<>(engageChannelIds);
+        var followed = requested.isEmpty() ? new HashSet<Long>()
+                                           : new HashSet<>(channelFollowRepository.findFollowedChannelIds(user, requested));
+        return new ChannelFollowStatusesResponse(requested.stream()
+                                                          .map(channelId -> new ChannelFollowStatusEntry(channelId, followed.contains(channelId)))
+                                                          .toList());
+    }
+
+    /**
+     * Maintained follower counts, one per distinct requested channel in request
+     * order; channels nobody ever followed count zero.
+     */
+    public ChannelFollowerCountsResponse followerCounts(List<Long> engageChannelIds) {
+        var requested = new LinkedHashSet<>(engageChannelIds);
+        var counts = requested.isEmpty() ? Map.<Long, Long>of() : channelFollowRepository.findFollowerCounts(requested);
+        return new ChannelFollowerCountsResponse(requested.stream()
+                                                          .map(channelId -> new ChannelFollowerCount(channelId, counts.getOrDefault(channelId, 0L)))
+                                                          .toList());
+    }
+
+    public ChannelFollowerCountsResponse topFollowed(int limit) {
+        return new ChannelFollowerCountsResponse(channelFollowRepository.findTopFollowed(limit));
+    }
+
+    /**
+     * Replaces the user's follows with {@code engageChannelIds}; follows already in
+     * place are kept untouched.
+     */
+    @Transactional
+    public ReplaceChannelFollowsResponse replace(String username, List<Long> engageChannelIds) {
+        var user = requireActiveUser(username);
+        var changes = channelFollowRepository.replaceFollowSet(user, new LinkedHashSet<>(engageChannelIds));
+        changes.forEach(change -> followChangedEmitter.fire(new ChannelFollowChangedEvent(change.engageChannelId(),
+                                                                                          user.getId(),
+                                                                                          change.following())));
+        return new ReplaceChannelFollowsResponse(changes.stream().filter(FollowSetChange::following).map(FollowSetChange::engageChannelId).toList(),
+                                                 changes.stream().filter(change -> !change.following()).map(FollowSetChange::engageChannelId).toList());
+    }
+
+    /**
+     * Updates the follower count and logs the change for other replicas to pick up,
+     * both in the follow transaction, then updates the local follower index once it
+     * commits.
+     */
+    private void followersChanged(Long engageChannelId, User user, boolean following) {
+        channelFollowRepository.recordChange(engageChannelId);
+        channelFollowRepository.adjustFollowerCount(engageChannelId, following ? 1 : -1);
+        followChangedEmitter.fire(new ChannelFollowChangedEvent(engageChannelId, user.getId(), following));
+    }
+
     private User requireActiveUser(String username) {
         return userRepository.findActiveByUsername(username)
                              .orElseThrow(() -> new NotFoundException("User not found"));
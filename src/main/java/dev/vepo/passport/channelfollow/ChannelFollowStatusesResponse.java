@@ -0,0 +1,8 @@
+package dev.vepo.passport.channelfollow;
+
+import java.util.List;
+
+/**
+ * One entry per distinct requested channel id, in request order.
+ */
+public record ChannelFollowStatusesResponse(List<ChannelFollowStatusEntry> statuses) {}
@@ -0,0 +1,3 @@
+package dev.vepo.passport.channelfollow;
+
+public record ChannelFollowerCount(Long engageChannelId, long followers) {}
@@ -0,0 +1,5 @@
+package dev.vepo.passport.channelfollow;
+
+import java.util.List;
+
+public record ChannelFollowerCountsResponse(List<ChannelFollowerCount> counts) {}
@@ -0,0 +1,175 @@
+package dev.vepo.passport.channelfollow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory map from engage channel id to the sorted user ids following it, so
+ * fan-out never loads {@code ChannelFollow} entities. Arrays are replaced,
+ * never mutated, so readers need no locking. Local follows are applied on
+ * commit; follows made on other replicas are picked up by {@link #refresh()},
+ * which reloads every channel listed in {@code tb_channel_follow_changes} since
+ * the previous poll. Local follows committed while a reload or refresh is
+ * reading are replayed on top of what it read, so they are not lost.
+ */
+@ApplicationScoped
+public class ChannelFollowerIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelFollowerIndex.class);
+
+    private static final long[] NO_FOLLOWERS = new long[0];
+    // Change rows are stamped before their transaction commits, so every poll
+    // looks back a little further than the previous one started.
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final ChannelFollowRepository channelFollowRepository;
+    private volatile Map<Long, long[]> followers = new ConcurrentHashMap<>();
+    private volatile Instant lastRefreshAt = Instant.EPOCH;
+    private final Object eventLock = new Object();
+    // Local follow changes seen while a reload or refresh reads; guarded by
+    // eventLock.
+    private List<ChannelFollowChangedEvent> recorded;
+
+    @Inject
+    public ChannelFollowerIndex(ChannelFollowRepository channelFollowRepository) {
+        this.channelFollowRepository = channelFollowRepository;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        reload();
+    }
+
+    /**
+     * Sorted follower user ids of the channel. The array is shared and must not be
+     * modified.
+     */
+    public long[] followers(Long engageChannelId) {
+        return followers.getOrDefault(engageChannelId, NO_FOLLOWERS);
+    }
+
+    /**
+     * Rebuilds the whole index from {@code tb_channel_follows}.
+     */
+    public synchronized void reload() {
+        var startedAt = Instant.now();
+        startRecording();
+        try {
+            var loaded = new ConcurrentHashMap<>(QuarkusTransaction.requiringNew().call(channelFollowRepository::findAllFollowerIds));
+            synchronized (eventLock) {
+                recorded.forEach(event -> apply(loaded, event));
+                followers = loaded;
+            }
+        } finally {
+            stopRecording();
+        }
+        lastRefreshAt = startedAt;
+        logger.info("Loaded followers of {} channels in {}", followers.size(), Duration.between(startedAt, Instant.now()));
+    }
+
+    /**
+     * Reloads the channels whose followers changed since the previous refresh, on
+     * this or any other replica. Returns how many channels were reloaded.
+     */
+    public synchronized int refresh() {
+        var startedAt = Instant.now();
+        var changed = QuarkusTransaction.requiringNew()
+                                        .call(() -> channelFollowRepository.findChangedChannelIds(lastRefreshAt.minus(POLL_OVERLAP)));
+        if (!changed.isEmpty()) {
+            startRecording();
+            try {
+                var reloaded = QuarkusTransaction.requiringNew().call(() -> channelFollowRepository.findFollowerIds(new HashSet<>(changed)));
+                synchronized (eventLock) {
+                    changed.forEach(channelId -> {
+                        var userIds = reloaded.get(channelId);
+                        if (userIds == null) {
+                            followers.remove(channelId);
+                        } else {
+                            followers.put(channelId, userIds);
+                        }
+                    });
+                    recorded.stream()
+                            .filter(event -> changed.contains(event.engageChannelId()))
+                            .forEach(event -> apply(followers, event));
+                }
+            } finally {
+                stopRecording();
+            }
+        }
+        lastRefreshAt = startedAt;
+        return changed.size();
+    }
+
+    void onFollowChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ChannelFollowChangedEvent event) {
+        synchronized (eventLock) {
+            if (recorded != null) {
+                recorded.add(event);
+            }
+            apply(followers, event);
+        }
+    }
+
+    private void startRecording() {
+        synchronized (eventLock) {
+            recorded = new ArrayList<>();
+        }
+    }
+
+    private void stopRecording() {
+        synchronized (eventLock) {
+            recorded = null;
+        }
+    }
+
+    private static void apply(Map<Long, long[]> index, ChannelFollowChangedEvent event) {
+        index.compute(event.engageChannelId(), (channelId, current) -> {
+            var updated = event.following() ? with(current, event.userId()) : without(current, event.userId());
+            return updated.length == 0 ? null : updated;
+        });
+    }
+
+    static long[] with(long[] userIds, long userId) {
+        if (userIds == null) {
+            return new long[] { userId };
+        }
+        var position = Arrays.binarySearch(userIds, userId);
+        if (position >= 0) {
+            return userIds;
+        }
+        var insertAt = -position - 1;
+        var updated = new long[userIds.length + 1];
+        System.arraycopy(userIds, 0, updated, 0, insertAt);
+        updated[insertAt] = userId;
+        System.arraycopy(userIds, insertAt, updated, insertAt + 1, userIds.length - insertAt);
+        return updated;
+    }
+
+    static long[] without(long[] userIds, long userId) {
+        if (userIds == null) {
+            return NO_FOLLOWERS;
+        }
+        var position = Arrays.binarySearch(userIds, userId);
+        if (position < 0) {
+            return userIds;
+        }
+        var updated = new long[userIds.length - 1];
+        System.arraycopy(userIds, 0, updated, 0, position);
+        System.arraycopy(userIds, position + 1, updated, position, userIds.length - position - 1);
+        return updated;
+    }
+}
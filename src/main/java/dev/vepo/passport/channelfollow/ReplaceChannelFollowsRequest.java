@@ -0,0 +1,8 @@
+package dev.vepo.passport.channelfollow;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record ReplaceChannelFollowsRequest(@NotNull @Size(max = 1000) List<@NotNull Long> engageChannelIds) {}
@@ -0,0 +1,8 @@
+package dev.vepo.passport.channelfollow;
+
+import java.util.List;
+
+/**
+ * Channel ids added to and removed from the follow set by a replace.
+ */
+public record ReplaceChannelFollowsResponse(List<Long> followed, List<Long> unfollowed) {}
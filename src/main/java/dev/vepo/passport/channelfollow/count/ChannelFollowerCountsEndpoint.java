@@ -0,0 +1,34 @@
+package dev.vepo.passport.channelfollow.count;
+
+import dev.vepo.passport.channelfollow.ChannelFollowService;
+import dev.vepo.passport.channelfollow.ChannelFollowerCountsRequest;
+import dev.vepo.passport.channelfollow.ChannelFollowerCountsResponse;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+@ApplicationScoped
+@Path("/channel-follows/counts")
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ChannelFollowerCountsEndpoint {
+
+    private final ChannelFollowService channelFollowService;
+
+    @Inject
+    public ChannelFollowerCountsEndpoint(ChannelFollowService channelFollowService) {
+        this.channelFollowService = channelFollowService;
+    }
+
+    @POST
+    public ChannelFollowerCountsResponse counts(@Valid ChannelFollowerCountsRequest request) {
+        return channelFollowService.followerCounts(request.engageChannelIds());
+    }
+}
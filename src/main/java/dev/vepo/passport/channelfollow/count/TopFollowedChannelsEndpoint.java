@@ -0,0 +1,38 @@
+package dev.vepo.passport.channelfollow.count;
+
+import dev.vepo.passport.channelfollow.ChannelFollowService;
+import dev.vepo.passport.channelfollow.ChannelFollowerCountsResponse;
+import dev.vepo.passport.shared.security.RequiredRoles;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Channels with the most followers, for fan-out capacity planning.
+ */
+@ApplicationScoped
+@Path("/channel-follows/top")
+@RolesAllowed(RequiredRoles.ADMIN)
+@Produces(MediaType.APPLICATION_JSON)
+public class TopFollowedChannelsEndpoint {
+
+    private final ChannelFollowService channelFollowService;
+
+    @Inject
+    public TopFollowedChannelsEndpoint(ChannelFollowService channelFollowService) {
+        this.channelFollowService = channelFollowService;
+    }
+
+    @GET
+    public ChannelFollowerCountsResponse top(@QueryParam("limit") @DefaultValue("20") @Min(1) @Max(500) int limit) {
+        return channelFollowService.topFollowed(limit);
+    }
+}
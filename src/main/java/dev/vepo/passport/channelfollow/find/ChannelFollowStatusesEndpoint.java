@@ -0,0 +1,36 @@
+package dev.vepo.passport.channelfollow.find;
+
+import dev.vepo.passport.channelfollow.ChannelFollowService;
+import dev.vepo.passport.channelfollow.ChannelFollowStatusesRequest;
+import dev.vepo.passport.channelfollow.ChannelFollowStatusesResponse;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+
+@ApplicationScoped
+@Path("/channel-follows/status")
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ChannelFollowStatusesEndpoint {
+
+    private final ChannelFollowService channelFollowService;
+
+    @Inject
+    public ChannelFollowStatusesEndpoint(ChannelFollowService channelFollowService) {
+        this.channelFollowService = channelFollowService;
+    }
+
+    @POST
+    public ChannelFollowStatusesResponse statuses(@Context SecurityContext securityContext, @Valid ChannelFollowStatusesRequest request) {
+        return channelFollowService.statuses(securityContext.getUserPrincipal().getName(), request.engageChannelIds());
+    }
+}
@@ -0,0 +1,47 @@
+package dev.vepo.passport.channelfollow.index;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.channelfollow.ChannelFollowRepository;
+import dev.vepo.passport.channelfollow.ChannelFollowerIndex;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Keeps the follower index in step with follows made on other replicas and
+ * prunes change log rows older than {@code change-retention}.
+ */
+@ApplicationScoped
+public class RefreshChannelFollowerIndexTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshChannelFollowerIndexTask.class);
+
+    private final ChannelFollowerIndex followerIndex;
+    private final ChannelFollowRepository channelFollowRepository;
+    private final Duration changeRetention;
+
+    @Inject
+    public RefreshChannelFollowerIndexTask(ChannelFollowerIndex followerIndex,
+                                           ChannelFollowRepository channelFollowRepository,
+                                           @ConfigProperty(name = "passport.channel-follows.index.change-retention", defaultValue = "1h") Duration changeRetention) {
+        this.followerIndex = followerIndex;
+        this.channelFollowRepository = channelFollowRepository;
+        this.changeRetention = changeRetention;
+    }
+
+    @Scheduled(every = "${passport.channel-follows.index.refresh-interval:5s}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void refreshChannelFollowerIndex() {
+        var reloaded = followerIndex.refresh();
+        if (reloaded > 0) {
+            logger.debug("Reloaded followers of {} channels", reloaded);
+        }
+        channelFollowRepository.deleteChangesBefore(Instant.now().minus(changeRetention));
+    }
+}
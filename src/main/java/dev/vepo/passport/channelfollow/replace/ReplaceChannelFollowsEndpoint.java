@@ -0,0 +1,36 @@
+package dev.vepo.passport.channelfollow.replace;
+
+import dev.vepo.passport.channelfollow.ChannelFollowService;
+import dev.vepo.passport.channelfollow.ReplaceChannelFollowsRequest;
+import dev.vepo.passport.channelfollow.ReplaceChannelFollowsResponse;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+
+@ApplicationScoped
+@Path("/channel-follows")
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ReplaceChannelFollowsEndpoint {
+
+    private final ChannelFollowService channelFollowService;
+
+    @Inject
+    public ReplaceChannelFollowsEndpoint(ChannelFollowService channelFollowService) {
+        this.channelFollowService = channelFollowService;
+    }
+
+    @PUT
+    public ReplaceChannelFollowsResponse replace(@Context SecurityContext securityContext, @Valid ReplaceChannelFollowsRequest request) {
+        return channelFollowService.replace(securityContext.getUserPrincipal().getName(), request.engageChannelIds());
+    }
+}
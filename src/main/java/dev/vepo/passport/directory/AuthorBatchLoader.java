@@ -0,0 +1,142 @@
+package dev.vepo.passport.directory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.vepo.passport.user.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Coalesces concurrent author lookups into one {@code IN} query. The first
+ * caller of a batch waits up to {@code window} (or until {@code max-ids} are
+ * pending), then runs the query for everyone who joined and hands each caller
+ * the shared result; no extra thread is involved. A zero window queries
+ * directly.
+ */
+@ApplicationScoped
+public class AuthorBatchLoader {
+
+    private record Pending(Collection<Long> ids, long enqueuedAt, CompletableFuture<Map<Long, PublicAuthorResponse>> result) {}
+
+    private final UserRepository userRepository;
+    private final Duration window;
+    private final int maxIds;
+    private final DistributionSummary batchIds;
+    private final DistributionSummary batchCallers;
+    private final Timer batchWait;
+    private final Timer batchQuery;
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingIds;
+    private boolean collecting;
+
+    @Inject
+    public AuthorBatchLoader(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @ConfigProperty(name = "passport.directory.authors.batch.window", defaultValue = "2ms") Duration window,
+                             @ConfigProperty(name = "passport.directory.authors.batch.max-ids", defaultValue = "500") int maxIds) {
+        this.userRepository = userRepository;
+        this.window = window;
+        this.maxIds = maxIds;
+        this.batchIds = DistributionSummary.builder("passport.directory.authors.batch.ids")
+                                           .description("Distinct author ids per batched query")
+                                           .register(meterRegistry);
+        this.batchCallers = DistributionSummary.builder("passport.directory.authors.batch.callers")
+                                               .description("Lookups served by one batched query")
+                                               .register(meterRegistry);
+        this.batchWait = Timer.builder("passport.directory.authors.batch.wait")
+                              .description("Time a lookup waited for its batch to be dispatched")
+                              .register(meterRegistry);
+        this.batchQuery = Timer.builder("passport.directory.authors.batch.query")
+                               .register(meterRegistry);
+    }
+
+    /**
+     * Active authors among {@code ids}, keyed by id. The map may hold authors other
+     * callers of the same batch asked for.
+     */
+    public Map<Long, PublicAuthorResponse> load(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        if (window.isZero()) {
+            return dispatch(List.of(new Pending(ids, System.nanoTime(), new CompletableFuture<>())));
+        }
+        var request = new Pending(ids, System.nanoTime(), new CompletableFuture<>());
+        boolean leader;
+        synchronized (lock) {
+            pending.add(request);
+            pendingIds += ids.size();
+            leader = !collecting;
+            collecting = true;
+            if (!leader && pendingIds >= maxIds) {
+                lock.notifyAll();
+            }
+        }
+        if (leader) {
+            dispatch(collect());
+        }
+        try {
+            return request.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private List<Pending> collect() {
+        synchronized (lock) {
+            var deadline = System.nanoTime() + window.toNanos();
+            try {
+                long remaining;
+                while (pendingIds < maxIds && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var batch = pending;
+            pending = new ArrayList<>();
+            pendingIds = 0;
+            collecting = false;
+            return batch;
+        }
+    }
+
+    private Map<Long, PublicAuthorResponse> dispatch(List<Pending> batch) {
+        var dispatchedAt = System.nanoTime();
+        var ids = new LinkedHashSet<Long>();
+        for (var request : batch) {
+            ids.addAll(request.ids());
+            batchWait.record(dispatchedAt - request.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        batchIds.record(ids.size());
+        batchCallers.record(batch.size());
+        try {
+            var authors = new HashMap<Long, PublicAuthorResponse>();
+            batchQuery.record(() -> QuarkusTransaction.requiringNew()
+                                                      .call(() -> userRepository.findActiveAuthorEntries(ids))
+                                                      .forEach(author -> authors.put(author.id(), PublicAuthorResponse.load(author))));
+            var result = Map.copyOf(authors);
+            batch.forEach(request -> request.result().complete(result));
+            return result;
+        } catch (RuntimeException e) {
+            batch.forEach(request -> request.result().completeExceptionally(e));
+            throw e;
+        }
+    }
+}
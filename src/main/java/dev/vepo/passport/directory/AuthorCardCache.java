@@ -0,0 +1,151 @@
+package dev.vepo.passport.directory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.vepo.passport.shared.cache.LruCache;
+import dev.vepo.passport.user.UserChangedEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * Bounded LRU cache of public author cards keyed by user id, for the peer
+ * services that resolve the same authors on every page. Cards younger than
+ * {@code fresh-for} are served as is; older ones, up to {@code stale-for} more,
+ * are still served while {@link #revalidate()} reloads them in the background.
+ * Unknown and disabled users are cached as absent. Every
+ * {@link UserChangedEvent}, local or published by the user change poller,
+ * invalidates the user's card.
+ */
+@ApplicationScoped
+public class AuthorCardCache {
+
+    private record Card(PublicAuthorResponse author, long loadedAt) {}
+
+    // Ids with loads in flight; an invalidation bumps the generation so the
+    // loads that raced it are not cached.
+    private record InFlight(int loads, long generation) {}
+
+    private final AuthorBatchLoader authorBatchLoader;
+    private final Duration freshFor;
+    private final Duration staleFor;
+    private final LruCache<Long, Card> cards;
+    private final Set<Long> staleIds = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Inject
+    public AuthorCardCache(AuthorBatchLoader authorBatchLoader,
+                           @ConfigProperty(name = "passport.directory.authors.cache.max-size", defaultValue = "10000") int maxSize,
+                           @ConfigProperty(name = "passport.directory.authors.cache.fresh-for", defaultValue = "60s") Duration freshFor,
+                           @ConfigProperty(name = "passport.directory.authors.cache.stale-for", defaultValue = "10m") Duration staleFor) {
+        this.authorBatchLoader = authorBatchLoader;
+        this.freshFor = freshFor;
+        this.staleFor = staleFor;
+        this.cards = new LruCache<>(maxSize);
+    }
+
+    public Duration freshFor() {
+        return freshFor;
+    }
+
+    public Duration staleFor() {
+        return staleFor;
+    }
+
+    /**
+     * Cards of the active users among {@code ids}, in request order. Only missing
+     * and expired ids reach the database, through {@link AuthorBatchLoader}.
+     */
+    public List<PublicAuthorResponse> lookup(Collection<Long> ids) {
+        var now = System.nanoTime();
+        var found = new HashMap<Long, PublicAuthorResponse>();
+        var missing = new ArrayList<Long>();
+        for (var id : ids) {
+            var card = cards.get(id).orElse(null);
+            var age = card != null ? now - card.loadedAt() : Long.MAX_VALUE;
+            if (age > freshFor.plus(staleFor).toNanos()) {
+                missing.add(id);
+                continue;
+            }
+            if (age > freshFor.toNanos()) {
+                staleIds.add(id);
+            }
+            if (card.author() != null) {
+                found.put(id, card.author());
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(load(missing));
+        }
+        return ids.stream()
+                  .map(found::get)
+                  .filter(Objects::nonNull)
+                  .toList();
+    }
+
+    /**
+     * Reloads the stale cards served since the previous call and returns how many
+     * were reloaded.
+     */
+    public synchronized int revalidate() {
+        var stale = new ArrayList<>(staleIds);
+        staleIds.removeAll(stale);
+        stale.removeIf(id -> cards.get(id).isEmpty());
+        if (!stale.isEmpty()) {
+            load(stale);
+        }
+        return stale.size();
+    }
+
+    public void invalidate(long id) {
+        inFlight.computeIfPresent(id, (key, current) -> new InFlight(current.loads(), current.generation() + 1));
+        cards.remove(id);
+        staleIds.remove(id);
+    }
+
+    public void clear() {
+        inFlight.replaceAll((key, current) -> new InFlight(current.loads(), current.generation() + 1));
+        cards.clear();
+        staleIds.clear();
+    }
+
+    void onUserChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserChangedEvent event) {
+        invalidate(event.user().id());
+    }
+
+    private Map<Long, PublicAuthorResponse> load(List<Long> ids) {
+        var startedAt = new HashMap<Long, Long>();
+        ids.forEach(id -> startedAt.put(id, inFlight.merge(id,
+                                                           new InFlight(1, 0),
+                                                           (current, one) -> new InFlight(current.loads() + 1, current.generation()))
+                                                    .generation()));
+        try {
+            var loadedAt = System.nanoTime();
+            var authors = authorBatchLoader.load(ids);
+            // Cached under the entry's lock, so an invalidation either bumps the
+            // generation first or removes the card after it is put.
+            ids.forEach(id -> inFlight.computeIfPresent(id, (key, current) -> {
+                if (current.generation() == startedAt.get(id)) {
+                    cards.put(id, new Card(authors.get(id), loadedAt));
+                }
+                return current;
+            }));
+            return authors;
+        } finally {
+            ids.forEach(id -> inFlight.computeIfPresent(id, (key, current) -> current.loads() == 1 ? null
+                                                                                                   : new InFlight(current.loads() - 1, current.generation())));
+        }
+    }
+}
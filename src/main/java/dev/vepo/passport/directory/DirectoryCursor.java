@@ -0,0 +1,35 @@
+package dev.vepo.passport.directory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position after the last user of a keyset page, in {@code (name, id)} order.
+ * Clients get it as an opaque URL-safe token.
+ */
+public record DirectoryCursor(String name, long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString("%d:%s".formatted(id, name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The decoded cursor, or empty when the token was not issued by
+     * {@link #encode()}.
+     */
+    public static Optional<DirectoryCursor> decode(String token) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = value.indexOf(':');
+            if (separator < 1) {
+                return Optional.empty();
+            }
+            return Optional.of(new DirectoryCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator))));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
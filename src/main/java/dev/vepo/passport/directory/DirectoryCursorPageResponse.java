@@ -0,0 +1,13 @@
+package dev.vepo.passport.directory;
+
+import java.util.List;
+
+/**
+ * A keyset page of the directory. {@code estimatedTotal} comes from planner
+ * statistics and is only filled when asked for.
+ */
+public record DirectoryCursorPageResponse(List<DirectoryUserResponse> items,
+                                          int size,
+                                          String nextCursor,
+                                          boolean hasMore,
+                                          Long estimatedTotal) {}
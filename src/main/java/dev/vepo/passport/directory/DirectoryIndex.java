@@ -0,0 +1,157 @@
+package dev.vepo.passport.directory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.user.UserChangedEvent;
+import dev.vepo.passport.user.UserDirectoryEntry;
+import dev.vepo.passport.user.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * Answers directory searches from an in-memory {@link NgramIndex} of active
+ * users. It is built at startup and follows every {@link UserChangedEvent},
+ * local on commit or published by the user change poller for other replicas. A
+ * rebuild loads a fresh snapshot off-lock, replays the changes seen meanwhile
+ * and swaps it in, dropping dead slots.
+ */
+@ApplicationScoped
+public class DirectoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryIndex.class);
+
+    private static final double MAX_DEAD_RATIO = 0.25;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private NgramIndex index = new NgramIndex();
+    private volatile boolean ready;
+    // Changes seen while a rebuild loads its snapshot; null when not rebuilding.
+    private List<UserDirectoryEntry> pending;
+
+    @Inject
+    public DirectoryIndex(UserRepository userRepository,
+                          @ConfigProperty(name = "passport.directory.index.enabled", defaultValue = "true") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * A page of ranked matches, or empty when the index is disabled or not built
+     * yet. Every page of a query comes from the same ranking.
+     */
+    public Optional<DirectoryPageResponse> search(String query, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            var result = index.search(query, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+            return Optional.of(new DirectoryPageResponse(result.hits()
+                                                               .stream()
+                                                               .map(hit -> DirectoryUserResponse.load(hit.entry()))
+                                                               .toList(),
+                                                         page,
+                                                         size,
+                                                         result.total()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a new snapshot from the database and swaps it in.
+     */
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        var startedAt = Instant.now();
+        var snapshot = new NgramIndex();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (var entries = userRepository.streamDirectoryEntries()) {
+                    entries.forEach(snapshot::put);
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                pending.forEach(snapshot::put);
+                index = snapshot;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        logger.info("Indexed {} directory users in {}", snapshot.size(), Duration.between(startedAt, Instant.now()));
+    }
+
+    /**
+     * Rebuilds once too many slots are dead. Returns whether it rebuilt.
+     */
+    public synchronized boolean compact() {
+        if (!ready) {
+            return false;
+        }
+        double deadRatio;
+        lock.readLock().lock();
+        try {
+            deadRatio = index.deadRatio();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (deadRatio <= MAX_DEAD_RATIO) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    void onUserChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event.user());
+            }
+            if (ready) {
+                index.put(event.user());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
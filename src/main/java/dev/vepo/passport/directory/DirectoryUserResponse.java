@@ -1,10 +1,10 @@
 package dev.vepo.passport.directory;
 
-import dev.vepo.passport.model.User;
+import dev.vepo.passport.user.UserDirectoryEntry;
 
 public record DirectoryUserResponse(long id, String username, String name, String email) {
 
-    public static DirectoryUserResponse load(User user) {
-        return new DirectoryUserResponse(user.getId(), user.getUsername(), user.getName(), user.getEmail());
+    public static DirectoryUserResponse load(UserDirectoryEntry entry) {
+        return new DirectoryUserResponse(entry.id(), entry.username(), entry.name(), entry.email());
     }
 }
@@ -0,0 +1,230 @@
+package dev.vepo.passport.directory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import dev.vepo.passport.shared.search.SearchText;
+import dev.vepo.passport.user.UserDirectoryEntry;
+
+/**
+ * Inverted trigram index over the name, username and e-mail of active users,
+ * normalized by {@link SearchText} exactly as {@code tb_users.search_text} is.
+ * Queries of at least three characters are narrowed through the trigram
+ * postings; shorter ones scan every live entry, so any query matches anywhere
+ * in a field, as the SQL {@code LIKE} path does. Every entry gets an increasing
+ * slot, keeping posting lists sorted by appending; a changed user takes a new
+ * slot and the old one stays dead until the index is rebuilt. Not thread-safe:
+ * {@link DirectoryIndex} guards it.
+ */
+final class NgramIndex {
+
+    static final int GRAM = 3;
+
+    private static final char SEPARATOR = '\u001F';
+
+    record Hit(UserDirectoryEntry entry, int rank) {}
+
+    record Result(List<Hit> hits, long total) {}
+
+    private record Candidate(int slot, int rank, String name) {}
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt(Candidate::rank)
+                                                                      .thenComparing(Candidate::name)
+                                                                      .thenComparingInt(Candidate::slot);
+
+    private UserDirectoryEntry[] entries = new UserDirectoryEntry[1024];
+    private String[] texts = new String[1024];
+    private int slots;
+    private int live;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    /**
+     * Adds or replaces the user; disabled users are removed. Re-putting an
+     * unchanged user keeps its slot.
+     */
+    void put(UserDirectoryEntry entry) {
+        var current = slotById.get(entry.id());
+        if (current != null && entries[current].equals(entry)) {
+            return;
+        }
+        remove(entry.id());
+        if (entry.disabled()) {
+            return;
+        }
+        if (slots == entries.length) {
+            entries = Arrays.copyOf(entries, slots * 2);
+            texts = Arrays.copyOf(texts, slots * 2);
+        }
+        var slot = slots++;
+        var text = String.join(String.valueOf(SEPARATOR),
+                               SearchText.normalize(entry.name()),
+                               SearchText.normalize(entry.username()),
+                               SearchText.normalize(entry.email()));
+        entries[slot] = entry;
+        texts[slot] = text;
+        slotById.put(entry.id(), slot);
+        live++;
+        for (var gram : grams(text)) {
+            postings.computeIfAbsent(gram, key -> new IntList()).add(slot);
+        }
+    }
+
+    void remove(long id) {
+        var slot = slotById.remove(id);
+        if (slot != null) {
+            entries[slot] = null;
+            texts[slot] = null;
+            live--;
+        }
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * Share of slots held by removed or replaced users.
+     */
+    double deadRatio() {
+        return slots == 0 ? 0 : (slots - live) / (double) slots;
+    }
+
+    /**
+     * Ranked matches for a non-empty query: exact field match, then field prefix,
+     * then word prefix, then any substring; ties by name. Only the best
+     * {@code offset + limit} are kept while scanning.
+     */
+    Result search(String query, int offset, int limit) {
+        var normalized = SearchText.normalize(query);
+        if (normalized.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        IntList candidates = null;
+        var others = new ArrayList<IntList>();
+        if (normalized.length() >= GRAM) {
+            var lists = queryGrams(normalized).stream()
+                                              .map(postings::get)
+                                              .toList();
+            if (lists.contains(null)) {
+                return new Result(List.of(), 0);
+            }
+            others.addAll(lists);
+            others.sort(Comparator.comparingInt(IntList::size));
+            candidates = others.removeFirst();
+        }
+        var scanned = candidates != null ? candidates.size() : slots;
+
+        var keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        var best = new PriorityQueue<>(BEST_FIRST.reversed());
+        var total = 0L;
+        for (var i = 0; i < scanned; i++) {
+            var slot = candidates != null ? candidates.get(i) : i;
+            var text = texts[slot];
+            if (text == null || !containsAll(others, slot)) {
+                continue;
+            }
+            var rank = rank(text, normalized);
+            if (rank < 0) {
+                continue;
+            }
+            total++;
+            var candidate = new Candidate(slot, rank, text.substring(0, text.indexOf(SEPARATOR)));
+            if (best.size() < keep) {
+                best.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        var sorted = new ArrayList<>(best);
+        sorted.sort(BEST_FIRST);
+        return new Result(sorted.stream()
+                                .skip(offset)
+                                .map(candidate -> new Hit(entries[candidate.slot()], candidate.rank()))
+                                .toList(),
+                          total);
+    }
+
+    private static boolean containsAll(List<IntList> lists, int slot) {
+        for (var list : lists) {
+            if (!list.contains(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 0 exact field, 1 field prefix, 2 word prefix, 3 substring, -1 no match.
+     */
+    static int rank(String text, String query) {
+        var best = -1;
+        var from = 0;
+        int position;
+        while ((position = text.indexOf(query, from)) >= 0) {
+            var end = position + query.length();
+            var fieldStart = position == 0 || text.charAt(position - 1) == SEPARATOR;
+            if (fieldStart && (end == text.length() || text.charAt(end) == SEPARATOR)) {
+                return 0;
+            }
+            var rank = fieldStart ? 1
+                                  : Character.isLetterOrDigit(text.charAt(position - 1)) ? 3
+                                  : 2;
+            best = best < 0 ? rank : Math.min(best, rank);
+            from = position + 1;
+        }
+        return best;
+    }
+
+    static Set<String> grams(String text) {
+        var grams = new HashSet<String>();
+        for (var field : text.split(String.valueOf(SEPARATOR), -1)) {
+            grams.addAll(queryGrams(field));
+        }
+        return grams;
+    }
+
+    static Set<String> queryGrams(String query) {
+        var grams = new HashSet<String>();
+        for (var i = 0; i + GRAM <= query.length(); i++) {
+            grams.add(query.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Growable sorted list of slots.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
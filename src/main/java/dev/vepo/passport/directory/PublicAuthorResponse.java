@@ -1,13 +1,13 @@
 package dev.vepo.passport.directory;
 
-import dev.vepo.passport.model.User;
+import dev.vepo.passport.user.UserAuthorEntry;
 
 public record PublicAuthorResponse(long id, String username, String name, String description) {
 
-    public static PublicAuthorResponse load(User user) {
-        return new PublicAuthorResponse(user.getId(),
-                                        user.getUsername(),
-                                        user.getName(),
-                                        user.getDescription() != null ? user.getDescription() : "");
+    public static PublicAuthorResponse load(UserAuthorEntry author) {
+        return new PublicAuthorResponse(author.id(),
+                                        author.username(),
+                                        author.name(),
+                                        author.description() != null ? author.description() : "");
     }
 }
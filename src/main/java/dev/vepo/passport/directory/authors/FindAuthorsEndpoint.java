@@ -0,0 +1,87 @@
+package dev.vepo.passport.directory.authors;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import dev.vepo.passport.directory.AuthorCardCache;
+import dev.vepo.passport.directory.PublicAuthorResponse;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Cacheable variant of {@link LookupAuthorsEndpoint}: {@code ?id=1&id=2}. Cards
+ * hold no private data, so responses are {@code public} and carry an ETag over
+ * their content; peers and proxies may serve them stale while revalidating.
+ */
+@Path("/directory/authors")
+@ApplicationScoped
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+public class FindAuthorsEndpoint {
+
+    private static final int MAX_IDS = 200;
+
+    private final AuthorCardCache authorCardCache;
+
+    @Inject
+    public FindAuthorsEndpoint(AuthorCardCache authorCardCache) {
+        this.authorCardCache = authorCardCache;
+    }
+
+    @GET
+    public Response find(@QueryParam("id") List<Long> ids, @Context Request request) {
+        var uniqueIds = new LinkedHashSet<>(ids != null ? ids : List.<Long>of());
+        uniqueIds.remove(null);
+        if (uniqueIds.isEmpty() || uniqueIds.size() > MAX_IDS) {
+            throw new BadRequestException("Between 1 and %d author ids are required".formatted(MAX_IDS));
+        }
+        var authors = authorCardCache.lookup(uniqueIds);
+        var tag = tag(authors);
+        var notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.CACHE_CONTROL, cacheControl()).build();
+        }
+        return Response.ok(authors)
+                       .tag(tag)
+                       .header(HttpHeaders.CACHE_CONTROL, cacheControl())
+                       .build();
+    }
+
+    // Written by hand: CacheControl has no public or stale-while-revalidate.
+    private String cacheControl() {
+        return "public, max-age=%d, stale-while-revalidate=%d".formatted(authorCardCache.freshFor().toSeconds(),
+                                                                         authorCardCache.staleFor().toSeconds());
+    }
+
+    /**
+     * Content hash, so every replica tags the same cards alike.
+     */
+    private static EntityTag tag(List<PublicAuthorResponse> authors) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var author : authors) {
+                digest.update("%d\u001F%s\u001F%s\u001F%s\u001E".formatted(author.id(), author.username(), author.name(), author.description())
+                                                                .getBytes(StandardCharsets.UTF_8));
+            }
+            return new EntityTag(HexFormat.of().formatHex(digest.digest(), 0, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
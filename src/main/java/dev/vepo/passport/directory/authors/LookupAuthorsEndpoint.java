@@ -3,9 +3,9 @@ package dev.vepo.passport.directory.authors;
 import java.util.LinkedHashSet;
 import java.util.List;
 
+import dev.vepo.passport.directory.AuthorCardCache;
 import dev.vepo.passport.directory.LookupAuthorsRequest;
 import dev.vepo.passport.directory.PublicAuthorResponse;
-import dev.vepo.passport.user.UserRepository;
 import io.quarkus.security.Authenticated;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -23,20 +23,17 @@ import jakarta.ws.rs.core.MediaType;
 @Consumes(MediaType.APPLICATION_JSON)
 public class LookupAuthorsEndpoint {
 
-    private final UserRepository userRepository;
+    private final AuthorCardCache authorCardCache;
 
     @Inject
-    public LookupAuthorsEndpoint(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public LookupAuthorsEndpoint(AuthorCardCache authorCardCache) {
+        this.authorCardCache = authorCardCache;
     }
 
     @POST
     public List<PublicAuthorResponse> lookup(@Valid LookupAuthorsRequest request) {
         var uniqueIds = new LinkedHashSet<>(request.ids() != null ? request.ids() : List.of());
         uniqueIds.remove(null);
-        return userRepository.findActiveByIds(uniqueIds)
-                             .stream()
-                             .map(PublicAuthorResponse::load)
-                             .toList();
+        return authorCardCache.lookup(uniqueIds);
     }
 }
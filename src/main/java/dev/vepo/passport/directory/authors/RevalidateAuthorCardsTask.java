@@ -0,0 +1,34 @@
+package dev.vepo.passport.directory.authors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.directory.AuthorCardCache;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reloads the stale author cards served since the previous run.
+ */
+@ApplicationScoped
+public class RevalidateAuthorCardsTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevalidateAuthorCardsTask.class);
+
+    private final AuthorCardCache authorCardCache;
+
+    @Inject
+    public RevalidateAuthorCardsTask(AuthorCardCache authorCardCache) {
+        this.authorCardCache = authorCardCache;
+    }
+
+    @Scheduled(every = "${passport.directory.authors.cache.revalidate-interval:5s}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void revalidateAuthorCards() {
+        var revalidated = authorCardCache.revalidate();
+        if (revalidated > 0) {
+            logger.debug("Revalidated {} author cards", revalidated);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.vepo.passport.directory.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.directory.DirectoryIndex;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Rebuilds the directory index once changed and disabled users left too many
+ * dead slots.
+ */
+@ApplicationScoped
+public class CompactDirectoryIndexTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactDirectoryIndexTask.class);
+
+    private final DirectoryIndex directoryIndex;
+
+    @Inject
+    public CompactDirectoryIndexTask(DirectoryIndex directoryIndex) {
+        this.directoryIndex = directoryIndex;
+    }
+
+    @Scheduled(every = "${passport.directory.index.compact-interval:1m}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void compactDirectoryIndex() {
+        if (directoryIndex.compact()) {
+            logger.debug("Compacted the directory index");
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package dev.vepo.passport.directory.search;
 
+import java.util.ArrayList;
+
+import dev.vepo.passport.directory.DirectoryCursor;
+import dev.vepo.passport.directory.DirectoryCursorPageResponse;
+import dev.vepo.passport.directory.DirectoryIndex;
 import dev.vepo.passport.directory.DirectoryPageResponse;
 import dev.vepo.passport.directory.DirectoryUserResponse;
 import dev.vepo.passport.user.UserRepository;
@@ -25,16 +30,25 @@ public class SearchDirectoryUsersEndpoint {
     private static final int MAX_SIZE = 50;
 
     private final UserRepository userRepository;
+    private final DirectoryIndex directoryIndex;
 
     @Inject
-    public SearchDirectoryUsersEndpoint(UserRepository userRepository) {
+    public SearchDirectoryUsersEndpoint(UserRepository userRepository, DirectoryIndex directoryIndex) {
         this.userRepository = userRepository;
+        this.directoryIndex = directoryIndex;
     }
 
+    /**
+     * Offset pages by default. Passing {@code cursor} (empty for the first page)
+     * switches to keyset pages in {@code (name, id)} order that skip the exact
+     * count; {@code estimate=true} adds the planner's estimate instead.
+     */
     @GET
     public Response search(@QueryParam("q") String q,
                            @QueryParam("page") @DefaultValue("0") int page,
-                           @QueryParam("size") @DefaultValue("20") int size) {
+                           @QueryParam("size") @DefaultValue("20") int size,
+                           @QueryParam("cursor") String cursor,
+                           @QueryParam("estimate") @DefaultValue("false") boolean estimate) {
         if (q == null || q.isBlank() || q.trim().length() < MIN_QUERY_LENGTH) {
             return Response.status(Response.Status.BAD_REQUEST)
                            .entity(new ErrorBody("Query must be at least %d characters".formatted(MIN_QUERY_LENGTH)))
@@ -50,12 +64,50 @@ public class SearchDirectoryUsersEndpoint {
             size = MAX_SIZE;
         }
         var query = q.trim();
+        if (cursor != null) {
+            return searchAfter(query, cursor, size, estimate);
+        }
+        var pageSize = size;
+        var pageNumber = page;
+        return Response.ok(directoryIndex.search(query, pageNumber, pageSize)
+                                         .orElseGet(() -> searchDatabase(query, pageNumber, pageSize)))
+                       .build();
+    }
+
+    private DirectoryPageResponse searchDatabase(String query, int page, int size) {
         var total = userRepository.countDirectory(query);
         var items = userRepository.searchDirectory(query, page, size)
                                   .stream()
                                   .map(DirectoryUserResponse::load)
                                   .toList();
-        return Response.ok(new DirectoryPageResponse(items, page, size, total)).build();
+        return new DirectoryPageResponse(items, page, size, total);
+    }
+
+    private Response searchAfter(String query, String cursor, int size, boolean estimate) {
+        var after = cursor.isEmpty() ? null : DirectoryCursor.decode(cursor).orElse(null);
+        if (!cursor.isEmpty() && after == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(new ErrorBody("Invalid cursor"))
+                           .build();
+        }
+        // One extra row tells whether another page exists without counting.
+        var users = new ArrayList<>(userRepository.searchDirectoryAfter(query,
+                                                                        after != null ? after.name() : null,
+                                                                        after != null ? after.id() : 0,
+                                                                        size + 1));
+        var hasMore = users.size() > size;
+        if (hasMore) {
+            users.removeLast();
+        }
+        var nextCursor = hasMore ? new DirectoryCursor(users.getLast().name(), users.getLast().id()).encode() : null;
+        return Response.ok(new DirectoryCursorPageResponse(users.stream()
+                                                                .map(DirectoryUserResponse::load)
+                                                                .toList(),
+                                                           size,
+                                                           nextCursor,
+                                                           hasMore,
+                                                           estimate ? userRepository.estimateDirectory(query) : null))
+                       .build();
     }
 
     public record ErrorBody(String message) {}
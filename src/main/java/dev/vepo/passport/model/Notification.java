@@ -1,15 +1,18 @@
 package dev.vepo.passport.model;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-import org.hibernate.annotations.CreationTimestamp;
-
+import dev.vepo.passport.shared.compression.Gzip;
+import jakarta.persistence.Basic;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -39,17 +42,40 @@ public class Notification {
 
     private String description;
 
-    private String report;
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "report")
+    private String legacyReport;
+
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "report_gzip")
+    private byte[] reportGzip;
+
+    @Column(name = "report_size", nullable = false)
+    private int reportSize;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
 
-    @CreationTimestamp
-    @Column(name = "created_at", nullable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
+    @Column(nullable = false)
+    private boolean aggregated;
+
+    @Column(name = "occurrence_count", nullable = false)
+    private int occurrenceCount = 1;
+
+    @Column(name = "last_occurred_at", nullable = false)
+    private Instant lastOccurredAt;
+
     @OneToMany(mappedBy = "notification", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sequence ASC")
     private List<NotificationItem> items = new ArrayList<>();
 
-    public Notification() {}
+    public Notification() {
+        this.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        this.lastOccurredAt = createdAt;
+    }
 
     public Notification(String sourceService,
                         String sourceType,
@@ -62,12 +88,33 @@ public class Notification {
         this.engageChannelId = engageChannelId;
         this.title = title;
         this.description = description;
-        this.report = report;
+        setReport(report);
+        this.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        this.lastOccurredAt = createdAt;
     }
 
     public void addItem(NotificationItem item) {
         items.add(item);
         item.setNotification(this);
+        itemCount = items.size();
+    }
+
+    /**
+     * Folds a repeated report into this aggregate: content is replaced by the
+     * latest report and the occurrence counter advances. Items must be replaced by
+     * the caller.
+     */
+    public void recordOccurrence(String title, String description, String report) {
+        this.title = title;
+        this.description = description;
+        setReport(report);
+        this.occurrenceCount++;
+        this.lastOccurredAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public void clearItems() {
+        items.clear();
+        itemCount = 0;
     }
 
     public Long getId() {
@@ -119,11 +166,25 @@ public class Notification {
     }
 
     public String getReport() {
-        return report;
+        return reportGzip != null ? Gzip.decompress(reportGzip) : legacyReport;
     }
 
     public void setReport(String report) {
-        this.report = report;
+        this.legacyReport = null;
+        this.reportGzip = report == null ? null : Gzip.compress(report);
+        this.reportSize = report == null ? 0 : report.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public int getReportSize() {
+        return reportSize;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
     }
 
     public Instant getCreatedAt() {
@@ -134,6 +195,22 @@ public class Notification {
         this.createdAt = createdAt;
     }
 
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    public void setAggregated(boolean aggregated) {
+        this.aggregated = aggregated;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public Instant getLastOccurredAt() {
+        return lastOccurredAt;
+    }
+
     public List<NotificationItem> getItems() {
         return items;
     }
@@ -1,14 +1,20 @@
 package dev.vepo.passport.model;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Objects;
 
+import dev.vepo.passport.shared.compression.Gzip;
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
@@ -23,12 +29,24 @@ public class NotificationItem {
     @JoinColumn(name = "notification_id", nullable = false)
     private Notification notification;
 
+    @Column(name = "notification_created_at", nullable = false, updatable = false)
+    private Instant notificationCreatedAt;
+
     @Column(nullable = false)
     private String title;
 
     private String description;
 
-    private String report;
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "report")
+    private String legacyReport;
+
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "report_gzip")
+    private byte[] reportGzip;
+
+    @Column(name = "report_size", nullable = false)
+    private int reportSize;
 
     @Column(nullable = false)
     private int sequence;
@@ -38,7 +56,7 @@ public class NotificationItem {
     public NotificationItem(String title, String description, String report, int sequence) {
         this.title = title;
         this.description = description;
-        this.report = report;
+        setReport(report);
         this.sequence = sequence;
     }
 
@@ -56,6 +74,18 @@ public class NotificationItem {
 
     public void setNotification(Notification notification) {
         this.notification = notification;
+        this.notificationCreatedAt = notification == null ? null : notification.getCreatedAt();
+    }
+
+    // Partition key: copied from the parent when inserted, so it follows a
+    // created_at set after the item was added.
+    @PrePersist
+    void copyNotificationCreatedAt() {
+        this.notificationCreatedAt = notification.getCreatedAt();
+    }
+
+    public Instant getNotificationCreatedAt() {
+        return notificationCreatedAt;
     }
 
     public String getTitle() {
@@ -75,11 +105,17 @@ public class NotificationItem {
     }
 
     public String getReport() {
-        return report;
+        return reportGzip != null ? Gzip.decompress(reportGzip) : legacyReport;
     }
 
     public void setReport(String report) {
-        this.report = report;
+        this.legacyReport = null;
+        this.reportGzip = report == null ? null : Gzip.compress(report);
+        this.reportSize = report == null ? 0 : report.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public int getReportSize() {
+        return reportSize;
     }
 
     public int getSequence() {
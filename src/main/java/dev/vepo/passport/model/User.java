@@ -7,8 +7,10 @@ import java.util.Set;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import dev.vepo.passport.user.UserChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,6 +22,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "tb_users")
+@EntityListeners(UserChangeListener.class)
 public class User {
 
     @Id
@@ -55,6 +58,10 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Generated by the database from name, username and email; only queried.
+    @Column(name = "search_text", insertable = false, updatable = false)
+    private String searchText;
+
     public User() {}
 
     public User(Long id, String username, String name, String email, String encodedPassword, Set<Profile> profiles, boolean disabled) {
@@ -30,6 +30,9 @@ public class UserNotification {
     @JoinColumn(name = "notification_id", nullable = false)
     private Notification notification;
 
+    @Column(name = "notification_created_at", nullable = false, updatable = false)
+    private Instant notificationCreatedAt;
+
     @Column(name = "read", nullable = false)
     private boolean read;
 
@@ -39,6 +42,9 @@ public class UserNotification {
     @Column(name = "opened_at")
     private Instant openedAt;
 
+    @Column(name = "read_state_changed_at")
+    private Instant readStateChangedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -48,17 +54,20 @@ public class UserNotification {
     public UserNotification(User user, Notification notification) {
         this.user = user;
         this.notification = notification;
+        this.notificationCreatedAt = notification.getCreatedAt();
         this.read = false;
     }
 
     public void markRead() {
         this.read = true;
         this.readAt = Instant.now();
+        this.readStateChangedAt = readAt;
     }
 
     public void markUnread() {
         this.read = false;
         this.readAt = null;
+        this.readStateChangedAt = Instant.now();
     }
 
     public void markOpened() {
@@ -90,6 +99,11 @@ public class UserNotification {
 
     public void setNotification(Notification notification) {
         this.notification = notification;
+        this.notificationCreatedAt = notification == null ? null : notification.getCreatedAt();
+    }
+
+    public Instant getNotificationCreatedAt() {
+        return notificationCreatedAt;
     }
 
     public boolean isRead() {
@@ -116,6 +130,14 @@ public class UserNotification {
         this.openedAt = openedAt;
     }
 
+    public Instant getReadStateChangedAt() {
+        return readStateChangedAt;
+    }
+
+    public void setReadStateChangedAt(Instant readStateChangedAt) {
+        this.readStateChangedAt = readStateChangedAt;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -5,6 +5,7 @@ import java.util.List;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public record CreateInternalNotificationRequest(@NotBlank String sourceService,
                                                 @NotBlank String sourceType,
@@ -12,4 +13,6 @@ public record CreateInternalNotificationRequest(@NotBlank String sourceService,
                                                 @NotBlank String title,
                                                 String description,
                                                 String report,
-                                                @Valid List<InternalNotificationItemRequest> items) {}
+                                                @Valid List<InternalNotificationItemRequest> items,
+                                                @Size(max = 255) String externalId,
+                                                Boolean aggregate) {}
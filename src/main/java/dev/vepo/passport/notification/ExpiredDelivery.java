@@ -0,0 +1,3 @@
+package dev.vepo.passport.notification;
+
+public record ExpiredDelivery(Long id, Long userId) {}
@@ -0,0 +1,5 @@
+package dev.vepo.passport.notification;
+
+import java.util.Set;
+
+public record InboxChangedEvent(Set<Long> userIds) {}
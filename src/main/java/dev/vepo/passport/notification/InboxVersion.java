@@ -0,0 +1,8 @@
+package dev.vepo.passport.notification;
+
+public record InboxVersion(long userId, long version) {
+
+    public String tag() {
+        return "%d.%d".formatted(userId, version);
+    }
+}
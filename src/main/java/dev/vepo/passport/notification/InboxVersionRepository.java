@@ -0,0 +1,58 @@
+package dev.vepo.passport.notification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+@ApplicationScoped
+public class InboxVersionRepository {
+
+    private static final int BUMP_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public InboxVersionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Optional<InboxVersion> findByActiveUsername(String username) {
+        var rows = entityManager.createNativeQuery("""
+                                                   SELECT u.id, COALESCE(v.version, 0)
+                                                   FROM tb_users u
+                                                   LEFT JOIN tb_inbox_versions v ON v.user_id = u.id
+                                                   WHERE u.username = :username AND u.disabled = false
+                                                   """)
+                                .setParameter("username", username)
+                                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        var row = (Object[]) rows.get(0);
+        return Optional.of(new InboxVersion(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+    }
+
+    @Transactional
+    public void bump(Collection<Long> userIds) {
+        var ids = new ArrayList<>(userIds);
+        for (var start = 0; start < ids.size(); start += BUMP_CHUNK_SIZE) {
+            bumpChunk(ids.subList(start, Math.min(start + BUMP_CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    private void bumpChunk(List<Long> userIds) {
+        entityManager.createNativeQuery("""
+                                        INSERT INTO tb_inbox_versions (user_id, version)
+                                        SELECT u.id, 1 FROM tb_users u WHERE u.id IN (:userIds)
+                                        ON CONFLICT (user_id) DO UPDATE SET version = tb_inbox_versions.version + 1
+                                        """)
+                     .setParameter("userIds", userIds)
+                     .executeUpdate();
+    }
+}
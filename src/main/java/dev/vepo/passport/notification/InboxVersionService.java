@@ -0,0 +1,150 @@
+package dev.vepo.passport.notification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Per-user inbox version used for conditional GETs and long-polling on the
+ * inbox endpoints.
+ * <p>
+ * The version lives in {@code tb_inbox_versions} so every replica agrees on it.
+ * Waiters are woken locally after the bumping transaction commits, and re-check
+ * the database every {@code recheck-interval} to observe bumps made by other
+ * replicas. A waiting request holds its worker thread, so at most
+ * {@code max-waiters} requests wait at once; the rest answer straight away.
+ */
+@ApplicationScoped
+public class InboxVersionService {
+
+    // Completed on the next local bump; dropped once its last waiter leaves.
+    private static final class Signal {
+        private final CompletableFuture<Void> changed = new CompletableFuture<>();
+        private int waiters;
+    }
+
+    private final InboxVersionRepository inboxVersionRepository;
+    private final Event<InboxChangedEvent> inboxChangedEmitter;
+    private final Duration maxWait;
+    private final Duration recheckInterval;
+    private final Semaphore waitPermits;
+    private final ConcurrentMap<Long, Signal> signals = new ConcurrentHashMap<>();
+
+    @Inject
+    public InboxVersionService(InboxVersionRepository inboxVersionRepository,
+                               Event<InboxChangedEvent> inboxChangedEmitter,
+                               @ConfigProperty(name = "passport.notifications.long-poll.max-wait", defaultValue = "30s") Duration maxWait,
+                               @ConfigProperty(name = "passport.notifications.long-poll.recheck-interval", defaultValue = "2s") Duration recheckInterval,
+                               @ConfigProperty(name = "passport.notifications.long-poll.max-waiters", defaultValue = "100") int maxWaiters) {
+        this.inboxVersionRepository = inboxVersionRepository;
+        this.inboxChangedEmitter = inboxChangedEmitter;
+        this.maxWait = maxWait;
+        this.recheckInterval = recheckInterval;
+        this.waitPermits = new Semaphore(maxWaiters);
+    }
+
+    public InboxVersion current(String username) {
+        return inboxVersionRepository.findByActiveUsername(username)
+                                     .orElseThrow(() -> new NotFoundException("User not found"));
+    }
+
+    /**
+     * Blocks until the inbox version moves past {@code known} or {@code wait}
+     * (capped by {@code max-wait}) elapses. Returns {@code known} at once when
+     * {@code max-waiters} requests are already waiting.
+     */
+    public InboxVersion awaitChange(String username, InboxVersion known, Duration wait) {
+        if (!waitPermits.tryAcquire()) {
+            return known;
+        }
+        try {
+            var deadline = Instant.now().plus(wait.compareTo(maxWait) > 0 ? maxWait : wait);
+            var latest = known;
+            while (latest.equals(known) && !Thread.currentThread().isInterrupted()) {
+                var remaining = Duration.between(Instant.now(), deadline);
+                if (remaining.isNegative() || remaining.isZero()) {
+                    break;
+                }
+                var signal = register(known.userId());
+                try {
+                    latest = current(username);
+                    if (latest.equals(known)) {
+                        awaitSignal(signal.changed, remaining.compareTo(recheckInterval) < 0 ? remaining : recheckInterval);
+                        latest = current(username);
+                    }
+                } finally {
+                    unregister(known.userId(), signal);
+                }
+            }
+            return latest;
+        } finally {
+            waitPermits.release();
+        }
+    }
+
+    public void bump(Long userId) {
+        bump(Set.of(userId));
+    }
+
+    public void bump(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        inboxVersionRepository.bump(userIds);
+        inboxChangedEmitter.fire(new InboxChangedEvent(Set.copyOf(userIds)));
+    }
+
+    public void onInboxChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) InboxChangedEvent event) {
+        event.userIds().forEach(userId -> {
+            var signal = signals.remove(userId);
+            if (signal != null) {
+                signal.changed.complete(null);
+            }
+        });
+    }
+
+    int waitingUsers() {
+        return signals.size();
+    }
+
+    private Signal register(Long userId) {
+        return signals.compute(userId, (id, current) -> {
+            var signal = current != null ? current : new Signal();
+            signal.waiters++;
+            return signal;
+        });
+    }
+
+    private void unregister(Long userId, Signal signal) {
+        // A bump may already have replaced the signal; only the waiter's own counts.
+        signals.computeIfPresent(userId, (id, current) -> current != signal || --signal.waiters > 0 ? current : null);
+    }
+
+    private void awaitSignal(CompletableFuture<Void> signal, Duration timeout) {
+        try {
+            signal.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Nothing changed locally; the caller re-checks the database for bumps from
+            // other replicas
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
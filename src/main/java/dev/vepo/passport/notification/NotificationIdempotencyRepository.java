@@ -0,0 +1,49 @@
+package dev.vepo.passport.notification;
+
+import java.util.Optional;
+
+import dev.vepo.passport.model.Notification;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@ApplicationScoped
+public class NotificationIdempotencyRepository {
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public NotificationIdempotencyRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Optional<Long> findNotificationId(String sourceService, String idempotencyKey) {
+        var rows = entityManager.createNativeQuery("""
+                                                   SELECT notification_id
+                                                     FROM tb_notification_idempotency_keys
+                                                    WHERE source_service = :sourceService AND idempotency_key = :idempotencyKey
+                                                   """)
+                                .setParameter("sourceService", sourceService)
+                                .setParameter("idempotencyKey", idempotencyKey)
+                                .getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of(((Number) rows.get(0)).longValue());
+    }
+
+    /**
+     * Claims the key for {@code notification}. Returns {@code false} when another
+     * request already holds it; a concurrent claim blocks until the holder commits
+     * or rolls back.
+     */
+    public boolean register(String sourceService, String idempotencyKey, Notification notification) {
+        return entityManager.createNativeQuery("""
+                                               INSERT INTO tb_notification_idempotency_keys (source_service, idempotency_key, notification_id, notification_created_at)
+                                               VALUES (:sourceService, :idempotencyKey, :notificationId, :notificationCreatedAt)
+                                               ON CONFLICT (source_service, idempotency_key) DO NOTHING
+                                               """)
+                            .setParameter("sourceService", sourceService)
+                            .setParameter("idempotencyKey", idempotencyKey)
+                            .setParameter("notificationId", notification.getId())
+                            .setParameter("notificationCreatedAt", notification.getCreatedAt())
+                            .executeUpdate() == 1;
+    }
+}
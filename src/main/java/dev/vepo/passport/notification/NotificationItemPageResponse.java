@@ -0,0 +1,21 @@
+package dev.vepo.passport.notification;
+
+import java.util.List;
+
+/**
+ * A page of items ordered by {@code sequence}. {@code nextAfter} is the cursor
+ * for the following page, {@code null} on the last one.
+ */
+public record NotificationItemPageResponse(List<NotificationItemResponse> items, Integer nextAfter) {
+    /**
+     * Builds the page from a query that fetched {@code limit + 1} rows, the extra
+     * row only signalling that more exist.
+     */
+    public static NotificationItemPageResponse of(List<NotificationItemResponse> fetched, int limit) {
+        if (fetched.size() <= limit) {
+            return new NotificationItemPageResponse(fetched, null);
+        }
+        var page = fetched.subList(0, limit);
+        return new NotificationItemPageResponse(List.copyOf(page), page.getLast().sequence());
+    }
+}
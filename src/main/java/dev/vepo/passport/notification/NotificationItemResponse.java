@@ -1,19 +1,27 @@
 package dev.vepo.passport.notification;
 
-import java.time.Instant;
-
 import dev.vepo.passport.model.NotificationItem;
 
 public record NotificationItemResponse(Long id,
                                        String title,
                                        String description,
-                                       String report,
+                                       int reportSize,
+                                       String reportUrl,
                                        int sequence) {
+    public NotificationItemResponse(Long notificationId, Long id, String title, String description, int reportSize, int sequence) {
+        this(id, title, description, reportSize, reportUrl(notificationId, id, reportSize), sequence);
+    }
+
     public static NotificationItemResponse from(NotificationItem item) {
         return new NotificationItemResponse(item.getId(),
                                             item.getTitle(),
                                             item.getDescription(),
-                                            item.getReport(),
+                                            item.getReportSize(),
+                                            reportUrl(item.getNotification().getId(), item.getId(), item.getReportSize()),
                                             item.getSequence());
     }
+
+    private static String reportUrl(Long notificationId, Long itemId, int reportSize) {
+        return reportSize > 0 ? "/api/notifications/%d/items/%d/report".formatted(notificationId, itemId) : null;
+    }
 }
@@ -0,0 +1,3 @@
+package dev.vepo.passport.notification;
+
+public record NotificationPartitionMaintenanceResult(int createdPartitions, int droppedMonths, long defaultPartitionRows) {}
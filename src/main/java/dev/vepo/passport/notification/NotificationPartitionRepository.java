@@ -0,0 +1,45 @@
+package dev.vepo.passport.notification;
+
+import java.time.LocalDate;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Monthly partitions of {@code tb_notifications}, {@code tb_notification_items}
+ * and {@code tb_user_notifications}. The DDL lives in the
+ * {@code passport_*_notification_partitions} functions created by the
+ * migration.
+ */
+@ApplicationScoped
+public class NotificationPartitionRepository {
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public NotificationPartitionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    public int ensurePartitions(LocalDate from, int months) {
+        return ((Number) entityManager.createNativeQuery("SELECT passport_ensure_notification_partitions(:from, :months)")
+                                      .setParameter("from", from)
+                                      .setParameter("months", months)
+                                      .getSingleResult()).intValue();
+    }
+
+    @Transactional
+    public int dropPartitionsBefore(LocalDate before) {
+        return ((Number) entityManager.createNativeQuery("SELECT passport_drop_notification_partitions(:before)")
+                                      .setParameter("before", before)
+                                      .getSingleResult()).intValue();
+    }
+
+    public long countDefaultPartitionRows() {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM tb_notifications_default")
+                                      .getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,203 @@
+package dev.vepo.passport.notification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Applies {@link NotificationRetentionPolicy}: deletes expired deliveries, then
+ * deliveries beyond the per-user cap, then orphan notifications, in id-ordered
+ * chunks each committed on its own. The last id of every chunk is stored in
+ * {@code tb_purge_checkpoints}, so an interrupted sweep resumes where it
+ * stopped. The orphan sweep only checks the notifications queued in
+ * {@code tb_notification_purge_candidates} when their deliveries were deleted,
+ * so its cost follows the backlog rather than the table.
+ */
+@ApplicationScoped
+public class NotificationPurgeEngine {
+
+    static final String DELIVERIES_CHECKPOINT = "read-deliveries";
+    static final String NOTIFICATIONS_CHECKPOINT = "orphan-notifications";
+    static final String USER_CAP_CHECKPOINT = "per-user-cap";
+
+    private static final long BACKLOG_COUNT_CAP = 1_000_000L;
+
+    private record Chunk(long lastId, int scanned, int deleted) {}
+
+    private record Sweep(int deleted, boolean complete) {}
+
+    private final UserNotificationRepository userNotificationRepository;
+    private final NotificationRepository notificationRepository;
+    private final PurgeCheckpointRepository checkpointRepository;
+    private final InboxVersionService inboxVersionService;
+    private final NotificationRetentionPolicy retentionPolicy;
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final AtomicLong backlog;
+    private final Counter deliveriesPurged;
+    private final Counter notificationsPurged;
+    private final Timer deliveriesChunkTimer;
+    private final Timer notificationsChunkTimer;
+
+    @Inject
+    public NotificationPurgeEngine(UserNotificationRepository userNotificationRepository,
+                                   NotificationRepository notificationRepository,
+                                   PurgeCheckpointRepository checkpointRepository,
+                                   InboxVersionService inboxVersionService,
+                                   NotificationRetentionPolicy retentionPolicy,
+                                   MeterRegistry meterRegistry,
+                                   @ConfigProperty(name = "passport.notifications.purge.chunk-size", defaultValue = "1000") int chunkSize,
+                                   @ConfigProperty(name = "passport.notifications.purge.chunk-pause", defaultValue = "100ms") Duration chunkPause) {
+        this.userNotificationRepository = userNotificationRepository;
+        this.notificationRepository = notificationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.inboxVersionService = inboxVersionService;
+        this.retentionPolicy = retentionPolicy;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+        this.backlog = meterRegistry.gauge("passport.notifications.purge.backlog", new AtomicLong());
+        this.deliveriesPurged = Counter.builder("passport.notifications.purge.rows")
+                                       .tag("table", "tb_user_notifications")
+                                       .register(meterRegistry);
+        this.notificationsPurged = Counter.builder("passport.notifications.purge.rows")
+                                          .tag("table", "tb_notifications")
+                                          .register(meterRegistry);
+        this.deliveriesChunkTimer = Timer.builder("passport.notifications.purge.chunk")
+                                         .tag("table", "tb_user_notifications")
+                                         .register(meterRegistry);
+        this.notificationsChunkTimer = Timer.builder("passport.notifications.purge.chunk")
+                                            .tag("table", "tb_notifications")
+                                            .register(meterRegistry);
+    }
+
+    public long backlog() {
+        return backlog.get();
+    }
+
+    /**
+     * Runs the expiry, per-user cap and orphan sweeps in turn until all are
+     * exhausted or {@code deadline} passes. {@code readRetention} is the default
+     * read max age for sources without a rule.
+     */
+    public PurgeOldReadNotificationsResult purge(Duration readRetention, Instant deadline) {
+        var cutoffs = retentionPolicy.cutoffs(readRetention, Instant.now());
+        backlog.set(userNotificationRepository.countReadOlderThan(cutoffs.readBefore(), BACKLOG_COUNT_CAP)
+                + notificationRepository.countPurgeCandidates(BACKLOG_COUNT_CAP));
+
+        var deliveries = sweep(DELIVERIES_CHECKPOINT, deliveriesChunkTimer, deadline, afterId -> purgeDeliveries(cutoffs, afterId));
+        if (!deliveries.complete()) {
+            return new PurgeOldReadNotificationsResult(deliveries.deleted(), 0, false);
+        }
+        var capped = new Sweep(0, true);
+        if (retentionPolicy.perUserMax() > 0) {
+            capped = sweep(USER_CAP_CHECKPOINT, deliveriesChunkTimer, deadline, this::purgeBeyondUserCap);
+            if (!capped.complete()) {
+                return new PurgeOldReadNotificationsResult(deliveries.deleted() + capped.deleted(), 0, false);
+            }
+        }
+        var notifications = sweep(NOTIFICATIONS_CHECKPOINT, notificationsChunkTimer, deadline, this::purgeOrphanNotifications);
+        return new PurgeOldReadNotificationsResult(deliveries.deleted() + capped.deleted(),
+                                                   notifications.deleted(),
+                                                   notifications.complete());
+    }
+
+    /**
+     * What {@link #purge} would delete now, without deleting anything.
+     */
+    public RetentionPreviewResponse preview(Duration readRetention) {
+        var expired = userNotificationRepository.countExpired(retentionPolicy.cutoffs(readRetention, Instant.now()));
+        var perUserMax = retentionPolicy.perUserMax();
+        return new RetentionPreviewResponse(expired,
+                                            expired.stream().mapToLong(RetentionPreviewEntry::deliveries).sum(),
+                                            perUserMax,
+                                            perUserMax > 0 ? userNotificationRepository.countBeyondCap(perUserMax) : 0);
+    }
+
+    private Sweep sweep(String checkpoint, Timer chunkTimer, Instant deadline, LongFunction<Chunk> purgeChunk) {
+        var afterId = checkpointRepository.findLastId(checkpoint);
+        // A sweep resumed from a checkpoint wraps around once so rows below it that
+        // expired meanwhile are not skipped.
+        var wrapped = afterId == 0;
+        var deleted = 0;
+        while (true) {
+            var fromId = afterId;
+            var chunk = chunkTimer.record(() -> QuarkusTransaction.requiringNew().call(() -> {
+                var result = purgeChunk.apply(fromId);
+                checkpointRepository.save(checkpoint, result.scanned() < chunkSize ? 0 : result.lastId());
+                return result;
+            }));
+            deleted += chunk.deleted();
+            if (chunk.scanned() < chunkSize) {
+                if (wrapped) {
+                    return new Sweep(deleted, true);
+                }
+                wrapped = true;
+                afterId = 0;
+            } else {
+                afterId = chunk.lastId();
+            }
+            if (!Instant.now().isBefore(deadline) || !pause()) {
+                return new Sweep(deleted, false);
+            }
+        }
+    }
+
+    private Chunk purgeDeliveries(RetentionCutoffs cutoffs, long afterId) {
+        var expired = userNotificationRepository.deleteExpired(cutoffs, afterId, chunkSize);
+        if (expired.isEmpty()) {
+            return new Chunk(afterId, 0, 0);
+        }
+        var userIds = new HashSet<Long>();
+        expired.forEach(delivery -> userIds.add(delivery.userId()));
+        inboxVersionService.bump(userIds);
+        deliveriesPurged.increment(expired.size());
+        backlog.updateAndGet(current -> Math.max(0, current - expired.size()));
+        return new Chunk(expired.getLast().id(), expired.size(), expired.size());
+    }
+
+    private Chunk purgeBeyondUserCap(long afterUserId) {
+        var userIds = userNotificationRepository.findUserIdsOverCap(retentionPolicy.perUserMax(), afterUserId, chunkSize);
+        if (userIds.isEmpty()) {
+            return new Chunk(afterUserId, 0, 0);
+        }
+        var deleted = userNotificationRepository.deleteBeyondCap(userIds, retentionPolicy.perUserMax());
+        inboxVersionService.bump(userIds);
+        deliveriesPurged.increment(deleted);
+        return new Chunk(userIds.getLast(), userIds.size(), deleted);
+    }
+
+    private Chunk purgeOrphanNotifications(long afterId) {
+        var ids = notificationRepository.takePurgeCandidatesAfter(afterId, chunkSize);
+        if (ids.isEmpty()) {
+            return new Chunk(afterId, 0, 0);
+        }
+        var deleted = notificationRepository.deleteWithoutDeliveries(ids);
+        notificationsPurged.increment(deleted);
+        backlog.updateAndGet(current -> Math.max(0, current - ids.size()));
+        return new Chunk(ids.getLast(), ids.size(), deleted);
+    }
+
+    private boolean pause() {
+        if (chunkPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
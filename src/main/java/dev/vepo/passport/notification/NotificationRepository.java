@@ -1,9 +1,12 @@
 package dev.vepo.passport.notification;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import dev.vepo.passport.model.Notification;
+import dev.vepo.passport.model.User;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -26,31 +29,173 @@ public class NotificationRepository {
     }
 
     public Optional<Notification> findById(Long id) {
-        return entityManager.createQuery("FROM Notification n LEFT JOIN FETCH n.items WHERE n.id = :id", Notification.class)
+        return entityManager.createQuery("FROM Notification n WHERE n.id = :id", Notification.class)
                             .setParameter("id", id)
                             .getResultStream()
                             .findFirst();
     }
 
-    public List<Notification> findByEngageChannelId(Long engageChannelId) {
+    /**
+     * Latest aggregate for the key created since {@code since}. Takes a
+     * transaction-scoped advisory lock on the key first, so concurrent reports for
+     * the same channel either create the aggregate once or update it in turn.
+     */
+    public Optional<Notification> lockAggregate(String sourceService, String sourceType, Long engageChannelId, Instant since) {
+        entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(hashtext(:key))")
+                     .setParameter("key", "notification-aggregate:%s:%s:%d".formatted(sourceService, sourceType, engageChannelId))
+                     .getResultList();
         return entityManager.createQuery("""
                                          FROM Notification n
-                                         LEFT JOIN FETCH n.items
-                                         WHERE n.engageChannelId = :engageChannelId
+                                         WHERE n.aggregated = true
+                                           AND n.engageChannelId = :engageChannelId
+                                           AND n.sourceService = :sourceService
+                                           AND n.sourceType = :sourceType
+                                           AND n.createdAt >= :since
                                          ORDER BY n.createdAt DESC
                                          """, Notification.class)
                             .setParameter("engageChannelId", engageChannelId)
+                            .setParameter("sourceService", sourceService)
+                            .setParameter("sourceType", sourceType)
+                            .setParameter("since", since)
+                            .setMaxResults(1)
+                            .getResultStream()
+                            .findFirst();
+    }
+
+    @Transactional
+    public int deleteItems(Long notificationId) {
+        return entityManager.createQuery("DELETE FROM NotificationItem i WHERE i.notification.id = :notificationId")
+                            .setParameter("notificationId", notificationId)
+                            .executeUpdate();
+    }
+
+    public List<NotificationItemResponse> findItems(Long notificationId, int afterSequence, int limit) {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.notification.NotificationItemResponse(
+                                             i.notification.id, i.id, i.title, i.description, i.reportSize, i.sequence)
+                                         FROM NotificationItem i
+                                         WHERE i.notification.id = :notificationId AND i.sequence > :afterSequence
+                                         ORDER BY i.sequence
+                                         """, NotificationItemResponse.class)
+                            .setParameter("notificationId", notificationId)
+                            .setParameter("afterSequence", afterSequence)
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    public boolean existsById(Long notificationId) {
+        return !entityManager.createQuery("SELECT n.id FROM Notification n WHERE n.id = :notificationId", Long.class)
+                             .setParameter("notificationId", notificationId)
+                             .setMaxResults(1)
+                             .getResultList()
+                             .isEmpty();
+    }
+
+    public Optional<ReportPayload> findReport(Long notificationId) {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.notification.ReportPayload(n.reportGzip, n.legacyReport)
+                                         FROM Notification n
+                                         WHERE n.id = :notificationId
+                                         """, ReportPayload.class)
+                            .setParameter("notificationId", notificationId)
+                            .getResultStream()
+                            .findFirst();
+    }
+
+    public Optional<ReportPayload> findItemReport(Long notificationId, Long itemId) {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.notification.ReportPayload(i.reportGzip, i.legacyReport)
+                                         FROM NotificationItem i
+                                         WHERE i.id = :itemId AND i.notification.id = :notificationId
+                                         """, ReportPayload.class)
+                            .setParameter("notificationId", notificationId)
+                            .setParameter("itemId", itemId)
+                            .getResultStream()
+                            .findFirst();
+    }
+
+    /**
+     * Channel summaries with the reader's read flag, resolved in a single query
+     * through a left join on deliveries.
+     */
+    public List<NotificationSummaryResponse> findSummariesByEngageChannelId(User reader, Long engageChannelId, int page, int size) {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.notification.NotificationSummaryResponse(
+                                             n.id, n.sourceService, n.sourceType, n.engageChannelId, n.title, n.description,
+                                             COALESCE(un.read, false), n.itemCount, n.reportSize, n.createdAt, n.occurrenceCount, n.lastOccurredAt)
+                                         FROM Notification n
+                                         LEFT JOIN UserNotification un ON un.notification = n AND un.user = :reader
+                                         WHERE n.engageChannelId = :engageChannelId
+                                         ORDER BY n.createdAt DESC, n.id DESC
+                                         """, NotificationSummaryResponse.class)
+                            .setParameter("reader", reader)
+                            .setParameter("engageChannelId", engageChannelId)
+                            .setFirstResult(page * size)
+                            .setMaxResults(size)
                             .getResultList();
     }
 
+    /**
+     * Queues a notification for the orphan sweep.
+     */
+    @Transactional
+    public void queuePurgeCandidate(Notification notification) {
+        entityManager.createNativeQuery("""
+                                        INSERT INTO tb_notification_purge_candidates (notification_id, notification_created_at)
+                                        VALUES (:id, :createdAt)
+                                        ON CONFLICT DO NOTHING
+                                        """)
+                     .setParameter("id", notification.getId())
+                     .setParameter("createdAt", notification.getCreatedAt())
+                     .executeUpdate();
+    }
+
+    /**
+     * Removes and returns up to {@code limit} queued candidates with an id above
+     * {@code afterId}, in id order.
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Long> takePurgeCandidatesAfter(long afterId, int limit) {
+        return ((List<Number>) entityManager.createNativeQuery("""
+                                                               DELETE FROM tb_notification_purge_candidates
+                                                               WHERE notification_id IN (
+                                                                   SELECT notification_id FROM tb_notification_purge_candidates
+                                                                   WHERE notification_id > :afterId
+                                                                   ORDER BY notification_id
+                                                                   LIMIT :limit
+                                                                   FOR UPDATE SKIP LOCKED
+                                                               )
+                                                               RETURNING notification_id
+                                                               """)
+                                            .setParameter("afterId", afterId)
+                                            .setParameter("limit", limit)
+                                            .getResultList()).stream()
+                                                             .map(Number::longValue)
+                                                             .sorted()
+                                                             .toList();
+    }
+
+    public long countPurgeCandidates(long cap) {
+        return ((Number) entityManager.createNativeQuery("""
+                                                         SELECT COUNT(*) FROM (
+                                                             SELECT 1 FROM tb_notification_purge_candidates LIMIT :cap
+                                                         ) queued
+                                                         """)
+                                      .setParameter("cap", cap)
+                                      .getSingleResult()).longValue();
+    }
+
     @Transactional
-    public int deleteWithoutDeliveries() {
+    public int deleteWithoutDeliveries(Collection<Long> ids) {
         return entityManager.createQuery("""
                                          DELETE FROM Notification n
-                                         WHERE NOT EXISTS (
-                                             SELECT 1 FROM UserNotification un WHERE un.notification = n
-                                         )
+                                         WHERE n.id IN :ids
+                                           AND NOT EXISTS (
+                                               SELECT 1 FROM UserNotification un WHERE un.notification = n
+                                           )
                                          """)
+                            .setParameter("ids", ids)
                             .executeUpdate();
     }
 }
@@ -4,7 +4,6 @@ import java.time.Instant;
 import java.util.List;
 
 import dev.vepo.passport.model.Notification;
-import dev.vepo.passport.model.NotificationItem;
 
 public record NotificationResponse(Long id,
                                    String sourceService,
@@ -12,24 +11,37 @@ public record NotificationResponse(Long id,
                                    Long engageChannelId,
                                    String title,
                                    String description,
-                                   String report,
+                                   int reportSize,
+                                   String reportUrl,
                                    boolean read,
                                    Instant createdAt,
-                                   List<NotificationItemResponse> items) {
-    public static NotificationResponse fromDelivery(Long userNotificationId, Notification notification, boolean read) {
-        var itemResponses = notification.getItems()
-                                        .stream()
-                                        .map(NotificationItemResponse::from)
-                                        .toList();
+                                   int occurrenceCount,
+                                   Instant lastOccurredAt,
+                                   int itemCount,
+                                   List<NotificationItemResponse> items,
+                                   Integer nextItemsAfter) {
+    public static NotificationResponse fromDelivery(Long userNotificationId,
+                                                    Notification notification,
+                                                    boolean read,
+                                                    NotificationItemPageResponse firstItems) {
         return new NotificationResponse(notification.getId(),
                                         notification.getSourceService(),
                                         notification.getSourceType(),
                                         notification.getEngageChannelId(),
                                         notification.getTitle(),
                                         notification.getDescription(),
-                                        notification.getReport(),
+                                        notification.getReportSize(),
+                                        reportUrl(notification.getId(), notification.getReportSize()),
                                         read,
                                         notification.getCreatedAt(),
-                                        itemResponses);
+                                        notification.getOccurrenceCount(),
+                                        notification.getLastOccurredAt(),
+                                        notification.getItemCount(),
+                                        firstItems.items(),
+                                        firstItems.nextAfter());
+    }
+
+    static String reportUrl(Long notificationId, int reportSize) {
+        return reportSize > 0 ? "/api/notifications/%d/report".formatted(notificationId) : null;
     }
 }
@@ -0,0 +1,51 @@
+package dev.vepo.passport.notification;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Retention rules applied by {@link NotificationPurgeEngine}. The default read
+ * max age stays {@code passport.notifications.read-retention}; a rule field
+ * left out inherits the default.
+ */
+@ConfigMapping(prefix = "passport.notifications.retention")
+public interface NotificationRetentionConfig {
+
+    /**
+     * Unread deliveries older than this are deleted. Kept forever when absent.
+     */
+    Optional<Duration> unreadMaxAge();
+
+    /**
+     * Deliveries kept per user, newest first. {@code 0}, the default, disables the
+     * cap.
+     */
+    @WithDefault("0")
+    int perUserMax();
+
+    /**
+     * Only reports what would be deleted; the scheduled purge deletes nothing.
+     */
+    @WithDefault("false")
+    boolean dryRun();
+
+    /**
+     * Rules by name. A rule with {@code source-type} wins over one for the whole
+     * source service.
+     */
+    Map<String, Rule> rules();
+
+    interface Rule {
+        String sourceService();
+
+        Optional<String> sourceType();
+
+        Optional<Duration> readMaxAge();
+
+        Optional<Duration> unreadMaxAge();
+    }
+}
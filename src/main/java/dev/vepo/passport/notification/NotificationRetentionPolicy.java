@@ -0,0 +1,77 @@
+package dev.vepo.passport.notification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class NotificationRetentionPolicy {
+
+    private final NotificationRetentionConfig config;
+
+    @Inject
+    public NotificationRetentionPolicy(NotificationRetentionConfig config) {
+        if (config.perUserMax() < 0) {
+            throw new IllegalArgumentException("passport.notifications.retention.per-user-max must not be negative");
+        }
+        this.config = config;
+    }
+
+    public RetentionCutoffs cutoffs(Duration readRetention, Instant now) {
+        var unreadMaxAge = config.unreadMaxAge();
+        var sources = config.rules()
+                            .values()
+                            .stream()
+                            .sorted(Comparator.comparing(NotificationRetentionConfig.Rule::sourceService)
+                                              .thenComparing(rule -> rule.sourceType().orElse("")))
+                            .map(rule -> new RetentionCutoffs.SourceCutoff(rule.sourceService(),
+                                                                           rule.sourceType().orElse(null),
+                                                                           now.minus(rule.readMaxAge().orElse(readRetention)),
+                                                                           rule.unreadMaxAge()
+                                                                               .or(() -> unreadMaxAge)
+                                                                               .map(now::minus)
+                                                                               .orElse(null)))
+                            .toList();
+        return new RetentionCutoffs(sources, now.minus(readRetention), unreadMaxAge.map(now::minus).orElse(null));
+    }
+
+    /**
+     * Longest read max age of the default and every rule.
+     */
+    public Duration longestReadMaxAge(Duration readRetention) {
+        return config.rules()
+                     .values()
+                     .stream()
+                     .flatMap(rule -> rule.readMaxAge().stream())
+                     .reduce(readRetention, (longest, age) -> age.compareTo(longest) > 0 ? age : longest);
+    }
+
+    /**
+     * Longest unread max age of the default and every rule, or empty when some
+     * unread deliveries are kept forever.
+     */
+    public Optional<Duration> longestUnreadMaxAge() {
+        var unreadMaxAge = config.unreadMaxAge();
+        if (unreadMaxAge.isEmpty()) {
+            return Optional.empty();
+        }
+        var longest = unreadMaxAge.get();
+        for (var rule : config.rules().values()) {
+            var age = rule.unreadMaxAge().orElse(longest);
+            longest = age.compareTo(longest) > 0 ? age : longest;
+        }
+        return Optional.of(longest);
+    }
+
+    public int perUserMax() {
+        return config.perUserMax();
+    }
+
+    public boolean dryRun() {
+        return config.dryRun();
+    }
+}
@@ -2,69 +2,226 @@ package dev.vepo.passport.notification;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import dev.vepo.passport.model.Notification;
 import dev.vepo.passport.model.NotificationItem;
 import dev.vepo.passport.model.User;
 import dev.vepo.passport.model.UserNotification;
-import dev.vepo.passport.channelfollow.ChannelFollowRepository;
+import dev.vepo.passport.channelfollow.ChannelFollowerIndex;
+import dev.vepo.passport.shared.cache.LruCache;
 import dev.vepo.passport.user.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
 @ApplicationScoped
 public class NotificationService {
 
+    private static final int DETAIL_ITEMS = 50;
+
     private final NotificationRepository notificationRepository;
     private final UserNotificationRepository userNotificationRepository;
-    private final ChannelFollowRepository channelFollowRepository;
+    private final ChannelFollowerIndex channelFollowerIndex;
     private final UserRepository userRepository;
+    private final InboxVersionService inboxVersionService;
+    private final NotificationPartitionRepository notificationPartitionRepository;
+    private final NotificationPurgeEngine notificationPurgeEngine;
+    private final NotificationRetentionPolicy retentionPolicy;
+    private final ReadReceiptBuffer readReceiptBuffer;
+    private final NotificationIdempotencyRepository idempotencyRepository;
+    private final LruCache<String, Long> recentIdempotencyKeys;
+    private final Duration aggregationWindow;
 
     @Inject
     public NotificationService(NotificationRepository notificationRepository,
                                UserNotificationRepository userNotificationRepository,
-                               ChannelFollowRepository channelFollowRepository,
-                               UserRepository userRepository) {
+                               ChannelFollowerIndex channelFollowerIndex,
+                               UserRepository userRepository,
+                               InboxVersionService inboxVersionService,
+                               NotificationPartitionRepository notificationPartitionRepository,
+                               NotificationPurgeEngine notificationPurgeEngine,
+                               NotificationRetentionPolicy retentionPolicy,
+                               ReadReceiptBuffer readReceiptBuffer,
+                               NotificationIdempotencyRepository idempotencyRepository,
+                               @ConfigProperty(name = "passport.notifications.idempotency.cache-size", defaultValue = "10000") int idempotencyCacheSize,
+                               @ConfigProperty(name = "passport.notifications.aggregation.window", defaultValue = "1h") Duration aggregationWindow) {
         this.notificationRepository = notificationRepository;
         this.userNotificationRepository = userNotificationRepository;
-        this.channelFollowRepository = channelFollowRepository;
+        this.channelFollowerIndex = channelFollowerIndex;
         this.userRepository = userRepository;
+        this.inboxVersionService = inboxVersionService;
+        this.notificationPartitionRepository = notificationPartitionRepository;
+        this.notificationPurgeEngine = notificationPurgeEngine;
+        this.retentionPolicy = retentionPolicy;
+        this.readReceiptBuffer = readReceiptBuffer;
+        this.idempotencyRepository = idempotencyRepository;
+        this.recentIdempotencyKeys = new LruCache<>(idempotencyCacheSize);
+        this.aggregationWindow = aggregationWindow;
     }
 
+    /**
+     * Creates and fans out a notification. When {@code idempotencyKey} (or the
+     * request {@code externalId}) was already used by the same source service,
+     * nothing is written and the original notification is returned instead. With
+     * {@code aggregate}, a report for the same source and channel within
+     * {@code aggregation.window} updates the open aggregate in place.
+     */
     @Transactional
-    public NotificationResponse publishInternalNotification(CreateInternalNotificationRequest request) {
-        var notification = new Notification(request.sourceService(),
+    public PublishedNotification publishInternalNotification(CreateInternalNotificationRequest request, String idempotencyKey) {
+        var key = resolveIdempotencyKey(request, idempotencyKey);
+        if (key != null) {
+            var original = findIdempotentNotification(request.sourceService(), key);
+            if (original != null) {
+                return new PublishedNotification(original, true);
+            }
+        }
+
+        var aggregate = aggregates(request) ? notificationRepository.lockAggregate(request.sourceService(),
+                                                                                   request.sourceType(),
+                                                                                   request.engageChannelId(),
+                                                                                   Instant.now().minus(aggregationWindow))
+                                            : Optional.<Notification>empty();
+        Notification notification;
+        if (aggregate.isPresent()) {
+            notification = aggregate.get();
+            notificationRepository.deleteItems(notification.getId());
+            notification.clearItems();
+            notification.recordOccurrence(request.title(), request.description(), request.report());
+            addItems(notification, request.items());
+        } else {
+            notification = new Notification(request.sourceService(),
                                             request.sourceType(),
                                             request.engageChannelId(),
                                             request.title(),
                                             request.description(),
                                             request.report());
+            notification.setAggregated(aggregates(request));
+            addItems(notification, request.items());
+            notificationRepository.save(notification);
+        }
 
-        var sequence = 0;
-        if (request.items() != null) {
-            for (var item : request.items()) {
-                notification.addItem(new NotificationItem(item.title(),
-                                                          item.description(),
-                                                          item.report(),
-                                                          sequence++));
+        if (key != null) {
+            if (!idempotencyRepository.register(request.sourceService(), key, notification)) {
+                // Lost the race against a concurrent retry that has already committed.
+                QuarkusTransaction.setRollbackOnly();
+                var original = findIdempotentNotification(request.sourceService(), key);
+                if (original == null) {
+                    throw new IllegalStateException("Idempotency key claimed without a notification: %s".formatted(key));
+                }
+                return new PublishedNotification(original, true);
             }
+            recentIdempotencyKeys.put(cacheKey(request.sourceService(), key), notification.getId());
         }
 
-        notificationRepository.save(notification);
-
         if (request.engageChannelId() != null) {
-            channelFollowRepository.findByEngageChannelId(request.engageChannelId())
-                                   .forEach(follow -> userNotificationRepository.save(new UserNotification(follow.getUser(),
-                                                                                                           notification)));
+            fanOut(notification, aggregate.isPresent());
+        }
+
+        return new PublishedNotification(NotificationResponse.fromDelivery(null,
+                                                                           notification,
+                                                                           false,
+                                                                           NotificationItemPageResponse.of(notification.getItems()
+                                                                                                                       .stream()
+                                                                                                                       .limit(DETAIL_ITEMS + 1L)
+                                                                                                                       .map(NotificationItemResponse::from)
+                                                                                                                       .toList(),
+                                                                                                           DETAIL_ITEMS)),
+                                         false);
+    }
+
+    private static boolean aggregates(CreateInternalNotificationRequest request) {
+        return Boolean.TRUE.equals(request.aggregate()) && request.engageChannelId() != null;
+    }
+
+    private static void addItems(Notification notification, List<InternalNotificationItemRequest> items) {
+        if (items == null) {
+            return;
+        }
+        var sequence = 0;
+        for (var item : items) {
+            notification.addItem(new NotificationItem(item.title(),
+                                                      item.description(),
+                                                      item.report(),
+                                                      sequence++));
         }
+    }
+
+    /**
+     * Delivers to the channel followers held by {@link ChannelFollowerIndex}. An
+     * updated aggregate goes back to unread for everyone it already reached.
+     */
+    private void fanOut(Notification notification, boolean updatedAggregate) {
+        var followerIds = channelFollowerIndex.followers(notification.getEngageChannelId());
+        userNotificationRepository.insertDeliveries(notification, followerIds);
+        if (followerIds.length == 0 && !updatedAggregate) {
+            // Reached nobody: left to the orphan sweep.
+            notificationRepository.queuePurgeCandidate(notification);
+        }
+        var notifiedIds = new HashSet<Long>(followerIds.length);
+        if (updatedAggregate) {
+            userNotificationRepository.markUnreadByNotification(notification);
+            notifiedIds.addAll(userNotificationRepository.findUserIdsByNotification(notification));
+        }
+        for (var userId : followerIds) {
+            notifiedIds.add(userId);
+        }
+        inboxVersionService.bump(notifiedIds);
+    }
+
+    private static String resolveIdempotencyKey(CreateInternalNotificationRequest request, String idempotencyKey) {
+        var headerKey = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.strip();
+        var externalId = request.externalId() == null || request.externalId().isBlank() ? null : request.externalId().strip();
+        if (headerKey != null && externalId != null && !headerKey.equals(externalId)) {
+            throw new BadRequestException("Idempotency-Key header and externalId do not match");
+        }
+        var key = headerKey != null ? headerKey : externalId;
+        if (key != null && key.length() > 255) {
+            throw new BadRequestException("Idempotency key must have at most 255 characters");
+        }
+        return key;
+    }
+
+    private static String cacheKey(String sourceService, String idempotencyKey) {
+        return sourceService + '\u0000' + idempotencyKey;
+    }
 
-        return NotificationResponse.fromDelivery(null, notification, false);
+    /**
+     * The cache only remembers which notification a key produced; the row is always
+     * reloaded, so a cached id whose insert rolled back or whose notification was
+     * purged falls through to the database check.
+     */
+    private NotificationResponse findIdempotentNotification(String sourceService, String idempotencyKey) {
+        var cacheKey = cacheKey(sourceService, idempotencyKey);
+        var cached = recentIdempotencyKeys.get(cacheKey)
+                                          .flatMap(notificationRepository::findById);
+        if (cached.isEmpty()) {
+            recentIdempotencyKeys.remove(cacheKey);
+        }
+        var notification = cached.or(() -> idempotencyRepository.findNotificationId(sourceService, idempotencyKey)
+                                                                .flatMap(notificationRepository::findById));
+        if (notification.isEmpty()) {
+            return null;
+        }
+        recentIdempotencyKeys.put(cacheKey, notification.get().getId());
+        return NotificationResponse.fromDelivery(null,
+                                                 notification.get(),
+                                                 false,
+                                                 findItemPage(notification.get().getId(), -1, DETAIL_ITEMS));
     }
 
     public List<NotificationSummaryResponse> listForUser(String username, Boolean unreadOnly) {
+        readReceiptBuffer.flushBeforeRead(username);
         var user = requireActiveUser(username);
         return userNotificationRepository.findByUser(user, unreadOnly)
                                          .stream()
@@ -72,39 +229,77 @@ public class NotificationService {
                                          .toList();
     }
 
-    public List<NotificationSummaryResponse> listByEngageChannel(String username, Long engageChannelId) {
+    public List<NotificationSummaryResponse> listByEngageChannel(String username, Long engageChannelId, int page, int size) {
+        readReceiptBuffer.flushBeforeRead(username);
         var user = requireActiveUser(username);
-        return notificationRepository.findByEngageChannelId(engageChannelId)
-                                     .stream()
-                                     .map(notification -> {
-                                         var read = userNotificationRepository.findByUserAndNotificationId(user, notification.getId())
-                                                                              .map(UserNotification::isRead)
-                                                                              .orElse(false);
-                                         return NotificationSummaryResponse.from(notification, read);
-                                     })
-                                     .toList();
+        return notificationRepository.findSummariesByEngageChannelId(user, engageChannelId, page, size);
     }
 
     public long countUnreadForUser(String username) {
+        readReceiptBuffer.flushBeforeRead(username);
         var user = requireActiveUser(username);
         return userNotificationRepository.countUnreadByUser(user);
     }
 
-    @Transactional
+    /**
+     * Detail view. Opening marks the delivery read, but the write is deferred to
+     * {@link ReadReceiptBuffer}.
+     */
     public NotificationResponse findForUser(String username, Long notificationId, boolean allowEngageAdminAccess) {
         var user = requireActiveUser(username);
         var delivery = userNotificationRepository.findByUserAndNotificationId(user, notificationId);
         if (delivery.isPresent()) {
-            delivery.get().markOpened();
-            userNotificationRepository.merge(delivery.get());
-            return NotificationResponse.fromDelivery(delivery.get().getId(), delivery.get().getNotification(), delivery.get().isRead());
+            readReceiptBuffer.recordOpen(username, delivery.get());
+            return NotificationResponse.fromDelivery(delivery.get().getId(),
+                                                     delivery.get().getNotification(),
+                                                     true,
+                                                     findItemPage(notificationId, -1, DETAIL_ITEMS));
         }
         if (!allowEngageAdminAccess) {
             throw new NotFoundException("Notification not found with id: %d".formatted(notificationId));
         }
         var notification = notificationRepository.findById(notificationId)
                                                  .orElseThrow(() -> new NotFoundException("Notification not found with id: %d".formatted(notificationId)));
-        return NotificationResponse.fromDelivery(null, notification, false);
+        return NotificationResponse.fromDelivery(null, notification, false, findItemPage(notificationId, -1, DETAIL_ITEMS));
+    }
+
+    public NotificationItemPageResponse findItems(String username,
+                                                  Long notificationId,
+                                                  int afterSequence,
+                                                  int limit,
+                                                  boolean allowEngageAdminAccess) {
+        requireReadable(username, notificationId, allowEngageAdminAccess);
+        return findItemPage(notificationId, afterSequence, limit);
+    }
+
+    /**
+     * One keyset page of items, without any access check. Runs in its own
+     * transaction so streaming callers can page after the request scope is gone.
+     */
+    @Transactional
+    public NotificationItemPageResponse findItemPage(Long notificationId, int afterSequence, int limit) {
+        return NotificationItemPageResponse.of(notificationRepository.findItems(notificationId, afterSequence, limit + 1), limit);
+    }
+
+    public void requireReadable(String username, Long notificationId, boolean allowEngageAdminAccess) {
+        var user = requireActiveUser(username);
+        if (userNotificationRepository.existsByUserAndNotificationId(user, notificationId)
+                || (allowEngageAdminAccess && notificationRepository.existsById(notificationId))) {
+            return;
+        }
+        throw new NotFoundException("Notification not found with id: %d".formatted(notificationId));
+    }
+
+    /**
+     * Report of the notification, or of one of its items when {@code itemId} is
+     * set. Unlike {@link #findForUser} it does not mark the delivery read.
+     */
+    public ReportPayload findReport(String username, Long notificationId, Long itemId, boolean allowEngageAdminAccess) {
+        requireReadable(username, notificationId, allowEngageAdminAccess);
+        var report = itemId == null ? notificationRepository.findReport(notificationId)
+                                    : notificationRepository.findItemReport(notificationId, itemId);
+        return report.filter(payload -> !payload.isEmpty())
+                     .orElseThrow(() -> new NotFoundException("Report not found for notification: %d".formatted(notificationId)));
     }
 
     @Transactional
@@ -112,6 +307,7 @@ public class NotificationService {
         var delivery = requireDelivery(username, notificationId);
         delivery.markRead();
         userNotificationRepository.merge(delivery);
+        inboxVersionService.bump(delivery.getUser().getId());
         return NotificationSummaryResponse.from(delivery.getNotification(), delivery.isRead());
     }
 
@@ -120,25 +316,90 @@ public class NotificationService {
         var delivery = requireDelivery(username, notificationId);
         delivery.markUnread();
         userNotificationRepository.merge(delivery);
+        inboxVersionService.bump(delivery.getUser().getId());
         return NotificationSummaryResponse.from(delivery.getNotification(), delivery.isRead());
     }
 
     @Transactional
     public MarkAllReadResponse markAllRead(String username) {
+        readReceiptBuffer.flush(username);
         var user = requireActiveUser(username);
         var markedCount = userNotificationRepository.markAllReadByUser(user);
+        if (markedCount > 0) {
+            inboxVersionService.bump(user.getId());
+        }
         return new MarkAllReadResponse(markedCount);
     }
 
     @Transactional
+    public UpdateReadStateResponse updateReadState(String username, UpdateReadStateRequest request) {
+        readReceiptBuffer.flush(username);
+        var user = requireActiveUser(username);
+        var updatedCount = userNotificationRepository.updateReadState(user, Set.copyOf(request.ids()), request.read());
+        if (updatedCount > 0) {
+            inboxVersionService.bump(user.getId());
+        }
+        return new UpdateReadStateResponse(updatedCount, userNotificationRepository.countUnreadByUser(user));
+    }
+
     public PurgeOldReadNotificationsResult purgeOldReadNotifications(Duration readRetention) {
-        var readBefore = Instant.now().minus(readRetention);
-        var deletedDeliveries = userNotificationRepository.deleteReadOlderThan(readBefore);
-        var deletedNotifications = notificationRepository.deleteWithoutDeliveries();
-        return new PurgeOldReadNotificationsResult(deletedDeliveries, deletedNotifications);
+        return notificationPurgeEngine.purge(readRetention, Instant.MAX);
+    }
+
+    public RetentionPreviewResponse previewRetention(Duration readRetention) {
+        return notificationPurgeEngine.preview(readRetention);
+    }
+
+    /**
+     * Pre-creates the next {@code premakeMonths} monthly partitions. With
+     * {@code retentionMonths}, it also drops the months that ended more than that
+     * ago, but only those the purge would have emptied too: past the longest read
+     * max age, and either past the longest unread max age or holding no unread
+     * delivery.
+     */
+    @Transactional
+    public NotificationPartitionMaintenanceResult maintainPartitions(int premakeMonths, Optional<Integer> retentionMonths, Duration readRetention) {
+        var currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        var created = notificationPartitionRepository.ensurePartitions(currentMonth, premakeMonths);
+        var dropped = 0;
+        if (retentionMonths.isPresent()) {
+            var keepFrom = keepPartitionsFrom(currentMonth.minusMonths(retentionMonths.get()), readRetention);
+            inboxVersionService.bump(userNotificationRepository.findUserIdsWithNotificationsCreatedBefore(startOf(keepFrom)));
+            dropped = notificationPartitionRepository.dropPartitionsBefore(keepFrom);
+        }
+        return new NotificationPartitionMaintenanceResult(created, dropped, notificationPartitionRepository.countDefaultPartitionRows());
+    }
+
+    private LocalDate keepPartitionsFrom(LocalDate keepFrom, Duration readRetention) {
+        var now = Instant.now();
+        keepFrom = earlier(keepFrom, monthOf(now.minus(retentionPolicy.longestReadMaxAge(readRetention))));
+        // Unread deliveries past the longest unread max age would be purged anyway.
+        var unreadFrom = retentionPolicy.longestUnreadMaxAge()
+                                        .map(age -> monthOf(now.minus(age)))
+                                        .orElse(LocalDate.EPOCH);
+        if (unreadFrom.isBefore(keepFrom)) {
+            var oldestUnread = userNotificationRepository.findOldestUnreadCreatedBetween(startOf(unreadFrom), startOf(keepFrom));
+            if (oldestUnread.isPresent()) {
+                keepFrom = monthOf(oldestUnread.get());
+            }
+        }
+        return keepFrom;
+    }
+
+    private static LocalDate monthOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).withDayOfMonth(1);
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
     }
 
     private UserNotification requireDelivery(String username, Long notificationId) {
+        readReceiptBuffer.flush(username);
         var user = requireActiveUser(username);
         return userNotificationRepository.findByUserAndNotificationId(user, notificationId)
                                          .orElseThrow(() -> new NotFoundException("Notification not found with id: %d".formatted(notificationId)));
@@ -12,7 +12,38 @@ public record NotificationSummaryResponse(Long id,
                                           String description,
                                           boolean read,
                                           int itemCount,
-                                          Instant createdAt) {
+                                          int reportSize,
+                                          String reportUrl,
+                                          Instant createdAt,
+                                          int occurrenceCount,
+                                          Instant lastOccurredAt) {
+    public NotificationSummaryResponse(Long id,
+                                       String sourceService,
+                                       String sourceType,
+                                       Long engageChannelId,
+                                       String title,
+                                       String description,
+                                       boolean read,
+                                       int itemCount,
+                                       int reportSize,
+                                       Instant createdAt,
+                                       int occurrenceCount,
+                                       Instant lastOccurredAt) {
+        this(id,
+             sourceService,
+             sourceType,
+             engageChannelId,
+             title,
+             description,
+             read,
+             itemCount,
+             reportSize,
+             NotificationResponse.reportUrl(id, reportSize),
+             createdAt,
+             occurrenceCount,
+             lastOccurredAt);
+    }
+
     public static NotificationSummaryResponse from(Notification notification, boolean read) {
         return new NotificationSummaryResponse(notification.getId(),
                                                notification.getSourceService(),
@@ -21,7 +52,10 @@ public record NotificationSummaryResponse(Long id,
                                                notification.getTitle(),
                                                notification.getDescription(),
                                                read,
-                                               notification.getItems() == null ? 0 : notification.getItems().size(),
-                                               notification.getCreatedAt());
+                                               notification.getItemCount(),
+                                               notification.getReportSize(),
+                                               notification.getCreatedAt(),
+                                               notification.getOccurrenceCount(),
+                                               notification.getLastOccurredAt());
     }
 }
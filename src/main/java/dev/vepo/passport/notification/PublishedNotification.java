@@ -0,0 +1,7 @@
+package dev.vepo.passport.notification;
+
+/**
+ * Outcome of an ingest. {@code replayed} is set when the idempotency key was
+ * already used and {@code notification} is the one created the first time.
+ */
+public record PublishedNotification(NotificationResponse notification, boolean replayed) {}
@@ -0,0 +1,36 @@
+package dev.vepo.passport.notification;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+@ApplicationScoped
+public class PurgeCheckpointRepository {
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public PurgeCheckpointRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public long findLastId(String name) {
+        var rows = entityManager.createNativeQuery("SELECT last_id FROM tb_purge_checkpoints WHERE name = :name")
+                                .setParameter("name", name)
+                                .getResultList();
+        return rows.isEmpty() ? 0L : ((Number) rows.get(0)).longValue();
+    }
+
+    @Transactional
+    public void save(String name, long lastId) {
+        entityManager.createNativeQuery("""
+                                        INSERT INTO tb_purge_checkpoints (name, last_id, updated_at)
+                                        VALUES (:name, :lastId, NOW())
+                                        ON CONFLICT (name) DO UPDATE SET last_id = EXCLUDED.last_id, updated_at = EXCLUDED.updated_at
+                                        """)
+                     .setParameter("name", name)
+                     .setParameter("lastId", lastId)
+                     .executeUpdate();
+    }
+}
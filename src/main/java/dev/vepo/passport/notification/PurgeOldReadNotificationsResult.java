@@ -1,3 +1,3 @@
 package dev.vepo.passport.notification;
 
-public record PurgeOldReadNotificationsResult(int deletedDeliveries, int deletedNotifications) {}
+public record PurgeOldReadNotificationsResult(int deletedDeliveries, int deletedNotifications, boolean complete) {}
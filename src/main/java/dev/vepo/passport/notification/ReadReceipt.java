@@ -0,0 +1,17 @@
+package dev.vepo.passport.notification;
+
+import java.time.Instant;
+
+/**
+ * A pending open of a delivery. {@code readAt} is set when the delivery was
+ * unread at the time it was opened.
+ */
+public record ReadReceipt(long deliveryId, long userId, Instant notificationCreatedAt, Instant openedAt, Instant readAt) {
+    public ReadReceipt merge(ReadReceipt newer) {
+        return new ReadReceipt(deliveryId,
+                               userId,
+                               notificationCreatedAt,
+                               newer.openedAt.isAfter(openedAt) ? newer.openedAt : openedAt,
+                               readAt != null ? readAt : newer.readAt);
+    }
+}
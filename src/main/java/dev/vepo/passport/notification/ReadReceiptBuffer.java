@@ -0,0 +1,159 @@
+package dev.vepo.passport.notification;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.model.UserNotification;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Write-behind buffer for notification opens. Views only record a
+ * {@link ReadReceipt}, coalesced per delivery; receipts are written in JDBC
+ * batches by {@link #flushAll()}. Anything that reads or changes a user's read
+ * state calls {@link #flush(String)} first, which also waits for a
+ * {@link #flushAll()} still writing that user's receipts, so a user sees their
+ * own opens on the replica that recorded them. Read paths use
+ * {@link #flushBeforeRead(String)}, which keeps the receipts and serves the
+ * stored state when the write fails. The buffer is per replica: other replicas
+ * see an open once it is flushed, within
+ * {@code passport.notifications.read-receipts.flush-interval}, and an open is
+ * not applied over a read-state change made after it.
+ */
+@ApplicationScoped
+public class ReadReceiptBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReceiptBuffer.class);
+
+    private final UserNotificationRepository userNotificationRepository;
+    private final InboxVersionService inboxVersionService;
+    private final int maxPendingUsers;
+    private final ConcurrentMap<String, Map<Long, ReadReceipt>> pending = new ConcurrentHashMap<>();
+    // Users whose receipts a flushAll() has drained and not yet committed.
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Inject
+    public ReadReceiptBuffer(UserNotificationRepository userNotificationRepository,
+                             InboxVersionService inboxVersionService,
+                             @ConfigProperty(name = "passport.notifications.read-receipts.max-pending-users", defaultValue = "10000") int maxPendingUsers) {
+        this.userNotificationRepository = userNotificationRepository;
+        this.inboxVersionService = inboxVersionService;
+        this.maxPendingUsers = maxPendingUsers;
+    }
+
+    public void recordOpen(String username, UserNotification delivery) {
+        var now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        var receipt = new ReadReceipt(delivery.getId(),
+                                      delivery.getUser().getId(),
+                                      delivery.getNotificationCreatedAt(),
+                                      now,
+                                      delivery.isRead() ? null : now);
+        pending.compute(username, (key, receipts) -> {
+            var updated = receipts == null ? new HashMap<Long, ReadReceipt>() : receipts;
+            updated.merge(receipt.deliveryId(), receipt, ReadReceipt::merge);
+            return updated;
+        });
+        if (pending.size() > maxPendingUsers) {
+            flushAll();
+        }
+    }
+
+    public void flush(String username) {
+        var draining = inFlight.get(username);
+        if (draining != null) {
+            // A failed drain puts the receipts back in pending before completing.
+            draining.exceptionally(e -> null).join();
+        }
+        var taken = new AtomicReference<Map<Long, ReadReceipt>>();
+        pending.computeIfPresent(username, (key, receipts) -> {
+            taken.set(receipts);
+            return null;
+        });
+        if (taken.get() != null) {
+            write(Map.of(username, taken.get()));
+        }
+    }
+
+    /**
+     * Like {@link #flush(String)}, but a failed write is logged and its receipts
+     * kept for the next flush instead of failing the read.
+     */
+    public void flushBeforeRead(String username) {
+        try {
+            flush(username);
+        } catch (RuntimeException e) {
+            logger.warn("Serving read state of {} without their pending opens", username);
+        }
+    }
+
+    public void flushAll() {
+        var drained = new HashMap<String, Map<Long, ReadReceipt>>();
+        var draining = new CompletableFuture<Void>();
+        for (var username : List.copyOf(pending.keySet())) {
+            pending.computeIfPresent(username, (key, receipts) -> {
+                drained.put(key, receipts);
+                inFlight.put(key, draining);
+                return null;
+            });
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> write(drained));
+            draining.complete(null);
+        } catch (RuntimeException e) {
+            draining.completeExceptionally(e);
+            throw e;
+        } finally {
+            drained.keySet().forEach(username -> inFlight.remove(username, draining));
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flushAll();
+    }
+
+    private void write(Map<String, Map<Long, ReadReceipt>> receiptsByUser) {
+        var receipts = new ArrayList<ReadReceipt>();
+        var readUserIds = new HashSet<Long>();
+        receiptsByUser.values().forEach(byDelivery -> byDelivery.values().forEach(receipt -> {
+            receipts.add(receipt);
+            if (receipt.readAt() != null) {
+                readUserIds.add(receipt.userId());
+            }
+        }));
+        try {
+            QuarkusTransaction.joiningExisting().run(() -> {
+                userNotificationRepository.applyReadReceipts(receipts);
+                inboxVersionService.bump(readUserIds);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} read receipts, keeping them for the next flush", receipts.size(), e);
+            receiptsByUser.forEach((username, byDelivery) -> pending.compute(username, (key, current) -> {
+                var merged = new HashMap<>(byDelivery);
+                if (current != null) {
+                    current.forEach((deliveryId, receipt) -> merged.merge(deliveryId, receipt, ReadReceipt::merge));
+                }
+                return merged;
+            }));
+            throw e;
+        }
+    }
+}
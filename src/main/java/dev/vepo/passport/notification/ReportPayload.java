@@ -0,0 +1,11 @@
+package dev.vepo.passport.notification;
+
+/**
+ * Stored report content: gzip bytes for rows written since compression was
+ * introduced, plain text for older rows.
+ */
+public record ReportPayload(byte[] gzip, String text) {
+    public boolean isEmpty() {
+        return gzip == null && text == null;
+    }
+}
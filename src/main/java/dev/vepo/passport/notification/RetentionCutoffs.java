@@ -0,0 +1,17 @@
+package dev.vepo.passport.notification;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Retention rules resolved to absolute instants for one purge run. A
+ * {@code null} cutoff keeps matching deliveries forever.
+ */
+public record RetentionCutoffs(List<SourceCutoff> sources, Instant readBefore, Instant unreadBefore) {
+
+    /**
+     * Cutoffs of one rule; {@code sourceType} is {@code null} for a rule that
+     * covers the whole source service.
+     */
+    public record SourceCutoff(String sourceService, String sourceType, Instant readBefore, Instant unreadBefore) {}
+}
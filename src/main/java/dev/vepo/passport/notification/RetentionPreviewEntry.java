@@ -0,0 +1,3 @@
+package dev.vepo.passport.notification;
+
+public record RetentionPreviewEntry(String sourceService, String sourceType, boolean read, long deliveries) {}
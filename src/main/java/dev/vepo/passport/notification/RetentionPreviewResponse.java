@@ -0,0 +1,5 @@
+package dev.vepo.passport.notification;
+
+import java.util.List;
+
+public record RetentionPreviewResponse(List<RetentionPreviewEntry> expired, long expiredDeliveries, int perUserMax, long beyondUserCap) {}
@@ -0,0 +1,10 @@
+package dev.vepo.passport.notification;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record UpdateReadStateRequest(@NotEmpty @Size(max = 500) List<@NotNull Long> ids,
+                                     @NotNull Boolean read) {}
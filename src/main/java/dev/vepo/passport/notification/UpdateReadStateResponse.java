@@ -0,0 +1,3 @@
+package dev.vepo.passport.notification;
+
+public record UpdateReadStateResponse(int updatedCount, long unreadCount) {}
@@ -1,9 +1,21 @@
 package dev.vepo.passport.notification;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.Session;
+
+import dev.vepo.passport.model.Notification;
 import dev.vepo.passport.model.User;
 import dev.vepo.passport.model.UserNotification;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -14,6 +26,38 @@ import jakarta.transaction.Transactional;
 @ApplicationScoped
 public class UserNotificationRepository {
 
+    private static final String EXPIRED_DELIVERIES = """
+                                                     FROM tb_user_notifications un
+                                                     JOIN tb_notifications n ON n.id = un.notification_id AND n.created_at = un.notification_created_at
+                                                     LEFT JOIN LATERAL (
+                                                         SELECT r.read_before, r.unread_before
+                                                         FROM rules r
+                                                         WHERE r.source_service = n.source_service
+                                                           AND (r.source_type IS NULL OR r.source_type = n.source_type)
+                                                         ORDER BY r.source_type NULLS LAST
+                                                         LIMIT 1
+                                                     ) r ON TRUE
+                                                     WHERE CASE WHEN un.read THEN un.read_at < COALESCE(r.read_before, ?)
+                                                                ELSE n.last_occurred_at < COALESCE(r.unread_before, ?)
+                                                           END
+                                                     """;
+
+    // Every delete of deliveries queues their notifications for the orphan sweep.
+    private static final String QUEUE_PURGE_CANDIDATES = """
+                                                         queued AS (
+                                                             INSERT INTO tb_notification_purge_candidates (notification_id, notification_created_at)
+                                                             SELECT DISTINCT notification_id, notification_created_at FROM deleted
+                                                             ON CONFLICT DO NOTHING
+                                                         )
+                                                         """;
+
+    // An open marks read only an unread delivery whose notification and read state
+    // did not change after it.
+    private static final String RECEIPT_MARKS_READ = """
+                                                     COALESCE(NOT un.read
+                                                              AND r.read_at >= n.last_occurred_at
+                                                              AND r.read_at >= COALESCE(un.read_state_changed_at, '-infinity'), false)""";
+
     private final EntityManager entityManager;
 
     @Inject
@@ -41,7 +85,7 @@ public class UserNotificationRepository {
         if (Boolean.TRUE.equals(unreadOnly)) {
             query += " AND un.read = false";
         }
-        query += " ORDER BY n.createdAt DESC";
+        query += " ORDER BY n.lastOccurredAt DESC";
 
         return entityManager.createQuery(query, UserNotification.class)
                             .setParameter("user", user)
@@ -52,7 +96,6 @@ public class UserNotificationRepository {
         return entityManager.createQuery("""
                                          FROM UserNotification un
                                          JOIN FETCH un.notification n
-                                         LEFT JOIN FETCH n.items
                                          WHERE un.user = :user AND n.id = :notificationId
                                          """, UserNotification.class)
                             .setParameter("user", user)
@@ -61,6 +104,67 @@ public class UserNotificationRepository {
                             .findFirst();
     }
 
+    public boolean existsByUserAndNotificationId(User user, Long notificationId) {
+        return !entityManager.createQuery("""
+                                          SELECT un.id FROM UserNotification un
+                                          WHERE un.user = :user AND un.notification.id = :notificationId
+                                          """, Long.class)
+                             .setParameter("user", user)
+                             .setParameter("notificationId", notificationId)
+                             .setMaxResults(1)
+                             .getResultList()
+                             .isEmpty();
+    }
+
+    public List<Long> findUserIdsByNotification(Notification notification) {
+        return entityManager.createQuery("SELECT un.user.id FROM UserNotification un WHERE un.notification = :notification", Long.class)
+                            .setParameter("notification", notification)
+                            .getResultList();
+    }
+
+    /**
+     * Delivers the notification to each user id with one JDBC batch. Users who
+     * already have it are skipped.
+     */
+    @Transactional
+    public void insertDeliveries(Notification notification, long[] userIds) {
+        if (userIds.length == 0) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             INSERT INTO tb_user_notifications (user_id, notification_id, notification_created_at)
+                                                             VALUES (?, ?, ?)
+                                                             ON CONFLICT (user_id, notification_id, notification_created_at) DO NOTHING
+                                                             """)) {
+                var notificationCreatedAt = notification.getCreatedAt().atOffset(ZoneOffset.UTC);
+                for (var userId : userIds) {
+                    statement.setLong(1, userId);
+                    statement.setLong(2, notification.getId());
+                    statement.setObject(3, notificationCreatedAt);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Puts deliveries of an updated aggregate back into the unread state. Only rows
+     * that were read are written.
+     */
+    @Transactional
+    public int markUnreadByNotification(Notification notification) {
+        return entityManager.createQuery("""
+                                         UPDATE UserNotification un
+                                         SET un.read = false, un.readAt = null, un.readStateChangedAt = :changedAt
+                                         WHERE un.notification = :notification AND un.read = true
+                                         """)
+                            .setParameter("notification", notification)
+                            .setParameter("changedAt", Instant.now())
+                            .executeUpdate();
+    }
+
     public long countUnreadByUser(User user) {
         return entityManager.createQuery("""
                                          SELECT COUNT(un) FROM UserNotification un
@@ -74,7 +178,7 @@ public class UserNotificationRepository {
     public int markAllReadByUser(User user) {
         return entityManager.createQuery("""
                                          UPDATE UserNotification un
-                                         SET un.read = true, un.readAt = :readAt
+                                         SET un.read = true, un.readAt = :readAt, un.readStateChangedAt = :readAt
                                          WHERE un.user = :user AND un.read = false
                                          """)
                             .setParameter("user", user)
@@ -83,12 +187,245 @@ public class UserNotificationRepository {
     }
 
     @Transactional
-    public int deleteReadOlderThan(Instant readBefore) {
+    public int updateReadState(User user, Collection<Long> notificationIds, boolean read) {
+        var now = Instant.now();
         return entityManager.createQuery("""
-                                         DELETE FROM UserNotification un
-                                         WHERE un.read = true AND un.readAt < :readBefore
+                                         UPDATE UserNotification un
+                                         SET un.read = :read, un.readAt = :readAt, un.readStateChangedAt = :changedAt
+                                         WHERE un.user = :user AND un.notification.id IN :notificationIds AND un.read <> :read
                                          """)
-                            .setParameter("readBefore", readBefore)
+                            .setParameter("read", read)
+                            .setParameter("readAt", read ? now : null)
+                            .setParameter("changedAt", now)
+                            .setParameter("user", user)
+                            .setParameter("notificationIds", notificationIds)
                             .executeUpdate();
     }
+
+    /**
+     * Applies buffered opens as one JDBC batch. A receipt only marks the delivery
+     * read if it is still unread and the open is not older than the notification's
+     * last occurrence or the delivery's last read-state change, so an aggregate
+     * refreshed or a delivery marked unread after the open stays unread. The latest
+     * open time is always kept.
+     */
+    @Transactional
+    public void applyReadReceipts(Collection<ReadReceipt> receipts) {
+        if (receipts.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             UPDATE tb_user_notifications un
+                                                             SET opened_at = GREATEST(un.opened_at, r.opened_at),
+                                                                 read_at = CASE WHEN %1$s THEN r.read_at ELSE un.read_at END,
+                                                                 read_state_changed_at = CASE WHEN %1$s THEN r.read_at ELSE un.read_state_changed_at END,
+                                                                 read = un.read OR %1$s
+                                                             FROM tb_notifications n,
+                                                                  (SELECT CAST(? AS TIMESTAMPTZ) AS opened_at, CAST(? AS TIMESTAMPTZ) AS read_at) r
+                                                             WHERE un.id = ? AND un.notification_created_at = ?
+                                                               AND n.id = un.notification_id AND n.created_at = un.notification_created_at
+                                                             """.formatted(RECEIPT_MARKS_READ))) {
+                for (var receipt : receipts) {
+                    var readAt = receipt.readAt() == null ? null : receipt.readAt().atOffset(ZoneOffset.UTC);
+                    statement.setObject(1, receipt.openedAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+                    statement.setObject(2, readAt, Types.TIMESTAMP_WITH_TIMEZONE);
+                    statement.setLong(3, receipt.deliveryId());
+                    statement.setObject(4, receipt.notificationCreatedAt().atOffset(ZoneOffset.UTC));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    public List<Long> findUserIdsWithNotificationsCreatedBefore(Instant createdBefore) {
+        return entityManager.createQuery("""
+                                         SELECT DISTINCT un.user.id FROM UserNotification un
+                                         WHERE un.notificationCreatedAt < :createdBefore
+                                         """, Long.class)
+                            .setParameter("createdBefore", createdBefore)
+                            .getResultList();
+    }
+
+    /**
+     * Oldest {@code notification_created_at} of an unread delivery in
+     * {@code [from, before)}.
+     */
+    public Optional<Instant> findOldestUnreadCreatedBetween(Instant from, Instant before) {
+        return Optional.ofNullable(entityManager.createQuery("""
+                                                             SELECT MIN(un.notificationCreatedAt) FROM UserNotification un
+                                                             WHERE un.read = false
+                                                               AND un.notificationCreatedAt < :before
+                                                               AND un.notificationCreatedAt >= :from
+                                                             """, Instant.class)
+                                                .setParameter("before", before)
+                                                .setParameter("from", from)
+                                                .getSingleResult());
+    }
+
+    public long countReadOlderThan(Instant readBefore, long cap) {
+        return ((Number) entityManager.createNativeQuery("""
+                                                         SELECT COUNT(*) FROM (
+                                                             SELECT 1 FROM tb_user_notifications
+                                                             WHERE read = true AND read_at < :readBefore
+                                                             LIMIT :cap
+                                                         ) expired
+                                                         """)
+                                      .setParameter("readBefore", readBefore)
+                                      .setParameter("cap", cap)
+                                      .getSingleResult()).longValue();
+    }
+
+    /**
+     * Deletes up to {@code limit} deliveries past their retention cutoff with an id
+     * above {@code afterId}, lowest ids first, and returns what was deleted. Read
+     * deliveries age from {@code read_at}, unread ones from the last occurrence of
+     * their notification.
+     */
+    @Transactional
+    public List<ExpiredDelivery> deleteExpired(RetentionCutoffs cutoffs, long afterId, int limit) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             WITH rules (source_service, source_type, read_before, unread_before) AS (%s),
+                                                             expired AS (
+                                                                 SELECT un.id, un.notification_created_at
+                                                                 %s
+                                                                   AND un.id > ?
+                                                                 ORDER BY un.id
+                                                                 LIMIT ?
+                                                                 FOR UPDATE OF un SKIP LOCKED
+                                                             ),
+                                                             deleted AS (
+                                                                 DELETE FROM tb_user_notifications d
+                                                                 USING expired e
+                                                                 WHERE d.id = e.id AND d.notification_created_at = e.notification_created_at
+                                                                 RETURNING d.id, d.user_id, d.notification_id, d.notification_created_at
+                                                             ),
+                                                             %s
+                                                             SELECT id, user_id FROM deleted
+                                                             """.formatted(retentionRules(cutoffs), EXPIRED_DELIVERIES, QUEUE_PURGE_CANDIDATES))) {
+                var index = bindRetention(statement, cutoffs);
+                statement.setLong(index++, afterId);
+                statement.setInt(index, limit);
+                var deleted = new ArrayList<ExpiredDelivery>();
+                try (var rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        deleted.add(new ExpiredDelivery(rows.getLong(1), rows.getLong(2)));
+                    }
+                }
+                deleted.sort(Comparator.comparing(ExpiredDelivery::id));
+                return deleted;
+            }
+        });
+    }
+
+    /**
+     * Dry run of {@link #deleteExpired}: deliveries that would be deleted, grouped
+     * by source and read state.
+     */
+    public List<RetentionPreviewEntry> countExpired(RetentionCutoffs cutoffs) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             WITH rules (source_service, source_type, read_before, unread_before) AS (%s)
+                                                             SELECT n.source_service, n.source_type, un.read, COUNT(*)
+                                                             %s
+                                                             GROUP BY n.source_service, n.source_type, un.read
+                                                             ORDER BY n.source_service, n.source_type, un.read
+                                                             """.formatted(retentionRules(cutoffs), EXPIRED_DELIVERIES))) {
+                bindRetention(statement, cutoffs);
+                var entries = new ArrayList<RetentionPreviewEntry>();
+                try (var rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        entries.add(new RetentionPreviewEntry(rows.getString(1), rows.getString(2), rows.getBoolean(3), rows.getLong(4)));
+                    }
+                }
+                return entries;
+            }
+        });
+    }
+
+    public List<Long> findUserIdsOverCap(int cap, long afterUserId, int limit) {
+        return ((List<?>) entityManager.createNativeQuery("""
+                                                          SELECT user_id FROM tb_user_notifications
+                                                          WHERE user_id > :afterUserId
+                                                          GROUP BY user_id
+                                                          HAVING COUNT(*) > :cap
+                                                          ORDER BY user_id
+                                                          LIMIT :limit
+                                                          """)
+                                       .setParameter("afterUserId", afterUserId)
+                                       .setParameter("cap", cap)
+                                       .setParameter("limit", limit)
+                                       .getResultList()).stream()
+                                                        .map(id -> ((Number) id).longValue())
+                                                        .toList();
+    }
+
+    /**
+     * Keeps the newest {@code cap} deliveries of each user, by notification
+     * creation time, and deletes the rest.
+     */
+    @Transactional
+    public int deleteBeyondCap(Collection<Long> userIds, int cap) {
+        return ((Number) entityManager.createNativeQuery("""
+                                                         WITH deleted AS (
+                                                             DELETE FROM tb_user_notifications d
+                                                             USING (
+                                                                 SELECT id, notification_created_at
+                                                                 FROM (
+                                                                     SELECT id, notification_created_at,
+                                                                            ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY notification_created_at DESC, id DESC) AS position
+                                                                     FROM tb_user_notifications
+                                                                     WHERE user_id IN (:userIds)
+                                                                 ) ranked
+                                                                 WHERE position > :cap
+                                                             ) excess
+                                                             WHERE d.id = excess.id AND d.notification_created_at = excess.notification_created_at
+                                                             RETURNING d.notification_id, d.notification_created_at
+                                                         ),
+                                                         %s
+                                                         SELECT COUNT(*) FROM deleted
+                                                         """.formatted(QUEUE_PURGE_CANDIDATES))
+                                      .setParameter("userIds", userIds)
+                                      .setParameter("cap", cap)
+                                      .getSingleResult()).intValue();
+    }
+
+    public long countBeyondCap(int cap) {
+        return ((Number) entityManager.createNativeQuery("""
+                                                         SELECT COALESCE(SUM(deliveries - :cap), 0) FROM (
+                                                             SELECT COUNT(*) AS deliveries FROM tb_user_notifications
+                                                             GROUP BY user_id
+                                                             HAVING COUNT(*) > :cap
+                                                         ) over_cap
+                                                         """)
+                                      .setParameter("cap", cap)
+                                      .getSingleResult()).longValue();
+    }
+
+    private static String retentionRules(RetentionCutoffs cutoffs) {
+        if (cutoffs.sources().isEmpty()) {
+            return "SELECT NULL::VARCHAR, NULL::VARCHAR, NULL::TIMESTAMPTZ, NULL::TIMESTAMPTZ WHERE FALSE";
+        }
+        return "VALUES %s".formatted(String.join(", ", Collections.nCopies(cutoffs.sources().size(),
+                                                                           "(CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS TIMESTAMPTZ), CAST(? AS TIMESTAMPTZ))")));
+    }
+
+    private static int bindRetention(PreparedStatement statement, RetentionCutoffs cutoffs) throws SQLException {
+        var index = 1;
+        for (var source : cutoffs.sources()) {
+            statement.setString(index++, source.sourceService());
+            statement.setObject(index++, source.sourceType(), Types.VARCHAR);
+            statement.setObject(index++, timestamp(source.readBefore()), Types.TIMESTAMP_WITH_TIMEZONE);
+            statement.setObject(index++, timestamp(source.unreadBefore()), Types.TIMESTAMP_WITH_TIMEZONE);
+        }
+        statement.setObject(index++, timestamp(cutoffs.readBefore()), Types.TIMESTAMP_WITH_TIMEZONE);
+        statement.setObject(index++, timestamp(cutoffs.unreadBefore()), Types.TIMESTAMP_WITH_TIMEZONE);
+        return index;
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
 }
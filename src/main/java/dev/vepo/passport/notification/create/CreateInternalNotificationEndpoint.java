@@ -1,13 +1,13 @@
 package dev.vepo.passport.notification.create;
 
 import dev.vepo.passport.notification.CreateInternalNotificationRequest;
-import dev.vepo.passport.notification.NotificationResponse;
 import dev.vepo.passport.notification.NotificationService;
 import jakarta.annotation.security.PermitAll;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -21,6 +21,9 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class CreateInternalNotificationEndpoint {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final NotificationService notificationService;
 
     @Inject
@@ -29,8 +32,14 @@ public class CreateInternalNotificationEndpoint {
     }
 
     @POST
-    public Response create(@Valid CreateInternalNotificationRequest request) {
-        NotificationResponse response = notificationService.publishInternalNotification(request);
-        return Response.status(Response.Status.CREATED).entity(response).build();
+    public Response create(@HeaderParam(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                           @Valid CreateInternalNotificationRequest request) {
+        var published = notificationService.publishInternalNotification(request, idempotencyKey);
+        if (published.replayed()) {
+            return Response.ok(published.notification())
+                           .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                           .build();
+        }
+        return Response.status(Response.Status.CREATED).entity(published.notification()).build();
     }
 }
@@ -0,0 +1,87 @@
+package dev.vepo.passport.notification.find;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.vepo.passport.notification.NotificationItemPageResponse;
+import dev.vepo.passport.notification.NotificationService;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
+
+@ApplicationScoped
+@Path("/notifications/{notificationId}")
+@Authenticated
+public class NotificationItemsEndpoint {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public NotificationItemsEndpoint(NotificationService notificationService, ObjectMapper objectMapper) {
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GET
+    @Path("/items")
+    @Produces(MediaType.APPLICATION_JSON)
+    public NotificationItemPageResponse items(@Context SecurityContext securityContext,
+                                              @PathParam("notificationId") Long notificationId,
+                                              @QueryParam("after") @DefaultValue("-1") int after,
+                                              @QueryParam("limit") @DefaultValue("50") int limit) {
+        if (limit < 1) {
+            limit = DEFAULT_LIMIT;
+        }
+        if (limit > MAX_LIMIT) {
+            limit = MAX_LIMIT;
+        }
+        return notificationService.findItems(securityContext.getUserPrincipal().getName(),
+                                             notificationId,
+                                             after,
+                                             limit,
+                                             securityContext.isUserInRole("engage.admin"));
+    }
+
+    /**
+     * Every item after {@code after}, one JSON object per line, read in keyset
+     * pages so memory stays flat.
+     */
+    @GET
+    @Path("/items")
+    @Produces(APPLICATION_NDJSON)
+    public StreamingOutput streamItems(@Context SecurityContext securityContext,
+                                       @PathParam("notificationId") Long notificationId,
+                                       @QueryParam("after") @DefaultValue("-1") int after) {
+        notificationService.requireReadable(securityContext.getUserPrincipal().getName(),
+                                            notificationId,
+                                            securityContext.isUserInRole("engage.admin"));
+        return output -> {
+            Integer cursor = after;
+            while (cursor != null) {
+                var page = notificationService.findItemPage(notificationId, cursor, STREAM_PAGE_SIZE);
+                for (var item : page.items()) {
+                    output.write(objectMapper.writeValueAsBytes(item));
+                    output.write('\n');
+                }
+                output.flush();
+                cursor = page.nextAfter();
+            }
+        };
+    }
+}
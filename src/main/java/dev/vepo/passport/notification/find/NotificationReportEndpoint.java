@@ -0,0 +1,100 @@
+package dev.vepo.passport.notification.find;
+
+import java.util.Arrays;
+
+import dev.vepo.passport.notification.NotificationService;
+import dev.vepo.passport.notification.ReportPayload;
+import dev.vepo.passport.shared.compression.Gzip;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Serves stored reports. Clients accepting gzip receive the stored bytes as-is;
+ * others get them inflated on the fly.
+ */
+@ApplicationScoped
+@Path("/notifications/{notificationId}")
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+public class NotificationReportEndpoint {
+
+    private final NotificationService notificationService;
+
+    @Inject
+    public NotificationReportEndpoint(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @GET
+    @Path("/report")
+    public Response report(@Context SecurityContext securityContext,
+                           @Context HttpHeaders headers,
+                           @PathParam("notificationId") Long notificationId) {
+        return serve(notificationService.findReport(securityContext.getUserPrincipal().getName(),
+                                                    notificationId,
+                                                    null,
+                                                    securityContext.isUserInRole("engage.admin")),
+                     headers);
+    }
+
+    @GET
+    @Path("/items/{itemId}/report")
+    public Response itemReport(@Context SecurityContext securityContext,
+                               @Context HttpHeaders headers,
+                               @PathParam("notificationId") Long notificationId,
+                               @PathParam("itemId") Long itemId) {
+        return serve(notificationService.findReport(securityContext.getUserPrincipal().getName(),
+                                                    notificationId,
+                                                    itemId,
+                                                    securityContext.isUserInRole("engage.admin")),
+                     headers);
+    }
+
+    private static Response serve(ReportPayload payload, HttpHeaders headers) {
+        var gzip = payload.gzip();
+        if (acceptsGzip(headers)) {
+            return Response.ok(gzip != null ? gzip : Gzip.compress(payload.text()))
+                           .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                           .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                           .build();
+        }
+        if (gzip == null) {
+            return Response.ok(payload.text())
+                           .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                           .build();
+        }
+        StreamingOutput inflated = output -> {
+            try (var input = Gzip.open(gzip)) {
+                input.transferTo(output);
+            }
+        };
+        return Response.ok(inflated)
+                       .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                       .build();
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        var acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                     .map(String::trim)
+                     .anyMatch(coding -> {
+                         var parts = coding.split(";");
+                         return parts[0].trim().equalsIgnoreCase("gzip")
+                                 && Arrays.stream(parts).skip(1).map(String::trim).noneMatch(param -> param.matches("q=0(\\.0*)?"));
+                     });
+    }
+}
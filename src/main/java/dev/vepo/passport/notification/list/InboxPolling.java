@@ -0,0 +1,73 @@
+package dev.vepo.passport.notification.list;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import dev.vepo.passport.notification.InboxVersionService;
+import dev.vepo.passport.notification.ReadReceiptBuffer;
+import io.quarkus.runtime.configuration.DurationConverter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Conditional GET and long-poll handling shared by the inbox endpoints. The
+ * response body is only computed when the client's {@code If-None-Match} no
+ * longer matches the current inbox version.
+ */
+@ApplicationScoped
+public class InboxPolling {
+
+    private final InboxVersionService inboxVersionService;
+    private final ReadReceiptBuffer readReceiptBuffer;
+
+    @Inject
+    public InboxPolling(InboxVersionService inboxVersionService, ReadReceiptBuffer readReceiptBuffer) {
+        this.inboxVersionService = inboxVersionService;
+        this.readReceiptBuffer = readReceiptBuffer;
+    }
+
+    public Response respond(String username, Request request, String wait, Supplier<Object> body) {
+        readReceiptBuffer.flushBeforeRead(username);
+        var version = inboxVersionService.current(username);
+        var notModified = request.evaluatePreconditions(new EntityTag(version.tag()));
+        var waitDuration = parseWait(wait);
+        if (notModified != null && !waitDuration.isZero()) {
+            version = inboxVersionService.awaitChange(username, version, waitDuration);
+            notModified = request.evaluatePreconditions(new EntityTag(version.tag()));
+        }
+        if (notModified != null) {
+            return notModified.cacheControl(revalidate()).build();
+        }
+        return Response.ok(body.get())
+                       .tag(new EntityTag(version.tag()))
+                       .cacheControl(revalidate())
+                       .build();
+    }
+
+    private static Duration parseWait(String wait) {
+        if (wait == null || wait.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            var duration = DurationConverter.parseDuration(wait.trim());
+            if (duration == null || duration.isNegative()) {
+                throw new BadRequestException("Invalid wait duration: %s".formatted(wait));
+            }
+            return duration;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid wait duration: %s".formatted(wait));
+        }
+    }
+
+    private static CacheControl revalidate() {
+        var cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        return cacheControl;
+    }
+}
@@ -8,10 +8,12 @@ import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.SecurityContext;
@@ -23,6 +25,9 @@ import jakarta.ws.rs.core.SecurityContext;
 @Consumes(MediaType.APPLICATION_JSON)
 public class ListChannelNotificationsEndpoint {
 
+    private static final int DEFAULT_SIZE = 50;
+    private static final int MAX_SIZE = 200;
+
     private final NotificationService notificationService;
 
     @Inject
@@ -32,7 +37,18 @@ public class ListChannelNotificationsEndpoint {
 
     @GET
     public List<NotificationSummaryResponse> list(@Context SecurityContext securityContext,
-                                                  @PathParam("engageChannelId") Long engageChannelId) {
-        return notificationService.listByEngageChannel(securityContext.getUserPrincipal().getName(), engageChannelId);
+                                                  @PathParam("engageChannelId") Long engageChannelId,
+                                                  @QueryParam("page") @DefaultValue("0") int page,
+                                                  @QueryParam("size") @DefaultValue("50") int size) {
+        if (page < 0) {
+            page = 0;
+        }
+        if (size < 1) {
+            size = DEFAULT_SIZE;
+        }
+        if (size > MAX_SIZE) {
+            size = MAX_SIZE;
+        }
+        return notificationService.listByEngageChannel(securityContext.getUserPrincipal().getName(), engageChannelId, page, size);
     }
 }
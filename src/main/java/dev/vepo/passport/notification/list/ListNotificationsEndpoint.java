@@ -1,9 +1,6 @@
 package dev.vepo.passport.notification.list;
 
-import java.util.List;
-
 import dev.vepo.passport.notification.NotificationService;
-import dev.vepo.passport.notification.NotificationSummaryResponse;
 import io.quarkus.security.Authenticated;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -15,6 +12,8 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 
 @ApplicationScoped
@@ -25,15 +24,20 @@ import jakarta.ws.rs.core.SecurityContext;
 public class ListNotificationsEndpoint {
 
     private final NotificationService notificationService;
+    private final InboxPolling inboxPolling;
 
     @Inject
-    public ListNotificationsEndpoint(NotificationService notificationService) {
+    public ListNotificationsEndpoint(NotificationService notificationService, InboxPolling inboxPolling) {
         this.notificationService = notificationService;
+        this.inboxPolling = inboxPolling;
     }
 
     @GET
-    public List<NotificationSummaryResponse> list(@Context SecurityContext securityContext,
-                                                  @QueryParam("unread") @DefaultValue("false") boolean unreadOnly) {
-        return notificationService.listForUser(securityContext.getUserPrincipal().getName(), unreadOnly ? true : null);
+    public Response list(@Context SecurityContext securityContext,
+                         @Context Request request,
+                         @QueryParam("unread") @DefaultValue("false") boolean unreadOnly,
+                         @QueryParam("wait") String wait) {
+        var username = securityContext.getUserPrincipal().getName();
+        return inboxPolling.respond(username, request, wait, () -> notificationService.listForUser(username, unreadOnly ? true : null));
     }
 }
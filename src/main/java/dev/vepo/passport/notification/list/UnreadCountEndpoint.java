@@ -9,8 +9,11 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 
 @ApplicationScoped
@@ -21,14 +24,19 @@ import jakarta.ws.rs.core.SecurityContext;
 public class UnreadCountEndpoint {
 
     private final NotificationService notificationService;
+    private final InboxPolling inboxPolling;
 
     @Inject
-    public UnreadCountEndpoint(NotificationService notificationService) {
+    public UnreadCountEndpoint(NotificationService notificationService, InboxPolling inboxPolling) {
         this.notificationService = notificationService;
+        this.inboxPolling = inboxPolling;
     }
 
     @GET
-    public UnreadCountResponse unreadCount(@Context SecurityContext securityContext) {
-        return new UnreadCountResponse(notificationService.countUnreadForUser(securityContext.getUserPrincipal().getName()));
+    public Response unreadCount(@Context SecurityContext securityContext,
+                                @Context Request request,
+                                @QueryParam("wait") String wait) {
+        var username = securityContext.getUserPrincipal().getName();
+        return inboxPolling.respond(username, request, wait, () -> new UnreadCountResponse(notificationService.countUnreadForUser(username)));
     }
 }
@@ -0,0 +1,52 @@
+package dev.vepo.passport.notification.purge;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.notification.NotificationService;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class NotificationPartitionMaintenanceTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPartitionMaintenanceTask.class);
+
+    private final NotificationService notificationService;
+    private final int premakeMonths;
+    private final Optional<Integer> retentionMonths;
+    private final Duration readRetention;
+
+    @Inject
+    public NotificationPartitionMaintenanceTask(NotificationService notificationService,
+                                                @ConfigProperty(name = "passport.notifications.partitions.premake-months", defaultValue = "3") int premakeMonths,
+                                                @ConfigProperty(name = "passport.notifications.partitions.retention-months") Optional<Integer> retentionMonths,
+                                                @ConfigProperty(name = "passport.notifications.read-retention", defaultValue = "PT48H") Duration readRetention) {
+        if (retentionMonths.filter(months -> months < 1).isPresent()) {
+            throw new IllegalArgumentException("passport.notifications.partitions.retention-months must be at least 1");
+        }
+        this.notificationService = notificationService;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.readRetention = readRetention;
+    }
+
+    @Scheduled(every = "${passport.notifications.partitions.interval:6h}", delayed = "30s")
+    public void maintainPartitions() {
+        var result = notificationService.maintainPartitions(premakeMonths, retentionMonths, readRetention);
+        if (result.createdPartitions() > 0 || result.droppedMonths() > 0) {
+            logger.info("Notification partitions: created {}, dropped {} expired month(s)",
+                        result.createdPartitions(),
+                        result.droppedMonths());
+        }
+        if (result.defaultPartitionRows() > 0) {
+            logger.warn("{} notification(s) landed in the default partition; monthly partitions are missing for their dates",
+                        result.defaultPartitionRows());
+        }
+    }
+}
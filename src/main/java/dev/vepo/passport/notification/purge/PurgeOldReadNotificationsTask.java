@@ -1,39 +1,76 @@
 package dev.vepo.passport.notification.purge;
 
 import java.time.Duration;
+import java.time.Instant;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import dev.vepo.passport.notification.NotificationService;
+import dev.vepo.passport.notification.NotificationPurgeEngine;
+import dev.vepo.passport.notification.NotificationRetentionPolicy;
 import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+/**
+ * Ticks frequently but only purges when due: every {@code purge.interval} while
+ * caught up, and on the next tick while a backlog is left over from a run that
+ * hit {@code purge.max-run}. With {@code retention.dry-run} it only logs what
+ * would be deleted.
+ */
 @ApplicationScoped
 public class PurgeOldReadNotificationsTask {
 
     private static final Logger logger = LoggerFactory.getLogger(PurgeOldReadNotificationsTask.class);
 
-    private final NotificationService notificationService;
+    private final NotificationPurgeEngine purgeEngine;
+    private final NotificationRetentionPolicy retentionPolicy;
     private final Duration readRetention;
+    private final Duration interval;
+    private final Duration maxRun;
+    private volatile Instant nextRunAt = Instant.EPOCH;
 
     @Inject
-    public PurgeOldReadNotificationsTask(NotificationService notificationService,
-                                         @ConfigProperty(name = "passport.notifications.read-retention", defaultValue = "PT48H") Duration readRetention) {
-        this.notificationService = notificationService;
+    public PurgeOldReadNotificationsTask(NotificationPurgeEngine purgeEngine,
+                                         NotificationRetentionPolicy retentionPolicy,
+                                         @ConfigProperty(name = "passport.notifications.read-retention", defaultValue = "PT48H") Duration readRetention,
+                                         @ConfigProperty(name = "passport.notifications.purge.interval", defaultValue = "1h") Duration interval,
+                                         @ConfigProperty(name = "passport.notifications.purge.max-run", defaultValue = "5m") Duration maxRun) {
+        this.purgeEngine = purgeEngine;
+        this.retentionPolicy = retentionPolicy;
         this.readRetention = readRetention;
+        this.interval = interval;
+        this.maxRun = maxRun;
     }
 
-    @Scheduled(every = "${passport.notifications.purge.interval:1h}", delayed = "60s")
+    @Scheduled(every = "${passport.notifications.purge.tick:1m}", delayed = "60s", concurrentExecution = ConcurrentExecution.SKIP)
     public void purgeOldReadNotifications() {
-        var result = notificationService.purgeOldReadNotifications(readRetention);
+        var startedAt = Instant.now();
+        if (startedAt.isBefore(nextRunAt)) {
+            return;
+        }
+        if (retentionPolicy.dryRun()) {
+            var preview = purgeEngine.preview(readRetention);
+            nextRunAt = startedAt.plus(interval);
+            logger.info("Retention dry run: {} expired deliveries {} and {} beyond the per-user cap of {}",
+                        preview.expiredDeliveries(),
+                        preview.expired(),
+                        preview.beyondUserCap(),
+                        preview.perUserMax());
+            return;
+        }
+        var result = purgeEngine.purge(readRetention, startedAt.plus(maxRun));
+        nextRunAt = result.complete() ? startedAt.plus(interval) : Instant.now();
         if (result.deletedDeliveries() > 0 || result.deletedNotifications() > 0) {
-            logger.info("Purged {} read deliveries and {} orphan notifications older than {}",
+            logger.info("Purged {} deliveries and {} orphan notifications (default read retention {}) in {} ({}, backlog ~{})",
                         result.deletedDeliveries(),
                         result.deletedNotifications(),
-                        readRetention);
+                        readRetention,
+                        Duration.between(startedAt, Instant.now()),
+                        result.complete() ? "caught up" : "resuming on next tick",
+                        purgeEngine.backlog());
         }
     }
 }
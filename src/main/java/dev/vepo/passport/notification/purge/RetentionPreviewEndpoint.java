@@ -0,0 +1,42 @@
+package dev.vepo.passport.notification.purge;
+
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.vepo.passport.notification.NotificationService;
+import dev.vepo.passport.notification.RetentionPreviewResponse;
+import dev.vepo.passport.shared.security.RequiredRoles;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Dry run of the retention purge: counts what the next run would delete.
+ */
+@ApplicationScoped
+@Path("/notifications/retention")
+@RolesAllowed(RequiredRoles.ADMIN)
+@Produces(MediaType.APPLICATION_JSON)
+public class RetentionPreviewEndpoint {
+
+    private final NotificationService notificationService;
+    private final Duration readRetention;
+
+    @Inject
+    public RetentionPreviewEndpoint(NotificationService notificationService,
+                                    @ConfigProperty(name = "passport.notifications.read-retention", defaultValue = "PT48H") Duration readRetention) {
+        this.notificationService = notificationService;
+        this.readRetention = readRetention;
+    }
+
+    @GET
+    @Path("/preview")
+    public RetentionPreviewResponse preview() {
+        return notificationService.previewRetention(readRetention);
+    }
+}
@@ -0,0 +1,36 @@
+package dev.vepo.passport.notification.readstate;
+
+import dev.vepo.passport.notification.NotificationService;
+import dev.vepo.passport.notification.UpdateReadStateRequest;
+import dev.vepo.passport.notification.UpdateReadStateResponse;
+import io.quarkus.security.Authenticated;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+
+@ApplicationScoped
+@Path("/notifications/read-state")
+@Authenticated
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class BulkReadStateEndpoint {
+
+    private final NotificationService notificationService;
+
+    @Inject
+    public BulkReadStateEndpoint(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @PATCH
+    public UpdateReadStateResponse updateReadState(@Context SecurityContext securityContext, @Valid UpdateReadStateRequest request) {
+        return notificationService.updateReadState(securityContext.getUserPrincipal().getName(), request);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.vepo.passport.notification.readstate;
+
+import dev.vepo.passport.notification.ReadReceiptBuffer;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class FlushReadReceiptsTask {
+
+    private final ReadReceiptBuffer readReceiptBuffer;
+
+    @Inject
+    public FlushReadReceiptsTask(ReadReceiptBuffer readReceiptBuffer) {
+        this.readReceiptBuffer = readReceiptBuffer;
+    }
+
+    @Scheduled(every = "${passport.notifications.read-receipts.flush-interval:2s}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void flushReadReceipts() {
+        readReceiptBuffer.flushAll();
+    }
+}
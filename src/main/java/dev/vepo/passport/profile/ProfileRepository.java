@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import dev.vepo.passport.model.Profile;
 import dev.vepo.passport.shared.exception.RepositoryException;
+import dev.vepo.passport.shared.search.SubstringSearch;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -133,8 +134,7 @@ public class ProfileRepository {
         }
 
         if (Objects.nonNull(criteria.name) && !criteria.name.isBlank()) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(profileRoot.get("name")),
-                                                "%%%s%%".formatted(criteria.name.toLowerCase())));
+            predicates.add(SubstringSearch.contains(criteriaBuilder, profileRoot.get("name"), criteria.name));
         }
 
         if (Objects.nonNull(criteria.roleIds) && !criteria.roleIds.isEmpty()) {
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import dev.vepo.passport.model.Role;
 import dev.vepo.passport.shared.exception.RepositoryException;
+import dev.vepo.passport.shared.search.SubstringSearch;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -112,8 +113,7 @@ public class RoleRepository {
         var predicates = new ArrayList<Predicate>();
 
         if (Objects.nonNull(criteria.name) && !criteria.name.isBlank()) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(roleRoot.get("name")),
-                                                "%%%s%%".formatted(criteria.name.toLowerCase())));
+            predicates.add(SubstringSearch.contains(criteriaBuilder, roleRoot.get("name"), criteria.name));
         }
         return predicates;
     }
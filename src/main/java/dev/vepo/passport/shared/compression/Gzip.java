@@ -0,0 +1,38 @@
+package dev.vepo.passport.shared.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public final class Gzip {
+
+    private Gzip() {}
+
+    public static byte[] compress(String content) {
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        var buffer = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (var gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress content", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static String decompress(byte[] compressed) {
+        try (var input = open(compressed)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress content", e);
+        }
+    }
+
+    public static InputStream open(byte[] compressed) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(compressed));
+    }
+}
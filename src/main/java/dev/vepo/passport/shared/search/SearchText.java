@@ -0,0 +1,191 @@
+package dev.vepo.passport.shared.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Java twin of the {@code passport_normalize} SQL function, for in-memory
+ * indexes that must match exactly what the trigram indexes match. It follows
+ * the rules {@code unaccent.rules} is generated from, character by character: a
+ * Latin, Greek or Cyrillic letter with marks loses them, a ligature of plain
+ * letters is spelled out, a combining mark is dropped, and the letters and
+ * signs without a decomposition take their CLDR Latin-ASCII transliteration (ł
+ * → l, ø → o, æ → ae, ß → ss). Everything else is kept, then the result is
+ * lower-cased.
+ */
+public final class SearchText {
+
+    private static final Map<Integer, String> TRANSLITERATIONS = Map.ofEntries(Map.entry((int) '©', "(C)"),
+                                                                               Map.entry((int) '«', "<<"),
+                                                                               Map.entry(0x00AD, "-"),
+                                                                               Map.entry((int) '®', "(R)"),
+                                                                               Map.entry((int) '±', "+/-"),
+                                                                               Map.entry((int) '»', ">>"),
+                                                                               Map.entry((int) '¼', " 1/4"),
+                                                                               Map.entry((int) '½', " 1/2"),
+                                                                               Map.entry((int) '¾', " 3/4"),
+                                                                               Map.entry((int) 'Æ', "AE"),
+                                                                               Map.entry((int) 'Ð', "D"),
+                                                                               Map.entry((int) '×', "x"),
+                                                                               Map.entry((int) 'Ø', "O"),
+                                                                               Map.entry((int) 'Þ', "TH"),
+                                                                               Map.entry((int) 'ß', "ss"),
+                                                                               Map.entry((int) 'æ', "ae"),
+                                                                               Map.entry((int) 'ð', "d"),
+                                                                               Map.entry((int) '÷', "/"),
+                                                                               Map.entry((int) 'ø', "o"),
+                                                                               Map.entry((int) 'þ', "th"),
+                                                                               Map.entry((int) 'Đ', "D"),
+                                                                               Map.entry((int) 'đ', "d"),
+                                                                               Map.entry((int) 'Ħ', "H"),
+                                                                               Map.entry((int) 'ħ', "h"),
+                                                                               Map.entry((int) 'ı', "i"),
+                                                                               Map.entry((int) 'ĸ', "q"),
+                                                                               Map.entry((int) 'Ŀ', "L"),
+                                                                               Map.entry((int) 'ŀ', "l"),
+                                                                               Map.entry((int) 'Ł', "L"),
+                                                                               Map.entry((int) 'ł', "l"),
+                                                                               Map.entry((int) 'ŉ', "'n"),
+                                                                               Map.entry((int) 'Ŋ', "N"),
+                                                                               Map.entry((int) 'ŋ', "n"),
+                                                                               Map.entry((int) 'Œ', "OE"),
+                                                                               Map.entry((int) 'œ', "oe"),
+                                                                               Map.entry((int) 'Ŧ', "T"),
+                                                                               Map.entry((int) 'ŧ', "t"),
+                                                                               Map.entry((int) 'ſ', "s"),
+                                                                               Map.entry((int) 'ƀ', "b"),
+                                                                               Map.entry((int) 'Ɓ', "B"),
+                                                                               Map.entry((int) 'Ƈ', "C"),
+                                                                               Map.entry((int) 'ƈ', "c"),
+                                                                               Map.entry((int) 'Ɖ', "D"),
+                                                                               Map.entry((int) 'Ɗ', "D"),
+                                                                               Map.entry((int) 'Ƒ', "F"),
+                                                                               Map.entry((int) 'ƒ', "f"),
+                                                                               Map.entry((int) 'Ɠ', "G"),
+                                                                               Map.entry((int) 'Ɨ', "I"),
+                                                                               Map.entry((int) 'Ƙ', "K"),
+                                                                               Map.entry((int) 'ƙ', "k"),
+                                                                               Map.entry((int) 'ƚ', "l"),
+                                                                               Map.entry((int) 'Ɲ', "N"),
+                                                                               Map.entry((int) 'ƞ', "n"),
+                                                                               Map.entry((int) 'Ƥ', "P"),
+                                                                               Map.entry((int) 'ƥ', "p"),
+                                                                               Map.entry((int) 'ƫ', "t"),
+                                                                               Map.entry((int) 'Ƭ', "T"),
+                                                                               Map.entry((int) 'ƭ', "t"),
+                                                                               Map.entry((int) 'Ʈ', "T"),
+                                                                               Map.entry((int) 'Ʋ', "V"),
+                                                                               Map.entry((int) 'Ƴ', "Y"),
+                                                                               Map.entry((int) 'ƴ', "y"),
+                                                                               Map.entry((int) 'Ƶ', "Z"),
+                                                                               Map.entry((int) 'ƶ', "z"),
+                                                                               Map.entry((int) 'Ǥ', "G"),
+                                                                               Map.entry((int) 'ǥ', "g"),
+                                                                               Map.entry((int) 'ȡ', "d"),
+                                                                               Map.entry((int) 'Ȥ', "Z"),
+                                                                               Map.entry((int) 'ȥ', "z"),
+                                                                               Map.entry((int) 'ȴ', "l"),
+                                                                               Map.entry((int) 'ȵ', "n"),
+                                                                               Map.entry((int) 'ȶ', "t"),
+                                                                               Map.entry((int) 'ȷ', "j"),
+                                                                               Map.entry((int) 'ȸ', "db"),
+                                                                               Map.entry((int) 'ȹ', "qp"),
+                                                                               Map.entry((int) 'Ⱥ', "A"),
+                                                                               Map.entry((int) 'Ȼ', "C"),
+                                                                               Map.entry((int) 'ȼ', "c"),
+                                                                               Map.entry((int) 'Ƚ', "L"),
+                                                                               Map.entry((int) 'Ⱦ', "T"),
+                                                                               Map.entry((int) 'ȿ', "s"),
+                                                                               Map.entry((int) 'ɀ', "z"),
+                                                                               Map.entry((int) 'Ƀ', "B"),
+                                                                               Map.entry((int) 'Ʉ', "U"),
+                                                                               Map.entry((int) 'Ɇ', "E"),
+                                                                               Map.entry((int) 'ɇ', "e"),
+                                                                               Map.entry((int) 'Ɉ', "J"),
+                                                                               Map.entry((int) 'ɉ', "j"),
+                                                                               Map.entry((int) 'Ɍ', "R"),
+                                                                               Map.entry((int) 'ɍ', "r"),
+                                                                               Map.entry((int) 'Ɏ', "Y"),
+                                                                               Map.entry((int) 'ɏ', "y"),
+                                                                               Map.entry((int) 'ẞ', "SS"),
+                                                                               Map.entry(0x2010, "-"),
+                                                                               Map.entry(0x2011, "-"),
+                                                                               Map.entry(0x2012, "-"),
+                                                                               Map.entry(0x2013, "-"),
+                                                                               Map.entry(0x2014, "-"),
+                                                                               Map.entry(0x2015, "-"),
+                                                                               Map.entry(0x2018, "'"),
+                                                                               Map.entry(0x2019, "'"),
+                                                                               Map.entry(0x201A, ","),
+                                                                               Map.entry(0x201B, "'"),
+                                                                               Map.entry(0x201C, "\""),
+                                                                               Map.entry(0x201D, "\""),
+                                                                               Map.entry(0x201E, ",,"),
+                                                                               Map.entry(0x201F, "\""),
+                                                                               Map.entry(0x2032, "'"),
+                                                                               Map.entry(0x2033, "\""),
+                                                                               Map.entry(0x2039, "<"),
+                                                                               Map.entry(0x203A, ">"),
+                                                                               Map.entry(0x2026, "..."),
+                                                                               Map.entry(0x2103, "°C"),
+                                                                               Map.entry(0x2109, "°F"),
+                                                                               Map.entry(0x2122, "TM"));
+
+    private SearchText() {}
+
+    /**
+     * Same result as {@code passport_normalize(value)}.
+     */
+    public static String normalize(String value) {
+        var normalized = new StringBuilder(value.length());
+        value.codePoints().forEach(codePoint -> normalized.append(unaccent(codePoint)));
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String unaccent(int codePoint) {
+        var transliteration = TRANSLITERATIONS.get(codePoint);
+        if (transliteration != null) {
+            return transliteration;
+        }
+        if (isRemovedMark(codePoint)) {
+            return "";
+        }
+        var character = Character.toString(codePoint);
+        var decomposed = Normalizer.normalize(character, Normalizer.Form.NFD);
+        if (decomposed.codePointCount(0, decomposed.length()) > 1) {
+            var base = decomposed.codePointAt(0);
+            if (isPlainLetter(base) && decomposed.codePoints().skip(1).allMatch(SearchText::isMark)) {
+                return Character.toString(base);
+            }
+        }
+        var ligature = Normalizer.normalize(character, Normalizer.Form.NFKD);
+        if (!ligature.equals(decomposed) && ligature.codePointCount(0, ligature.length()) > 1) {
+            var letters = new StringBuilder();
+            ligature.codePoints()
+                    .filter(letter -> !isMark(letter))
+                    .forEach(letters::appendCodePoint);
+            if (letters.codePoints().allMatch(SearchText::isPlainLetter)) {
+                return letters.toString();
+            }
+        }
+        return character;
+    }
+
+    private static boolean isPlainLetter(int codePoint) {
+        return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z')
+                || (codePoint >= 0x03B1 && codePoint <= 0x03C9) || (codePoint >= 0x0391 && codePoint <= 0x03A9)
+                || (codePoint >= 0x0430 && codePoint <= 0x044F) || (codePoint >= 0x0410 && codePoint <= 0x042F);
+    }
+
+    private static boolean isMark(int codePoint) {
+        var type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+    }
+
+    private static boolean isRemovedMark(int codePoint) {
+        return (codePoint >= 0x0300 && codePoint <= 0x0362) || (codePoint >= 0x1AB0 && codePoint <= 0x1AFF)
+                || (codePoint >= 0x1DC0 && codePoint <= 0x1DFF) || (codePoint >= 0x20D0 && codePoint <= 0x20FF)
+                || (codePoint >= 0xFE20 && codePoint <= 0xFE2F);
+    }
+}
@@ -0,0 +1,33 @@
+package dev.vepo.passport.shared.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Case- and accent-insensitive "contains" matching. Both sides go through the
+ * {@code passport_normalize} SQL function, which the trigram indexes are built
+ * on, so the predicate can use them.
+ */
+public final class SubstringSearch {
+
+    public static final String NORMALIZE = "passport_normalize";
+
+    private SubstringSearch() {}
+
+    /**
+     * {@code LIKE} pattern matching {@code query} anywhere, with the wildcards of
+     * the query itself escaped.
+     */
+    public static String containsPattern(String query) {
+        var escaped = query.replace("\\", "\\\\")
+                           .replace("%", "\\%")
+                           .replace("_", "\\_");
+        return "%%%s%%".formatted(escaped);
+    }
+
+    public static Predicate contains(CriteriaBuilder criteriaBuilder, Expression<String> column, String query) {
+        return criteriaBuilder.like(criteriaBuilder.function(NORMALIZE, String.class, column),
+                                    criteriaBuilder.function(NORMALIZE, String.class, criteriaBuilder.literal(containsPattern(query))));
+    }
+}
@@ -0,0 +1,13 @@
+package dev.vepo.passport.user;
+
+import java.util.List;
+
+public record BulkCreateUsersResponse(int created, int failed, List<BulkUserResult> results) {
+
+    public static BulkCreateUsersResponse of(List<BulkUserResult> results) {
+        var created = (int) results.stream()
+                                   .filter(result -> result.status() == BulkUserResult.Status.CREATED)
+                                   .count();
+        return new BulkCreateUsersResponse(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.vepo.passport.user;
+
+/**
+ * Outcome of one line of a bulk import; {@code id} is set only for created
+ * users.
+ */
+public record BulkUserResult(int line, String username, String email, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,7 @@
+package dev.vepo.passport.user;
+
+/**
+ * The public user fields author lookups return, selected without loading the
+ * {@code User} entity or its profiles.
+ */
+public record UserAuthorEntry(long id, String username, String name, String description) {}
@@ -0,0 +1,23 @@
+package dev.vepo.passport.user;
+
+import dev.vepo.passport.model.User;
+import jakarta.enterprise.inject.spi.CDI;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Turns every persisted user change into a {@link UserChangedEvent}, whichever
+ * endpoint or service made it.
+ */
+public class UserChangeListener {
+
+    @PostPersist
+    @PostUpdate
+    public void changed(User user) {
+        CDI.current()
+           .getBeanManager()
+           .getEvent()
+           .select(UserChangedEvent.class)
+           .fire(new UserChangedEvent(UserDirectoryEntry.from(user)));
+    }
+}
@@ -0,0 +1,46 @@
+package dev.vepo.passport.user;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes users changed on any replica as {@link UserChangedEvent}, so the
+ * in-memory views of users only need to observe that event. Polls
+ * {@code tb_users.updated_at}; changes made on this replica are published
+ * again, which observers must tolerate.
+ */
+@ApplicationScoped
+public class UserChangePoller {
+
+    // updated_at is stamped before the transaction commits, so every poll looks
+    // back a little further than the previous one started.
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final Event<UserChangedEvent> userChangedEmitter;
+    private Instant lastPollAt = Instant.now();
+
+    @Inject
+    public UserChangePoller(UserRepository userRepository, Event<UserChangedEvent> userChangedEmitter) {
+        this.userRepository = userRepository;
+        this.userChangedEmitter = userChangedEmitter;
+    }
+
+    /**
+     * Fires one event per user changed since the previous poll and returns how many
+     * were fired.
+     */
+    public synchronized int poll() {
+        var startedAt = Instant.now();
+        var changes = QuarkusTransaction.requiringNew()
+                                        .call(() -> userRepository.findDirectoryChangesSince(lastPollAt.minus(POLL_OVERLAP)));
+        changes.forEach(user -> userChangedEmitter.fire(new UserChangedEvent(user)));
+        lastPollAt = startedAt;
+        return changes.size();
+    }
+}
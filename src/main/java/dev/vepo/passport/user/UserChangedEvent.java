@@ -0,0 +1,7 @@
+package dev.vepo.passport.user;
+
+/**
+ * Fired whenever a user row is inserted or updated, observed after the
+ * transaction commits.
+ */
+public record UserChangedEvent(UserDirectoryEntry user) {}
@@ -0,0 +1,13 @@
+package dev.vepo.passport.user;
+
+import dev.vepo.passport.model.User;
+
+/**
+ * The user fields the directory search index needs.
+ */
+public record UserDirectoryEntry(long id, String username, String name, String email, boolean disabled) {
+
+    public static UserDirectoryEntry from(User user) {
+        return new UserDirectoryEntry(user.getId(), user.getUsername(), user.getName(), user.getEmail(), user.isDisabled());
+    }
+}
@@ -0,0 +1,48 @@
+package dev.vepo.passport.user;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One user of a compliance export: account fields, profile names and the
+ * effective roles (every role of every profile, as in the JWT).
+ */
+public record UserExportRow(long id,
+                            String username,
+                            String name,
+                            String email,
+                            boolean disabled,
+                            Instant createdAt,
+                            Instant updatedAt,
+                            List<String> profiles,
+                            List<String> roles) {
+
+    public static final String CSV_HEADER = "id,username,name,email,disabled,created_at,updated_at,profiles,roles";
+
+    /**
+     * RFC 4180 line without the line break; profiles and roles are joined with
+     * {@code ;}.
+     */
+    public String toCsv() {
+        return Stream.of(String.valueOf(id),
+                         username,
+                         name,
+                         email,
+                         String.valueOf(disabled),
+                         String.valueOf(createdAt),
+                         String.valueOf(updatedAt),
+                         String.join(";", profiles),
+                         String.join(";", roles))
+                     .map(UserExportRow::csvField)
+                     .collect(Collectors.joining(","));
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,12 @@
+package dev.vepo.passport.user;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * A user written by {@link UserRepository#insertAll}, password already hashed.
+ */
+public record UserInsert(String username, String name, String email, String encodedPassword, Set<Long> profileIds) {
+
+    public record Created(long id, String username, String name, String email, Instant createdAt) {}
+}
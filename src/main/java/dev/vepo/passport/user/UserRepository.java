@@ -1,25 +1,40 @@
 package dev.vepo.passport.user;
 
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.vepo.passport.model.ResetPasswordToken;
 import dev.vepo.passport.model.User;
 import dev.vepo.passport.shared.exception.RepositoryException;
+import dev.vepo.passport.shared.search.SubstringSearch;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceException;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
@@ -31,6 +46,11 @@ public class UserRepository {
         private List<Long> profileIds;
         private List<Long> roleIds;
         private Boolean disabled;
+        private UserSort sort;
+        private boolean descending;
+        private UserSearchCursor after;
+        private int offset;
+        private int limit;
 
         public UserSearchCriteria() {
             this.name = null;
@@ -38,6 +58,11 @@ public class UserRepository {
             this.profileIds = null;
             this.roleIds = null;
             this.disabled = null;
+            this.sort = UserSort.NAME;
+            this.descending = false;
+            this.after = null;
+            this.offset = 0;
+            this.limit = Integer.MAX_VALUE;
         }
 
         public UserSearchCriteria name(String name) {
@@ -65,17 +90,51 @@ public class UserRepository {
             return this;
         }
 
+        public UserSearchCriteria sort(UserSort sort, boolean descending) {
+            this.sort = sort;
+            this.descending = descending;
+            return this;
+        }
+
+        /**
+         * Resumes after the cursor's user instead of skipping rows; the cursor must
+         * have been issued for the same sort.
+         */
+        public UserSearchCriteria after(UserSearchCursor after) {
+            this.after = after;
+            return this;
+        }
+
+        public UserSearchCriteria range(int offset, int limit) {
+            this.offset = offset;
+            this.limit = limit;
+            return this;
+        }
+
         public List<User> execute() {
             return search(this);
         }
 
         @Override
         public String toString() {
-            return "UserSearchCriteria[name=%s, email=%s, profileIds=%s, roleIds=%s, disabled=%s]".formatted(name, email, profileIds, roleIds, disabled);
+            return "UserSearchCriteria[name=%s, email=%s, profileIds=%s, roleIds=%s, disabled=%s, sort=%s, descending=%b, after=%s, offset=%d, limit=%d]".formatted(name,
+                                                                                                                                                                    email,
+                                                                                                                                                                    profileIds,
+                                                                                                                                                                    roleIds,
+                                                                                                                                                                    disabled,
+                                                                                                                                                                    sort,
+                                                                                                                                                                    descending,
+                                                                                                                                                                    after,
+                                                                                                                                                                    offset,
+                                                                                                                                                                    limit);
         }
     }
 
     private static final Logger logger = LoggerFactory.getLogger(UserRepository.class);
+    // string_agg separator of the export (unit separator, never typed in a name).
+    private static final String EXPORT_SEPARATOR = "\u001F";
+    // The first "Plan Rows" of an EXPLAIN (FORMAT JSON) belongs to the top node.
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*([0-9.eE+]+)");
 
     private EntityManager entityManager;
 
@@ -134,6 +193,81 @@ public class UserRepository {
                             .toList();
     }
 
+    /**
+     * Existing users holding any of {@code usernames} or {@code emails}, found with
+     * one query for a whole bulk import.
+     */
+    public List<UserDirectoryEntry> findConflicting(Collection<String> usernames, Collection<String> emails) {
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
+                                         FROM User u
+                                         WHERE u.username IN :usernames OR u.email IN :emails
+                                         """, UserDirectoryEntry.class)
+                            .setParameter("usernames", usernames.isEmpty() ? List.of("") : usernames)
+                            .setParameter("emails", emails.isEmpty() ? List.of("") : emails)
+                            .getResultList();
+    }
+
+    /**
+     * Inserts the users and their profile links with one multi-row statement each.
+     * Users whose username or e-mail was taken meanwhile are skipped and missing
+     * from the result. Bypasses the entity listener: callers fire
+     * {@link UserChangedEvent} themselves.
+     */
+    public List<UserInsert.Created> insertAll(List<UserInsert> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            var created = new ArrayList<UserInsert.Created>();
+            try (var statement = connection.prepareStatement("""
+                                                             INSERT INTO tb_users (username, name, email, encoded_password)
+                                                             SELECT * FROM unnest(?::VARCHAR[], ?::VARCHAR[], ?::VARCHAR[], ?::VARCHAR[])
+                                                             ON CONFLICT DO NOTHING
+                                                             RETURNING id, username, name, email, created_at
+                                                             """)) {
+                statement.setArray(1, connection.createArrayOf("varchar", users.stream().map(UserInsert::username).toArray()));
+                statement.setArray(2, connection.createArrayOf("varchar", users.stream().map(UserInsert::name).toArray()));
+                statement.setArray(3, connection.createArrayOf("varchar", users.stream().map(UserInsert::email).toArray()));
+                statement.setArray(4, connection.createArrayOf("varchar", users.stream().map(UserInsert::encodedPassword).toArray()));
+                try (var rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        created.add(new UserInsert.Created(rows.getLong(1),
+                                                           rows.getString(2),
+                                                           rows.getString(3),
+                                                           rows.getString(4),
+                                                           rows.getObject(5, OffsetDateTime.class).toInstant()));
+                    }
+                }
+            }
+
+            var profilesByUsername = users.stream()
+                                          .collect(Collectors.toMap(UserInsert::username, UserInsert::profileIds));
+            var userIds = new ArrayList<Long>();
+            var profileIds = new ArrayList<Long>();
+            for (var user : created) {
+                for (var profileId : profilesByUsername.get(user.username())) {
+                    userIds.add(user.id());
+                    profileIds.add(profileId);
+                }
+            }
+            if (!userIds.isEmpty()) {
+                try (var statement = connection.prepareStatement("""
+                                                                 INSERT INTO tb_users_profiles (user_id, profile_id)
+                                                                 SELECT * FROM unnest(?::BIGINT[], ?::BIGINT[])
+                                                                 """)) {
+                    statement.setArray(1, connection.createArrayOf("bigint", userIds.toArray()));
+                    statement.setArray(2, connection.createArrayOf("bigint", profileIds.toArray()));
+                    statement.executeUpdate();
+                }
+            }
+            return created;
+        });
+    }
+
     public Optional<User> findById(Long id) {
         return entityManager.createQuery("FROM User WHERE id = :id", User.class)
                             .setParameter("id", id)
@@ -153,6 +287,24 @@ public class UserRepository {
                             .getResultList();
     }
 
+    /**
+     * Public author fields of the active users among {@code ids}, read as a
+     * projection so neither the users nor their profiles and roles enter the
+     * persistence context.
+     */
+    public List<UserAuthorEntry> findActiveAuthorEntries(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.user.UserAuthorEntry(u.id, u.username, u.name, u.description)
+                                         FROM User u
+                                         WHERE u.disabled = false AND u.id IN :ids
+                                         """, UserAuthorEntry.class)
+                            .setParameter("ids", ids)
+                            .getResultList();
+    }
+
     public User save(User user) {
         try {
             entityManager.persist(user);
@@ -179,56 +331,200 @@ public class UserRepository {
     }
 
     /**
-     * Active users matching name, username, or email (case-insensitive contains).
+     * Active users matching name, username, or email (case- and accent-insensitive
+     * contains, served by the trigram index on {@code search_text}). Only the
+     * directory columns are selected; no entity is loaded.
      */
-    public List<User> searchDirectory(String query, int page, int size) {
-        var pattern = "%%%s%%".formatted(query.toLowerCase());
+    public List<UserDirectoryEntry> searchDirectory(String query, int page, int size) {
         return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
                                          FROM User u
                                          WHERE u.disabled = false
-                                           AND (LOWER(u.name) LIKE :q
-                                                OR LOWER(u.username) LIKE :q
-                                                OR LOWER(u.email) LIKE :q)
+                                           AND u.searchText LIKE FUNCTION('passport_normalize', :q)
                                          ORDER BY u.name ASC
-                                         """, User.class)
-                            .setParameter("q", pattern)
+                                         """, UserDirectoryEntry.class)
+                            .setParameter("q", SubstringSearch.containsPattern(query))
                             .setFirstResult(page * size)
                             .setMaxResults(size)
                             .getResultList();
     }
 
+    /**
+     * Keyset page of {@link #searchDirectory}: up to {@code limit} active users
+     * strictly after {@code (afterName, afterId)} in {@code (name, id)} order, or
+     * from the start when {@code afterName} is {@code null}. No offset is skipped,
+     * so deep pages cost the same as the first one.
+     */
+    public List<UserDirectoryEntry> searchDirectoryAfter(String query, String afterName, long afterId, int limit) {
+        var typedQuery = afterName == null
+                                           ? entityManager.createQuery("""
+                                                                       SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
+                                                                       FROM User u
+                                                                       WHERE u.disabled = false
+                                                                         AND u.searchText LIKE FUNCTION('passport_normalize', :q)
+                                                                       ORDER BY u.name ASC, u.id ASC
+                                                                       """,
+                                                                       UserDirectoryEntry.class)
+                                           : entityManager.createQuery("""
+                                                                       SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
+                                                                       FROM User u
+                                                                       WHERE u.disabled = false
+                                                                         AND u.searchText LIKE FUNCTION('passport_normalize', :q)
+                                                                         AND (u.name > :afterName OR (u.name = :afterName AND u.id > :afterId))
+                                                                       ORDER BY u.name ASC, u.id ASC
+                                                                       """,
+                                                                       UserDirectoryEntry.class)
+                                                          .setParameter("afterName", afterName)
+                                                          .setParameter("afterId", afterId);
+        return typedQuery.setParameter("q", SubstringSearch.containsPattern(query))
+                         .setMaxResults(limit)
+                         .getResultList();
+    }
+
+    /**
+     * The planner's row estimate for {@link #countDirectory}, read from
+     * {@code EXPLAIN} without executing the query. Only as good as the table
+     * statistics.
+     */
+    public long estimateDirectory(String query) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                                                             EXPLAIN (FORMAT JSON)
+                                                             SELECT 1 FROM tb_users u
+                                                             WHERE u.disabled = false
+                                                               AND u.search_text LIKE passport_normalize(?)
+                                                             """)) {
+                statement.setString(1, SubstringSearch.containsPattern(query));
+                try (var rows = statement.executeQuery()) {
+                    if (!rows.next()) {
+                        return 0L;
+                    }
+                    var planRows = PLAN_ROWS.matcher(rows.getString(1));
+                    return planRows.find() ? Math.round(Double.parseDouble(planRows.group(1))) : 0L;
+                }
+            }
+        });
+    }
+
+    /**
+     * Every active user as a directory entry, streamed for the in-memory directory
+     * index. The caller closes the stream.
+     */
+    public Stream<UserDirectoryEntry> streamDirectoryEntries() {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
+                                         FROM User u
+                                         WHERE u.disabled = false
+                                         ORDER BY u.id
+                                         """, UserDirectoryEntry.class)
+                            .getResultStream();
+    }
+
+    /**
+     * Users inserted or updated since {@code since}, disabled ones included.
+     */
+    public List<UserDirectoryEntry> findDirectoryChangesSince(Instant since) {
+        return entityManager.createQuery("""
+                                         SELECT new dev.vepo.passport.user.UserDirectoryEntry(u.id, u.username, u.name, u.email, u.disabled)
+                                         FROM User u
+                                         WHERE u.updatedAt >= :since
+                                         ORDER BY u.id
+                                         """, UserDirectoryEntry.class)
+                            .setParameter("since", since)
+                            .getResultList();
+    }
+
+    /**
+     * Every user with profile names and effective roles, ordered by id, scrolled
+     * through a stateless session so nothing accumulates in a persistence context;
+     * the driver fetches {@code fetchSize} rows at a time. Must run inside a
+     * transaction (the driver only honours the fetch size with auto-commit off).
+     * The caller closes the stream, which closes the cursor and session.
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<UserExportRow> streamExport(int fetchSize) {
+        var session = entityManager.unwrap(Session.class).getSessionFactory().openStatelessSession();
+        try {
+            ScrollableResults<Object[]> rows = session.createNativeQuery("""
+                                                                         SELECT u.id, u.username, u.name, u.email, u.disabled, u.created_at, u.updated_at,
+                                                                                (SELECT string_agg(p.name, E'\\x1F' ORDER BY p.name)
+                                                                                 FROM tb_users_profiles up
+                                                                                 JOIN tb_profiles p ON p.id = up.profile_id
+                                                                                 WHERE up.user_id = u.id),
+                                                                                (SELECT string_agg(DISTINCT r.name, E'\\x1F' ORDER BY r.name)
+                                                                                 FROM tb_users_profiles up
+                                                                                 JOIN tb_profile_roles pr ON pr.profile_id = up.profile_id
+                                                                                 JOIN tb_roles r ON r.id = pr.role_id
+                                                                                 WHERE up.user_id = u.id)
+                                                                         FROM tb_users u
+                                                                         ORDER BY u.id
+                                                                         """)
+                                                      .setFetchSize(fetchSize)
+                                                      .setReadOnly(true)
+                                                      .scroll(ScrollMode.FORWARD_ONLY);
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<UserExportRow>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super UserExportRow> action) {
+                    if (!rows.next()) {
+                        return false;
+                    }
+                    action.accept(toExportRow(rows.get()));
+                    return true;
+                }
+            }, false)
+                                .onClose(() -> {
+                                    rows.close();
+                                    session.close();
+                                });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
     public long countDirectory(String query) {
-        var pattern = "%%%s%%".formatted(query.toLowerCase());
         return entityManager.createQuery("""
                                          SELECT COUNT(u)
                                          FROM User u
                                          WHERE u.disabled = false
-                                           AND (LOWER(u.name) LIKE :q
-                                                OR LOWER(u.username) LIKE :q
-                                                OR LOWER(u.email) LIKE :q)
+                                           AND u.searchText LIKE FUNCTION('passport_normalize', :q)
                                          """, Long.class)
-                            .setParameter("q", pattern)
+                            .setParameter("q", SubstringSearch.containsPattern(query))
                             .getSingleResult();
     }
 
+    /**
+     * Runs in two steps: the criteria select only the ids of the requested range,
+     * then those users are loaded with their profiles and roles in one fetch join.
+     * Users outside the page never load their permission graph.
+     */
     public List<User> search(UserSearchCriteria criteria) {
-        logger.info("Searching for users... criteria={}", criteria);
+        logger.debug("Searching for users... criteria={}", criteria);
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> criteriaQuery = criteriaBuilder.createQuery(User.class);
+        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
         Root<User> userRoot = criteriaQuery.from(User.class);
 
         List<Predicate> predicates = buildSearchPredicates(criteria, criteriaBuilder, criteriaQuery, userRoot);
+        if (Objects.nonNull(criteria.after)) {
+            predicates.add(createAfterPredicate(criteria, criteriaBuilder, userRoot));
+        }
 
         if (!predicates.isEmpty()) {
             criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
         }
 
-        criteriaQuery.orderBy(criteriaBuilder.asc(userRoot.get("name")));
+        Path<?> sortPath = userRoot.get(criteria.sort.attribute());
+        Path<?> idPath = userRoot.get("id");
+        criteriaQuery.select(userRoot.get("id"))
+                     .orderBy(criteria.descending ? criteriaBuilder.desc(sortPath) : criteriaBuilder.asc(sortPath),
+                              criteria.descending ? criteriaBuilder.desc(idPath) : criteriaBuilder.asc(idPath));
 
         try {
-            return entityManager.createQuery(criteriaQuery)
-                                .getResultStream()
-                                .toList();
+            var ids = entityManager.createQuery(criteriaQuery)
+                                   .setFirstResult(Objects.nonNull(criteria.after) ? 0 : criteria.offset)
+                                   .setMaxResults(criteria.limit)
+                                   .getResultList();
+            return findWithProfiles(ids);
         } catch (PersistenceException e) {
             logger.error("Failed to execute user search with criteria: {}", criteria, e);
             throw new RepositoryException("Failed to search users", e);
@@ -240,7 +536,7 @@ public class UserRepository {
                                          FROM ResetPasswordToken
                                          WHERE user.id = :userId AND
                                                requestedAt > :expire_threshold AND
-                                               used <> true
+                                               used = false
                                          """, ResetPasswordToken.class)
                             .setParameter("userId", userId)
                             .setParameter("expire_threshold", Instant.now()
@@ -268,7 +564,7 @@ public class UserRepository {
 
     private List<Predicate> buildSearchPredicates(UserSearchCriteria criteria,
                                                   CriteriaBuilder criteriaBuilder,
-                                                  CriteriaQuery<User> criteriaQuery,
+                                                  CriteriaQuery<?> criteriaQuery,
                                                   Root<User> userRoot) {
         List<Predicate> predicates = new ArrayList<>();
 
@@ -282,13 +578,11 @@ public class UserRepository {
         }
 
         if (Objects.nonNull(criteria.name) && !criteria.name.isBlank()) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(userRoot.get("name")),
-                                                "%%%s%%".formatted(criteria.name.toLowerCase())));
+            predicates.add(SubstringSearch.contains(criteriaBuilder, userRoot.get("name"), criteria.name));
         }
 
         if (Objects.nonNull(criteria.email) && !criteria.email.isBlank()) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(userRoot.get("email")),
-                                                "%%%s%%".formatted(criteria.email.toLowerCase())));
+            predicates.add(SubstringSearch.contains(criteriaBuilder, userRoot.get("email"), criteria.email));
         }
 
         if (Objects.nonNull(criteria.profileIds) && !criteria.profileIds.isEmpty()) {
@@ -302,7 +596,7 @@ public class UserRepository {
         return predicates;
     }
 
-    private Predicate createRolePredicate(UserSearchCriteria criteria, CriteriaBuilder criteriaBuilder, CriteriaQuery<User> criteriaQuery,
+    private Predicate createRolePredicate(UserSearchCriteria criteria, CriteriaBuilder criteriaBuilder, CriteriaQuery<?> criteriaQuery,
                                           Root<User> userRoot) {
         var subquery = criteriaQuery.subquery(Long.class);
         var subUser = subquery.correlate(userRoot);
@@ -317,7 +611,7 @@ public class UserRepository {
 
     private Predicate createProfilePredicate(UserSearchCriteria criteria,
                                              CriteriaBuilder criteriaBuilder,
-                                             CriteriaQuery<User> criteriaQuery,
+                                             CriteriaQuery<?> criteriaQuery,
                                              Root<User> userRoot) {
         var subquery = criteriaQuery.subquery(Long.class);
         var subUser = subquery.correlate(userRoot);
@@ -328,4 +622,65 @@ public class UserRepository {
 
         return criteriaBuilder.exists(subquery);
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate createAfterPredicate(UserSearchCriteria criteria, CriteriaBuilder criteriaBuilder, Root<User> userRoot) {
+        Path<Comparable> sortPath = userRoot.get(criteria.sort.attribute());
+        Path<Long> idPath = userRoot.get("id");
+        Comparable value = criteria.sort.parse(criteria.after.value());
+        long id = criteria.after.id();
+        if (criteria.descending) {
+            return criteriaBuilder.or(criteriaBuilder.lessThan(sortPath, value),
+                                      criteriaBuilder.and(criteriaBuilder.equal(sortPath, value), criteriaBuilder.lessThan(idPath, id)));
+        }
+        return criteriaBuilder.or(criteriaBuilder.greaterThan(sortPath, value),
+                                  criteriaBuilder.and(criteriaBuilder.equal(sortPath, value), criteriaBuilder.greaterThan(idPath, id)));
+    }
+
+    /**
+     * The users with {@code ids} and their profiles and roles in one query, in the
+     * order of {@code ids}.
+     */
+    private List<User> findWithProfiles(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var users = entityManager.createQuery("""
+                                              SELECT DISTINCT u FROM User u
+                                              LEFT JOIN FETCH u.profiles p
+                                              LEFT JOIN FETCH p.roles
+                                              WHERE u.id IN :ids
+                                              """, User.class)
+                                 .setParameter("ids", ids)
+                                 .getResultList();
+        return users.stream()
+                    .sorted(Comparator.comparingInt(user -> ids.indexOf(user.getId())))
+                    .toList();
+    }
+
+    private static UserExportRow toExportRow(Object[] row) {
+        return new UserExportRow(((Number) row[0]).longValue(),
+                                 (String) row[1],
+                                 (String) row[2],
+                                 (String) row[3],
+                                 (Boolean) row[4],
+                                 toInstant(row[5]),
+                                 toInstant(row[6]),
+                                 splitAggregate(row[7]),
+                                 splitAggregate(row[8]));
+    }
+
+    private static Instant toInstant(Object value) {
+        return switch (value) {
+            case null -> null;
+            case Instant instant -> instant;
+            case OffsetDateTime dateTime -> dateTime.toInstant();
+            case Timestamp timestamp -> timestamp.toInstant();
+            default -> throw new IllegalStateException("Unexpected timestamp type " + value.getClass());
+        };
+    }
+
+    private static List<String> splitAggregate(Object value) {
+        return value == null ? List.of() : List.of(((String) value).split(EXPORT_SEPARATOR));
+    }
+}
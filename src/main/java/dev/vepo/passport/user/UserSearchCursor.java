@@ -0,0 +1,48 @@
+package dev.vepo.passport.user;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+import dev.vepo.passport.model.User;
+
+/**
+ * Position after the last user of an admin search page: the sort it was issued
+ * for, that user's sort value and id. Clients get it as an opaque URL-safe
+ * token.
+ */
+public record UserSearchCursor(UserSort sort, boolean descending, String value, long id) {
+
+    public static UserSearchCursor after(UserSort sort, boolean descending, User user) {
+        return new UserSearchCursor(sort, descending, sort.format(user), user.getId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString("%s:%s:%d:%s".formatted(sort.attribute(), descending ? "desc" : "asc", id, value)
+                                                  .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The decoded cursor, or empty when the token was not issued by
+     * {@link #encode()}.
+     */
+    public static Optional<UserSearchCursor> decode(String token) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+            if (parts.length < 4 || !(parts[1].equals("asc") || parts[1].equals("desc"))) {
+                return Optional.empty();
+            }
+            var sort = UserSort.fromAttribute(parts[0]);
+            if (sort.isEmpty()) {
+                return Optional.empty();
+            }
+            sort.get().parse(parts[3]);
+            return Optional.of(new UserSearchCursor(sort.get(), parts[1].equals("desc"), parts[3], Long.parseLong(parts[2])));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.vepo.passport.user;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+import dev.vepo.passport.model.User;
+
+/**
+ * Fields the admin user search may sort by. Ties are always broken by id, so
+ * every sort is a total order a cursor can resume from.
+ */
+public enum UserSort {
+    NAME("name", User::getName),
+    USERNAME("username", User::getUsername),
+    EMAIL("email", User::getEmail),
+    CREATED_AT("createdAt", user -> user.getCreatedAt().toString()),
+    UPDATED_AT("updatedAt", user -> user.getUpdatedAt().toString());
+
+    private final String attribute;
+    private final Function<User, String> value;
+
+    UserSort(String attribute, Function<User, String> value) {
+        this.attribute = attribute;
+        this.value = value;
+    }
+
+    public static Optional<UserSort> fromAttribute(String attribute) {
+        return Arrays.stream(values())
+                     .filter(sort -> sort.attribute.equals(attribute))
+                     .findFirst();
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    /**
+     * The user's sort value as written into a cursor.
+     */
+    public String format(User user) {
+        return value.apply(user);
+    }
+
+    /**
+     * A cursor value back as the attribute's type.
+     */
+    public Comparable<?> parse(String cursorValue) {
+        return switch (this) {
+            case CREATED_AT, UPDATED_AT -> Instant.parse(cursorValue);
+            default -> cursorValue;
+        };
+    }
+}
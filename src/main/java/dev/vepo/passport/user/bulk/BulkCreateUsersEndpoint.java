@@ -0,0 +1,254 @@
+package dev.vepo.passport.user.bulk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.vepo.passport.mailer.UserCreatedEvent;
+import dev.vepo.passport.model.Profile;
+import dev.vepo.passport.profile.ProfileRepository;
+import dev.vepo.passport.shared.security.PasswordGenerator;
+import dev.vepo.passport.shared.security.RequiredRoles;
+import dev.vepo.passport.user.BulkCreateUsersResponse;
+import dev.vepo.passport.user.BulkUserResult;
+import dev.vepo.passport.user.BulkUserResult.Status;
+import dev.vepo.passport.user.UserChangedEvent;
+import dev.vepo.passport.user.UserDirectoryEntry;
+import dev.vepo.passport.user.UserInsert;
+import dev.vepo.passport.user.UserRepository;
+import dev.vepo.passport.user.create.CreateUserRequest;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Creates many users in one call, as
+ * {@link dev.vepo.passport.user.create.CreateUserEndpoint} would one at a time,
+ * and reports every line. Conflicts and profiles are checked with one query
+ * each, passwords are hashed on {@link BulkPasswordHasher}, and users are
+ * inserted {@code passport.users.bulk.batch-size} at a time, each batch in its
+ * own transaction. Welcome e-mails are queued once a batch commits; a batch
+ * that fails is reported as {@code FAILED} and the import goes on.
+ */
+@ApplicationScoped
+@Path("/users/bulk")
+@RolesAllowed(RequiredRoles.ADMIN)
+@Produces(MediaType.APPLICATION_JSON)
+public class BulkCreateUsersEndpoint {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String TEXT_CSV = "text/csv";
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCreateUsersEndpoint.class);
+
+    private record Accepted(BulkUserRow row, String password) {}
+
+    private final UserRepository userRepository;
+    private final ProfileRepository profileRepository;
+    private final PasswordGenerator passwordGenerator;
+    private final BulkPasswordHasher passwordHasher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Event<UserChangedEvent> userChangedEmitter;
+    private final Event<UserCreatedEvent> userCreatedEmitter;
+    private final int maxRows;
+    private final int batchSize;
+
+    @Inject
+    public BulkCreateUsersEndpoint(UserRepository userRepository,
+                                   ProfileRepository profileRepository,
+                                   PasswordGenerator passwordGenerator,
+                                   BulkPasswordHasher passwordHasher,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   Event<UserChangedEvent> userChangedEmitter,
+                                   Event<UserCreatedEvent> userCreatedEmitter,
+                                   @ConfigProperty(name = "passport.users.bulk.max-rows", defaultValue = "10000") int maxRows,
+                                   @ConfigProperty(name = "passport.users.bulk.batch-size", defaultValue = "500") int batchSize) {
+        this.userRepository = userRepository;
+        this.profileRepository = profileRepository;
+        this.passwordGenerator = passwordGenerator;
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.userChangedEmitter = userChangedEmitter;
+        this.userCreatedEmitter = userCreatedEmitter;
+        this.maxRows = maxRows;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * One {@code CreateUserRequest} JSON object per line.
+     */
+    @POST
+    @Consumes(APPLICATION_NDJSON)
+    public BulkCreateUsersResponse createFromNdjson(String body) {
+        return create(BulkUserRow.parseNdjson(body, objectMapper));
+    }
+
+    /**
+     * {@value BulkUserRow#CSV_HEADER} header, then one user per line with profile
+     * ids separated by {@code ;}.
+     */
+    @POST
+    @Consumes(TEXT_CSV)
+    public BulkCreateUsersResponse createFromCsv(String body) {
+        try {
+            return create(BulkUserRow.parseCsv(body));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private BulkCreateUsersResponse create(List<BulkUserRow> rows) {
+        if (rows.isEmpty()) {
+            throw new BadRequestException("No users to create");
+        }
+        if (rows.size() > maxRows) {
+            throw new BadRequestException("At most %d users per request, got %d".formatted(maxRows, rows.size()));
+        }
+        var results = new HashMap<Integer, BulkUserResult>();
+        var valid = new ArrayList<BulkUserRow>();
+        for (var row : rows) {
+            var error = row.error() != null ? row.error() : violations(row.request());
+            if (error != null) {
+                results.put(row.line(), result(row, Status.INVALID, null, error));
+            } else {
+                valid.add(row);
+            }
+        }
+
+        var profileIds = valid.stream()
+                              .flatMap(row -> row.request().profileIds().stream())
+                              .collect(Collectors.toSet());
+        var profiles = profileIds.isEmpty() ? Set.<Long>of()
+                                            : profileRepository.findByIds(profileIds)
+                                                               .stream()
+                                                               .map(Profile::getId)
+                                                               .collect(Collectors.toSet());
+        var existing = userRepository.findConflicting(valid.stream().map(row -> row.request().username()).toList(),
+                                                      valid.stream().map(row -> row.request().email()).toList());
+        var takenUsernames = existing.stream().map(UserDirectoryEntry::username).collect(Collectors.toSet());
+        var takenEmails = existing.stream().map(UserDirectoryEntry::email).collect(Collectors.toSet());
+        var batchUsernames = new HashSet<String>();
+        var batchEmails = new HashSet<String>();
+        var accepted = new ArrayList<Accepted>();
+        for (var row : valid) {
+            var request = row.request();
+            var missing = request.profileIds().stream().filter(id -> !profiles.contains(id)).toList();
+            var conflicts = new ArrayList<String>();
+            if (takenUsernames.contains(request.username()) || !batchUsernames.add(request.username())) {
+                conflicts.add("Username '%s' already exists".formatted(request.username()));
+            }
+            if (takenEmails.contains(request.email()) || !batchEmails.add(request.email())) {
+                conflicts.add("Email '%s' is already registered".formatted(request.email()));
+            }
+            if (!missing.isEmpty()) {
+                results.put(row.line(), result(row, Status.INVALID, null, "Could not find profiles! ids=%s".formatted(missing)));
+            } else if (!conflicts.isEmpty()) {
+                results.put(row.line(), result(row, Status.CONFLICT, null, String.join("; ", conflicts)));
+            } else {
+                accepted.add(new Accepted(row, passwordGenerator.generate()));
+            }
+        }
+
+        var hashes = passwordHasher.hashAll(accepted.stream().map(Accepted::password).toList());
+        for (var from = 0; from < accepted.size(); from += batchSize) {
+            var batch = accepted.subList(from, Math.min(from + batchSize, accepted.size()));
+            var inserts = new ArrayList<UserInsert>();
+            for (var i = 0; i < batch.size(); i++) {
+                var request = batch.get(i).row().request();
+                inserts.add(new UserInsert(request.username(), request.name(), request.email(), hashes.get(from + i), request.profileIds()));
+            }
+            Map<String, UserInsert.Created> created;
+            try {
+                created = insert(inserts);
+            } catch (RuntimeException e) {
+                // Earlier batches are committed and announced; report this one and go on.
+                logger.error("Could not insert bulk user batch! lines={}..{}",
+                             batch.getFirst().row().line(),
+                             batch.getLast().row().line(),
+                             e);
+                batch.forEach(user -> results.put(user.row().line(),
+                                                  result(user.row(), Status.FAILED, null, "Could not create user, try again")));
+                continue;
+            }
+            for (var user : batch) {
+                var row = user.row();
+                var inserted = created.get(row.request().username());
+                if (inserted == null) {
+                    results.put(row.line(), result(row, Status.CONFLICT, null, "Username or email was registered meanwhile"));
+                    continue;
+                }
+                results.put(row.line(), result(row, Status.CREATED, inserted.id(), null));
+                userCreatedEmitter.fireAsync(new UserCreatedEvent(inserted.id(),
+                                                                  inserted.name(),
+                                                                  inserted.username(),
+                                                                  inserted.email(),
+                                                                  inserted.createdAt(),
+                                                                  user.password()));
+            }
+        }
+        var response = BulkCreateUsersResponse.of(rows.stream()
+                                                      .map(row -> results.get(row.line()))
+                                                      .toList());
+        logger.info("Bulk user import finished! lines={} created={} failed={}", rows.size(), response.created(), response.failed());
+        return response;
+    }
+
+    /**
+     * Inserts one batch and announces the new users to the directory and caches on
+     * commit, since the JDBC insert skips the entity listener.
+     */
+    private Map<String, UserInsert.Created> insert(List<UserInsert> inserts) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            var created = userRepository.insertAll(inserts);
+            created.forEach(user -> userChangedEmitter.fire(new UserChangedEvent(new UserDirectoryEntry(user.id(),
+                                                                                                        user.username(),
+                                                                                                        user.name(),
+                                                                                                        user.email(),
+                                                                                                        false))));
+            return created.stream().collect(Collectors.toMap(UserInsert.Created::username, user -> user));
+        });
+    }
+
+    private String violations(CreateUserRequest request) {
+        var violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                         .map(violation -> "%s %s".formatted(violation.getPropertyPath(), violation.getMessage()))
+                         .sorted()
+                         .collect(Collectors.joining("; "));
+    }
+
+    private static BulkUserResult result(BulkUserRow row, Status status, Long id, String message) {
+        var request = row.request();
+        return new BulkUserResult(row.line(),
+                                  request != null ? request.username() : null,
+                                  request != null ? request.email() : null,
+                                  status,
+                                  id,
+                                  message);
+    }
+}
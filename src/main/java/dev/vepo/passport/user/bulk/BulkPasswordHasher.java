@@ -0,0 +1,60 @@
+package dev.vepo.passport.user.bulk;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.vepo.passport.shared.security.PasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Hashes the passwords of a bulk import on a fixed pool of
+ * {@code passport.users.bulk.hash-threads}, so a large import uses a bounded
+ * number of cores instead of the request thread alone or every worker thread.
+ */
+@ApplicationScoped
+public class BulkPasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+
+    @Inject
+    public BulkPasswordHasher(PasswordEncoder passwordEncoder,
+                              @ConfigProperty(name = "passport.users.bulk.hash-threads", defaultValue = "4") int threads) {
+        this.passwordEncoder = passwordEncoder;
+        var counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            var thread = new Thread(task, "bulk-password-hasher-%d".formatted(counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hashes of {@code passwords}, in the same order.
+     */
+    public List<String> hashAll(List<String> passwords) {
+        var hashes = passwords.stream()
+                              .map(password -> CompletableFuture.supplyAsync(() -> passwordEncoder.hashPassword(password), executor))
+                              .toList();
+        try {
+            return hashes.stream()
+                         .map(CompletableFuture::join)
+                         .toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
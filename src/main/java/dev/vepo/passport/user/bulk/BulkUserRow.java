@@ -0,0 +1,99 @@
+package dev.vepo.passport.user.bulk;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.vepo.passport.user.create.CreateUserRequest;
+
+/**
+ * One line of a bulk import: the parsed request, or why it could not be parsed.
+ * Lines are numbered from 1, counting the CSV header; blank lines are skipped.
+ */
+record BulkUserRow(int line, CreateUserRequest request, String error) {
+
+    static final String CSV_HEADER = "username,name,email,profileIds";
+
+    static List<BulkUserRow> parseNdjson(String body, ObjectMapper objectMapper) {
+        var rows = new ArrayList<BulkUserRow>();
+        var lines = body.lines().toList();
+        for (var i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            try {
+                var request = objectMapper.readValue(lines.get(i), CreateUserRequest.class);
+                rows.add(request != null ? new BulkUserRow(i + 1, request, null) : new BulkUserRow(i + 1, null, "Expected a JSON object"));
+            } catch (JsonProcessingException e) {
+                rows.add(new BulkUserRow(i + 1, null, "Malformed JSON: %s".formatted(e.getOriginalMessage())));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * CSV with the {@value #CSV_HEADER} header; profile ids are separated by
+     * {@code ;}. Quoted fields may hold commas and doubled quotes but not line
+     * breaks.
+     */
+    static List<BulkUserRow> parseCsv(String body) {
+        var rows = new ArrayList<BulkUserRow>();
+        var lines = body.lines().toList();
+        if (lines.isEmpty() || !lines.getFirst().strip().equals(CSV_HEADER)) {
+            throw new IllegalArgumentException("CSV must start with the header '%s'".formatted(CSV_HEADER));
+        }
+        for (var i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            var fields = splitCsv(lines.get(i));
+            if (fields.size() != 4) {
+                rows.add(new BulkUserRow(i + 1, null, "Expected 4 fields, found %d".formatted(fields.size())));
+                continue;
+            }
+            try {
+                var profileIds = new LinkedHashSet<Long>();
+                for (var id : fields.get(3).split(";")) {
+                    if (!id.isBlank()) {
+                        profileIds.add(Long.parseLong(id.strip()));
+                    }
+                }
+                rows.add(new BulkUserRow(i + 1, new CreateUserRequest(fields.get(0), fields.get(1), fields.get(2), profileIds), null));
+            } catch (NumberFormatException e) {
+                rows.add(new BulkUserRow(i + 1, null, "Invalid profile id list '%s'".formatted(fields.get(3))));
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> splitCsv(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (var i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,34 @@
+package dev.vepo.passport.user.changes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.vepo.passport.user.UserChangePoller;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes users changed on other replicas to the local caches and indexes.
+ */
+@ApplicationScoped
+public class PollUserChangesTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollUserChangesTask.class);
+
+    private final UserChangePoller userChangePoller;
+
+    @Inject
+    public PollUserChangesTask(UserChangePoller userChangePoller) {
+        this.userChangePoller = userChangePoller;
+    }
+
+    @Scheduled(every = "${passport.users.changes.poll-interval:5s}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void pollUserChanges() {
+        var changed = userChangePoller.poll();
+        if (changed > 0) {
+            logger.debug("Published {} changed users", changed);
+        }
+    }
+}
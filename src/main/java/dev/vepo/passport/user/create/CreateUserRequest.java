@@ -8,6 +8,6 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 
 public record CreateUserRequest(@NotBlank @Size(min = 4, max = 15) @NotBlank String username,
-                                @NotBlank String name,
-                                @NotBlank @Email String email,
+                                @NotBlank @Size(max = 255) String name,
+                                @NotBlank @Email @Size(max = 255) String email,
                                 @NotEmpty Set<Long> profileIds) {}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package dev.vepo.passport.user.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.vepo.passport.shared.security.RequiredRoles;
+import dev.vepo.passport.user.UserExportRow;
+import dev.vepo.passport.user.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Full user dump for compliance, one row per user with profiles and effective
+ * roles. Rows are scrolled from the database and written as they arrive, so
+ * memory stays flat whatever the number of users.
+ */
+@ApplicationScoped
+@Path("/users/export")
+@RolesAllowed(RequiredRoles.ADMIN)
+public class ExportUsersEndpoint {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String TEXT_CSV = "text/csv";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Duration timeout;
+
+    @Inject
+    public ExportUsersEndpoint(UserRepository userRepository,
+                               ObjectMapper objectMapper,
+                               @ConfigProperty(name = "passport.users.export.fetch-size", defaultValue = "500") int fetchSize,
+                               @ConfigProperty(name = "passport.users.export.timeout", defaultValue = "30m") Duration timeout) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+    }
+
+    @GET
+    @Produces(APPLICATION_NDJSON)
+    public Response exportNdjson() {
+        return attachment("users.ndjson", null, (writer, row) -> {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        });
+    }
+
+    @GET
+    @Produces(TEXT_CSV)
+    public Response exportCsv() {
+        return attachment("users.csv", UserExportRow.CSV_HEADER, (writer, row) -> {
+            writer.write(row.toCsv());
+            writer.write("\r\n");
+        });
+    }
+
+    private Response attachment(String filename, String header, RowWriter rowWriter) {
+        StreamingOutput body = output -> {
+            var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            if (header != null) {
+                writer.write(header);
+                writer.write("\r\n");
+            }
+            try {
+                // The driver only honours the fetch size inside a transaction.
+                QuarkusTransaction.requiringNew()
+                                  .timeout((int) timeout.toSeconds())
+                                  .run(() -> {
+                                      try (var rows = userRepository.streamExport(fetchSize)) {
+                                          rows.forEach(row -> {
+                                              try {
+                                                  rowWriter.write(writer, row);
+                                              } catch (IOException e) {
+                                                  throw new UncheckedIOException(e);
+                                              }
+                                          });
+                                      }
+                                  });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return Response.ok(body)
+                       .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"%s\"".formatted(filename))
+                       .build();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer writer, UserExportRow row) throws IOException;
+    }
+}
@@ -1,19 +1,26 @@
 package dev.vepo.passport.user.search;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import dev.vepo.passport.shared.security.RequiredRoles;
 import dev.vepo.passport.user.UserRepository;
 import dev.vepo.passport.user.UserResponse;
+import dev.vepo.passport.user.UserSearchCursor;
+import dev.vepo.passport.user.UserSort;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 
 @Path("/users/search")
 @ApplicationScoped
@@ -22,6 +29,12 @@ import jakarta.ws.rs.core.MediaType;
 @RolesAllowed(RequiredRoles.ADMIN)
 public class SearchUserEndpoint {
 
+    public static final String HAS_MORE_HEADER = "X-Has-More";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int DEFAULT_SIZE = 50;
+    private static final int MAX_SIZE = 200;
+
     private final UserRepository userRepository;
 
     @Inject
@@ -29,21 +42,64 @@ public class SearchUserEndpoint {
         this.userRepository = userRepository;
     }
 
+    /**
+     * One page of users, still a plain array. {@code sort} is one of the
+     * {@link UserSort} attributes, {@code -} first for descending. Whether more
+     * users follow is sent in {@value #HAS_MORE_HEADER}, with a cursor for the next
+     * page in {@value #NEXT_CURSOR_HEADER}; passing it back as {@code cursor}
+     * continues without skipping rows. A page whose offset does not fit an
+     * {@code int} is rejected.
+     */
     @GET
-    public List<UserResponse> search(@QueryParam("name") String name,
-                                     @QueryParam("email") String email,
-                                     @QueryParam("profiles") List<Long> profiles,
-                                     @QueryParam("roles") List<Long> roles,
-                                     @QueryParam("disabled") Boolean disabled) {
-        return userRepository.search()
-                             .name(name)
-                             .email(email)
-                             .profileIds(profiles)
-                             .roleIds(roles)
-                             .disabled(disabled)
-                             .execute()
-                             .stream()
-                             .map(UserResponse::load)
-                             .toList();
+    public Response search(@QueryParam("name") String name,
+                           @QueryParam("email") String email,
+                           @QueryParam("profiles") List<Long> profiles,
+                           @QueryParam("roles") List<Long> roles,
+                           @QueryParam("disabled") Boolean disabled,
+                           @QueryParam("sort") @DefaultValue("name") String sort,
+                           @QueryParam("page") @DefaultValue("0") int page,
+                           @QueryParam("size") @DefaultValue("50") int size,
+                           @QueryParam("cursor") String cursor) {
+        var descending = sort.startsWith("-");
+        var sortField = UserSort.fromAttribute(descending ? sort.substring(1) : sort)
+                                .orElseThrow(() -> new BadRequestException("Invalid sort: %s (allowed: %s)".formatted(sort, allowedSorts())));
+        var after = cursor == null || cursor.isEmpty() ? null
+                                                       : UserSearchCursor.decode(cursor)
+                                                                         .filter(decoded -> decoded.sort() == sortField && decoded.descending() == descending)
+                                                                         .orElseThrow(() -> new BadRequestException("Invalid cursor for sort %s".formatted(sort)));
+        var pageSize = size < 1 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+        var offset = (long) Math.max(page, 0) * pageSize;
+        if (offset > Integer.MAX_VALUE) {
+            throw new BadRequestException("Page %d is out of range for size %d".formatted(page, pageSize));
+        }
+        var users = new ArrayList<>(userRepository.search()
+                                                  .name(name)
+                                                  .email(email)
+                                                  .profileIds(profiles)
+                                                  .roleIds(roles)
+                                                  .disabled(disabled)
+                                                  .sort(sortField, descending)
+                                                  .after(after)
+                                                  .range((int) offset, pageSize + 1)
+                                                  .execute());
+        // One extra row tells whether another page exists without counting.
+        var hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users.removeLast();
+        }
+        var response = Response.ok(users.stream()
+                                        .map(UserResponse::load)
+                                        .toList())
+                               .header(HAS_MORE_HEADER, hasMore);
+        if (hasMore) {
+            response.header(NEXT_CURSOR_HEADER, UserSearchCursor.after(sortField, descending, users.getLast()).encode());
+        }
+        return response.build();
+    }
+
+    private static String allowedSorts() {
+        return String.join(", ", Arrays.stream(UserSort.values())
+                                       .map(UserSort::attribute)
+                                       .toList());
     }
 }
@@ -0,0 +1,165 @@
+-- Monthly range partitioning for notifications, items and deliveries.
+-- Items and deliveries are partitioned by the creation time of their notification so that a month can be
+-- detached and dropped from the three tables together (children first, then tb_notifications).
+
+CREATE TEMPORARY TABLE tmp_notifications ON COMMIT DROP AS SELECT * FROM tb_notifications;
+CREATE TEMPORARY TABLE tmp_notification_items ON COMMIT DROP AS
+    SELECT i.*, n.created_at AS notification_created_at
+      FROM tb_notification_items i
+      JOIN tb_notifications n ON n.id = i.notification_id;
+CREATE TEMPORARY TABLE tmp_user_notifications ON COMMIT DROP AS
+    SELECT un.*, n.created_at AS notification_created_at
+      FROM tb_user_notifications un
+      JOIN tb_notifications n ON n.id = un.notification_id;
+
+DROP TABLE tb_user_notifications;
+DROP TABLE tb_notification_items;
+DROP TABLE tb_notifications;
+
+CREATE SEQUENCE tb_notifications_id_seq;
+CREATE SEQUENCE tb_notification_items_id_seq;
+CREATE SEQUENCE tb_user_notifications_id_seq;
+
+CREATE TABLE tb_notifications (
+    id                 BIGINT       NOT NULL DEFAULT nextval('tb_notifications_id_seq'),
+    source_service     VARCHAR(50)  NOT NULL,
+    source_type        VARCHAR(50)  NOT NULL,
+    engage_channel_id  BIGINT,
+    title              VARCHAR(255) NOT NULL,
+    description        TEXT,
+    report             TEXT,
+    item_count         INTEGER      NOT NULL DEFAULT 0,
+    created_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT tb_notifications_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE tb_notification_items (
+    id                       BIGINT       NOT NULL DEFAULT nextval('tb_notification_items_id_seq'),
+    notification_id          BIGINT       NOT NULL,
+    notification_created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    title                    VARCHAR(255) NOT NULL,
+    description              TEXT,
+    report                   TEXT,
+    sequence                 INTEGER      NOT NULL,
+
+    CONSTRAINT tb_notification_items_pkey PRIMARY KEY (id, notification_created_at),
+    CONSTRAINT tb_notification_items_notification_fk
+        FOREIGN KEY (notification_id, notification_created_at) REFERENCES tb_notifications (id, created_at) ON DELETE CASCADE
+) PARTITION BY RANGE (notification_created_at);
+
+CREATE TABLE tb_user_notifications (
+    id                       BIGINT       NOT NULL DEFAULT nextval('tb_user_notifications_id_seq'),
+    user_id                  BIGINT       NOT NULL,
+    notification_id          BIGINT       NOT NULL,
+    notification_created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    read                     BOOLEAN      NOT NULL DEFAULT FALSE,
+    read_at                  TIMESTAMP(6) WITH TIME ZONE,
+    opened_at                TIMESTAMP(6) WITH TIME ZONE,
+    created_at               TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT tb_user_notifications_pkey PRIMARY KEY (id, notification_created_at),
+    CONSTRAINT tb_user_notifications_user_fk
+        FOREIGN KEY (user_id) REFERENCES tb_users,
+    CONSTRAINT tb_user_notifications_notification_fk
+        FOREIGN KEY (notification_id, notification_created_at) REFERENCES tb_notifications (id, created_at) ON DELETE CASCADE,
+    CONSTRAINT tb_user_notifications_user_notification_uk
+        UNIQUE (user_id, notification_id, notification_created_at)
+) PARTITION BY RANGE (notification_created_at);
+
+ALTER SEQUENCE tb_notifications_id_seq OWNED BY tb_notifications.id;
+ALTER SEQUENCE tb_notification_items_id_seq OWNED BY tb_notification_items.id;
+ALTER SEQUENCE tb_user_notifications_id_seq OWNED BY tb_user_notifications.id;
+
+CREATE INDEX idx_notifications_created_at ON tb_notifications (created_at DESC);
+CREATE INDEX idx_notifications_engage_channel_created_at ON tb_notifications (engage_channel_id, created_at DESC, id DESC);
+CREATE INDEX idx_notification_items_notification ON tb_notification_items (notification_id, notification_created_at);
+CREATE INDEX idx_user_notifications_user_read ON tb_user_notifications (user_id, read);
+CREATE INDEX idx_user_notifications_notification ON tb_user_notifications (notification_id, notification_created_at);
+
+-- Rows outside every monthly partition land here instead of failing the insert. Maintenance warns while they are not empty.
+CREATE TABLE tb_notifications_default PARTITION OF tb_notifications DEFAULT;
+CREATE TABLE tb_notification_items_default PARTITION OF tb_notification_items DEFAULT;
+CREATE TABLE tb_user_notifications_default PARTITION OF tb_user_notifications DEFAULT;
+
+CREATE FUNCTION passport_ensure_notification_partitions(p_from DATE, p_months INTEGER) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_month   DATE := date_trunc('month', p_from)::DATE;
+    v_next    DATE;
+    v_table   TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    FOR i IN 0 .. p_months LOOP
+        v_next := (v_month + INTERVAL '1 month')::DATE;
+        FOREACH v_table IN ARRAY ARRAY['tb_notifications', 'tb_notification_items', 'tb_user_notifications'] LOOP
+            IF to_regclass(v_table || to_char(v_month, '"_p"YYYY_MM')) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               v_table || to_char(v_month, '"_p"YYYY_MM'),
+                               v_table,
+                               v_month::TIMESTAMP AT TIME ZONE 'UTC',
+                               v_next::TIMESTAMP AT TIME ZONE 'UTC');
+                v_created := v_created + 1;
+            END IF;
+        END LOOP;
+        v_month := v_next;
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
+
+CREATE FUNCTION passport_drop_notification_partitions(p_before DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_suffix  TEXT;
+    v_table   TEXT;
+    v_dropped INTEGER := 0;
+BEGIN
+    FOR v_suffix IN
+        SELECT substring(c.relname FROM '_p\d{4}_\d{2}$')
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = 'tb_notifications'::REGCLASS
+           AND c.relname ~ '_p\d{4}_\d{2}$'
+           AND to_date(substring(c.relname FROM '\d{4}_\d{2}$'), 'YYYY_MM') < date_trunc('month', p_before)
+         ORDER BY c.relname
+    LOOP
+        FOREACH v_table IN ARRAY ARRAY['tb_user_notifications', 'tb_notification_items', 'tb_notifications'] LOOP
+            IF to_regclass(v_table || v_suffix) IS NOT NULL THEN
+                EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_table, v_table || v_suffix);
+                EXECUTE format('DROP TABLE %I', v_table || v_suffix);
+            END IF;
+        END LOOP;
+        v_dropped := v_dropped + 1;
+    END LOOP;
+    RETURN v_dropped;
+END;
+$$;
+
+DO $$
+DECLARE
+    v_from   DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM tmp_notifications), NOW()) AT TIME ZONE 'UTC')::DATE;
+    v_now    DATE := (NOW() AT TIME ZONE 'UTC')::DATE;
+    v_months INTEGER;
+BEGIN
+    v_months := (EXTRACT(YEAR FROM v_now)::INTEGER * 12 + EXTRACT(MONTH FROM v_now)::INTEGER)
+              - (EXTRACT(YEAR FROM v_from)::INTEGER * 12 + EXTRACT(MONTH FROM v_from)::INTEGER);
+    PERFORM passport_ensure_notification_partitions(v_from, v_months + 3);
+END;
+$$;
+
+INSERT INTO tb_notifications (id, source_service, source_type, engage_channel_id, title, description, report, item_count, created_at)
+SELECT id, source_service, source_type, engage_channel_id, title, description, report, item_count, created_at
+  FROM tmp_notifications;
+
+INSERT INTO tb_notification_items (id, notification_id, notification_created_at, title, description, report, sequence)
+SELECT id, notification_id, notification_created_at, title, description, report, sequence
+  FROM tmp_notification_items;
+
+INSERT INTO tb_user_notifications (id, user_id, notification_id, notification_created_at, read, read_at, opened_at, created_at)
+SELECT id, user_id, notification_id, notification_created_at, read, read_at, opened_at, created_at
+  FROM tmp_user_notifications;
+
+SELECT setval('tb_notifications_id_seq', COALESCE((SELECT MAX(id) FROM tb_notifications), 0) + 1, false);
+SELECT setval('tb_notification_items_id_seq', COALESCE((SELECT MAX(id) FROM tb_notification_items), 0) + 1, false);
+SELECT setval('tb_user_notifications_id_seq', COALESCE((SELECT MAX(id) FROM tb_user_notifications), 0) + 1, false);
@@ -0,0 +1,5 @@
+CREATE TABLE tb_purge_checkpoints (
+    name        VARCHAR(50) NOT NULL PRIMARY KEY,
+    last_id     BIGINT      NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,15 @@
+-- Reports are written gzip-compressed to report_gzip; the TEXT column is only read for rows written before this version.
+ALTER TABLE tb_notifications
+    ADD COLUMN report_gzip BYTEA,
+    ADD COLUMN report_size INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE tb_notification_items
+    ADD COLUMN report_gzip BYTEA,
+    ADD COLUMN report_size INTEGER NOT NULL DEFAULT 0;
+
+-- Already compressed; skip TOAST compression and store out of line.
+ALTER TABLE tb_notifications ALTER COLUMN report_gzip SET STORAGE EXTERNAL;
+ALTER TABLE tb_notification_items ALTER COLUMN report_gzip SET STORAGE EXTERNAL;
+
+UPDATE tb_notifications SET report_size = octet_length(report) WHERE report IS NOT NULL;
+UPDATE tb_notification_items SET report_size = octet_length(report) WHERE report IS NOT NULL;
@@ -0,0 +1 @@
+CREATE INDEX idx_notification_items_notification_sequence ON tb_notification_items (notification_id, sequence);
@@ -0,0 +1,46 @@
+-- Unique indexes on partitioned tb_notifications must include created_at, so ingest keys live in their own table.
+CREATE TABLE tb_notification_idempotency_keys (
+    source_service           VARCHAR(50)  NOT NULL,
+    idempotency_key          VARCHAR(255) NOT NULL,
+    notification_id          BIGINT       NOT NULL,
+    notification_created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at               TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT tb_notification_idempotency_keys_pkey PRIMARY KEY (source_service, idempotency_key),
+    CONSTRAINT tb_notification_idempotency_keys_notification_fk
+        FOREIGN KEY (notification_id, notification_created_at) REFERENCES tb_notifications (id, created_at) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_notification_idempotency_keys_notification
+    ON tb_notification_idempotency_keys (notification_id, notification_created_at);
+
+-- Keys reference notifications, so they must go before a month of tb_notifications can be detached.
+CREATE OR REPLACE FUNCTION passport_drop_notification_partitions(p_before DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_suffix  TEXT;
+    v_table   TEXT;
+    v_dropped INTEGER := 0;
+BEGIN
+    FOR v_suffix IN
+        SELECT substring(c.relname FROM '_p\d{4}_\d{2}$')
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = 'tb_notifications'::REGCLASS
+           AND c.relname ~ '_p\d{4}_\d{2}$'
+           AND to_date(substring(c.relname FROM '\d{4}_\d{2}$'), 'YYYY_MM') < date_trunc('month', p_before)
+         ORDER BY c.relname
+    LOOP
+        DELETE FROM tb_notification_idempotency_keys
+         WHERE notification_created_at < (to_date(substring(v_suffix FROM '\d{4}_\d{2}$'), 'YYYY_MM') + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+        FOREACH v_table IN ARRAY ARRAY['tb_user_notifications', 'tb_notification_items', 'tb_notifications'] LOOP
+            IF to_regclass(v_table || v_suffix) IS NOT NULL THEN
+                EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_table, v_table || v_suffix);
+                EXECUTE format('DROP TABLE %I', v_table || v_suffix);
+            END IF;
+        END LOOP;
+        v_dropped := v_dropped + 1;
+    END LOOP;
+    RETURN v_dropped;
+END;
+$$;
@@ -0,0 +1,13 @@
+-- Rolling aggregates: one notification absorbs repeated reports of the same source and channel within a window.
+ALTER TABLE tb_notifications
+    ADD COLUMN aggregated        BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN occurrence_count  INTEGER NOT NULL DEFAULT 1,
+    ADD COLUMN last_occurred_at  TIMESTAMP(6) WITH TIME ZONE;
+
+UPDATE tb_notifications SET last_occurred_at = created_at;
+
+ALTER TABLE tb_notifications ALTER COLUMN last_occurred_at SET NOT NULL;
+
+CREATE INDEX idx_notifications_aggregate
+    ON tb_notifications (engage_channel_id, source_service, source_type, created_at DESC)
+    WHERE aggregated;
@@ -0,0 +1,29 @@
+-- Indexes for repository predicates that were only served by sequential scans.
+-- The channel listing (engage_channel_id) is already covered by idx_notifications_engage_channel_created_at.
+
+-- UserRepository.findValidResetPasswordTokenByTokenAndPassword
+CREATE INDEX idx_reset_password_token_token
+    ON tb_users_reset_password_token (token)
+    WHERE used = false;
+
+-- UserRepository.findValidResetPasswordTokenByUserId
+CREATE INDEX idx_reset_password_token_user_requested
+    ON tb_users_reset_password_token (user_id, requestedAt DESC)
+    WHERE used = false;
+
+-- ProfileRepository.findByName / RoleRepository.findByName
+CREATE INDEX idx_profiles_lower_name ON tb_profiles (lower(name));
+CREATE INDEX idx_roles_lower_name ON tb_roles (lower(name));
+
+-- Reverse lookups on the join tables (role and profile deletion, role resolution by profile)
+CREATE INDEX idx_profile_roles_role ON tb_profile_roles (role_id);
+CREATE INDEX idx_users_profiles_profile ON tb_users_profiles (profile_id);
+
+-- UserNotificationRepository.countReadOlderThan and the read side of deleteExpired
+CREATE INDEX idx_user_notifications_read_at
+    ON tb_user_notifications (read_at)
+    WHERE read;
+
+-- UserNotificationRepository.deleteBeyondCap (newest deliveries of a user)
+CREATE INDEX idx_user_notifications_user_recent
+    ON tb_user_notifications (user_id, notification_created_at DESC, id DESC);
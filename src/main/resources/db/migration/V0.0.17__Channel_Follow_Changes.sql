@@ -0,0 +1,9 @@
+-- Append-only log of channels whose follower set changed. Every replica polls it to refresh the channels it
+-- holds in its in-memory follower index; rows older than the configured retention are pruned.
+CREATE TABLE tb_channel_follow_changes (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    engage_channel_id  BIGINT NOT NULL,
+    changed_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX idx_channel_follow_changes_changed_at ON tb_channel_follow_changes (changed_at);
@@ -0,0 +1,16 @@
+-- Follower count per Engage channel, kept in step with tb_channel_follows by ChannelFollowService in the same
+-- transaction as the follow change.
+CREATE TABLE tb_channel_follower_counts (
+    engage_channel_id  BIGINT NOT NULL PRIMARY KEY,
+    follower_count     BIGINT NOT NULL DEFAULT 0,
+    updated_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT tb_channel_follower_counts_non_negative CHECK (follower_count >= 0)
+);
+
+CREATE INDEX idx_channel_follower_counts_top ON tb_channel_follower_counts (follower_count DESC, engage_channel_id);
+
+INSERT INTO tb_channel_follower_counts (engage_channel_id, follower_count)
+SELECT engage_channel_id, COUNT(*)
+  FROM tb_channel_follows
+ GROUP BY engage_channel_id;
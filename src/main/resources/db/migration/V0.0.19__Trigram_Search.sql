@@ -0,0 +1,23 @@
+-- Substring search through trigram indexes instead of LOWER(col) LIKE '%q%' sequential scans.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent(text) is only STABLE because it resolves its dictionary through search_path; naming the dictionary
+-- makes the result depend on the input alone, so it can back generated columns and expression indexes.
+CREATE FUNCTION passport_normalize(p_text TEXT) RETURNS TEXT
+LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT lower(public.unaccent('public.unaccent'::REGDICTIONARY, p_text))
+$$;
+
+-- Directory search matches name, username and e-mail at once. Fields are joined with a unit separator so a
+-- query cannot match across two of them.
+ALTER TABLE tb_users
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        passport_normalize(name) || E'\x1F' || passport_normalize(username) || E'\x1F' || passport_normalize(email)
+    ) STORED;
+
+CREATE INDEX idx_users_search_text_trgm ON tb_users USING GIN (search_text gin_trgm_ops);
+CREATE INDEX idx_users_name_trgm ON tb_users USING GIN (passport_normalize(name) gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON tb_users USING GIN (passport_normalize(email) gin_trgm_ops);
+CREATE INDEX idx_profiles_name_trgm ON tb_profiles USING GIN (passport_normalize(name) gin_trgm_ops);
+CREATE INDEX idx_roles_name_trgm ON tb_roles USING GIN (passport_normalize(name) gin_trgm_ops);
@@ -0,0 +1,2 @@
+-- Lets each replica's in-memory directory index poll for users changed elsewhere.
+CREATE INDEX idx_users_updated_at ON tb_users (updated_at);
@@ -0,0 +1,3 @@
+-- Keyset pagination of the directory walks active users in (name, id) order;
+-- for broad queries the planner can read this index in order and stop early.
+CREATE INDEX idx_users_active_name_id ON tb_users (name, id) WHERE disabled = false;
@@ -0,0 +1,15 @@
+-- Notifications that may have lost their last delivery: queued when the purge deletes deliveries or a
+-- notification reaches no follower, and drained by the orphan sweep, so it never walks all of tb_notifications.
+CREATE TABLE tb_notification_purge_candidates (
+    notification_id          BIGINT NOT NULL PRIMARY KEY,
+    notification_created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- Orphans left by the previous full-table sweep.
+INSERT INTO tb_notification_purge_candidates (notification_id, notification_created_at)
+SELECT n.id, n.created_at
+  FROM tb_notifications n
+ WHERE NOT EXISTS (SELECT 1
+                     FROM tb_user_notifications un
+                    WHERE un.notification_id = n.id
+                      AND un.notification_created_at = n.created_at);
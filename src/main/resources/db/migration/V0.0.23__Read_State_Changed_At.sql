@@ -0,0 +1,3 @@
+-- When a delivery's read flag last changed. A buffered open recorded before that is no longer applied,
+-- so it cannot undo a newer mark-unread made on another replica.
+ALTER TABLE tb_user_notifications ADD COLUMN read_state_changed_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,7 @@
+CREATE TABLE tb_inbox_versions (
+    user_id  BIGINT NOT NULL PRIMARY KEY,
+    version  BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT tb_inbox_versions_user_fk
+        FOREIGN KEY (user_id) REFERENCES tb_users ON DELETE CASCADE
+);
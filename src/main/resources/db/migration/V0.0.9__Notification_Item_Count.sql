@@ -0,0 +1,7 @@
+ALTER TABLE tb_notifications
+    ADD COLUMN item_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE tb_notifications n
+   SET item_count = (SELECT COUNT(*) FROM tb_notification_items i WHERE i.notification_id = n.id);
+
+CREATE INDEX idx_notifications_engage_channel_created_at ON tb_notifications (engage_channel_id, created_at DESC, id DESC);
@@ -79,4 +79,7 @@ BEGIN
     -- Channel follows (Engage tb_channels.id = 1 from Engage seed)
     INSERT INTO tb_channel_follows (user_id, engage_channel_id)
     VALUES ((SELECT id FROM tb_users WHERE username = 'cto-boss'), 1);
+    INSERT INTO tb_channel_follower_counts (engage_channel_id, follower_count)
+    VALUES (1, 1)
+    ON CONFLICT (engage_channel_id) DO UPDATE SET follower_count = tb_channel_follower_counts.follower_count + 1;
 END $$;
\ No newline at end of file
@@ -0,0 +1,298 @@
+package dev.vepo.passport.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Loads a {@link BenchmarkScale} worth of users (each with a profile and its
+ * roles), follows, notifications, items and deliveries with
+ * {@code COPY FROM STDIN}. Ids are reserved up front from the table sequences,
+ * so deliveries can reference notifications without reading them back. The same
+ * seed always produces the same data set.
+ */
+public class BenchmarkDataGenerator {
+
+    private static final int COPY_BATCH_ROWS = 50_000;
+    private static final String PASSWORD_HASH = "IwS3Mm4oGEfpwPDC3Vom20ViYgXhVCxHeBGr8aluY9tC9o668ghxJ2fMQQUwq+7GWJkzX1HguXOtdwVkblUzTw==";
+
+    public record GeneratedData(long firstUserId, long firstNotificationId, Map<String, Long> rows, Duration elapsed) {}
+
+    private final DataSource dataSource;
+    private final BenchmarkScale scale;
+
+    public BenchmarkDataGenerator(DataSource dataSource, BenchmarkScale scale) {
+        this.dataSource = dataSource;
+        this.scale = scale;
+    }
+
+    static String username(int index) {
+        return "bench%07d".formatted(index);
+    }
+
+    public GeneratedData generate() throws SQLException, IOException {
+        var startedAt = Instant.now();
+        var random = new Random(scale.seed());
+        var rows = new LinkedHashMap<String, Long>();
+        try (var connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            var copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            var now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            ensurePartitions(connection, now);
+
+            var firstUserId = reserveIds(connection, "tb_users", scale.users());
+            rows.put("tb_users", copyUsers(copy, firstUserId));
+            rows.put("tb_users_profiles", assignProfile(connection, firstUserId));
+
+            var followers = followersByChannel(random);
+            rows.put("tb_channel_follows", copyFollows(copy, firstUserId, followers, now));
+            rows.put("tb_channel_follower_counts", countFollowers(connection));
+
+            var notifications = (long) scale.channels() * scale.notificationsPerChannel();
+            var firstNotificationId = reserveIds(connection, "tb_notifications", notifications);
+            var createdAt = notificationTimes(random, now, notifications);
+            rows.put("tb_notifications", copyNotifications(copy, firstNotificationId, createdAt));
+            rows.put("tb_notification_items", copyItems(copy, firstNotificationId, createdAt));
+            rows.put("tb_user_notifications", copyDeliveries(copy, random, firstUserId, firstNotificationId, createdAt, followers, now));
+
+            try (var statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            return new GeneratedData(firstUserId, firstNotificationId, rows, Duration.between(startedAt, Instant.now()));
+        }
+    }
+
+    private void ensurePartitions(Connection connection, Instant now) throws SQLException {
+        var from = LocalDate.ofInstant(now.minus(Duration.ofDays(scale.spreadDays())), ZoneOffset.UTC).withDayOfMonth(1);
+        var months = (int) ChronoUnit.MONTHS.between(from, LocalDate.ofInstant(now, ZoneOffset.UTC).withDayOfMonth(1)) + 1;
+        try (var statement = connection.prepareStatement("SELECT passport_ensure_notification_partitions(?, ?)")) {
+            statement.setObject(1, from);
+            statement.setInt(2, months);
+            statement.execute();
+        }
+    }
+
+    private static long reserveIds(Connection connection, String table, long count) throws SQLException {
+        try (var statement = connection.prepareStatement("""
+                                                         SELECT setval(pg_get_serial_sequence(?, 'id'),
+                                                                       nextval(pg_get_serial_sequence(?, 'id')) + ? - 1)
+                                                         """)) {
+            statement.setString(1, table);
+            statement.setString(2, table);
+            statement.setLong(3, count);
+            try (var result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1) - count + 1;
+            }
+        }
+    }
+
+    private long copyUsers(CopyManager copy, long firstUserId) throws SQLException, IOException {
+        var batch = new CopyBatch(copy, "COPY tb_users (id, username, name, email, encoded_password, disabled) FROM STDIN");
+        for (var i = 0; i < scale.users(); i++) {
+            batch.row(firstUserId + i, username(i), "Bench User %d".formatted(i), "%s@bench.passport.vepo.dev".formatted(username(i)), PASSWORD_HASH, "f");
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Gives every generated user the same profile with a few roles, so entity loads
+     * pull the permission graph as they do in production.
+     */
+    private static long assignProfile(Connection connection, long firstUserId) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("""
+                              WITH profile AS (
+                                  INSERT INTO tb_profiles (name) VALUES ('Bench User') RETURNING id
+                              ),
+                              roles AS (
+                                  INSERT INTO tb_roles (name) VALUES ('BENCH_READ'), ('BENCH_WRITE'), ('BENCH_FOLLOW') RETURNING id
+                              )
+                              INSERT INTO tb_profile_roles (profile_id, role_id)
+                              SELECT profile.id, roles.id FROM profile CROSS JOIN roles
+                              """);
+        }
+        try (var statement = connection.prepareStatement("""
+                                                         INSERT INTO tb_users_profiles (user_id, profile_id)
+                                                         SELECT u.id, p.id FROM tb_users u, tb_profiles p
+                                                         WHERE u.id >= ? AND p.name = 'Bench User'
+                                                         """)) {
+            statement.setLong(1, firstUserId);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Followers of each channel as user indexes. The hot channel gets the first
+     * users; everyone also follows {@code followsPerUser} random channels.
+     */
+    private List<List<Integer>> followersByChannel(Random random) {
+        var followers = new ArrayList<List<Integer>>();
+        for (var channel = 0; channel < scale.channels(); channel++) {
+            followers.add(new ArrayList<>());
+        }
+        var hotFollowers = Math.min(scale.hotChannelFollowers(), scale.users());
+        for (var user = 0; user < scale.users(); user++) {
+            var followed = new HashSet<Integer>();
+            if (user < hotFollowers) {
+                followed.add(0);
+            }
+            for (var i = 0; i < scale.followsPerUser() && scale.channels() > 1; i++) {
+                followed.add(1 + random.nextInt(scale.channels() - 1));
+            }
+            for (var channel : followed) {
+                followers.get(channel).add(user);
+            }
+        }
+        return followers;
+    }
+
+    private long copyFollows(CopyManager copy, long firstUserId, List<List<Integer>> followers, Instant now) throws SQLException, IOException {
+        var batch = new CopyBatch(copy, "COPY tb_channel_follows (user_id, engage_channel_id, created_at) FROM STDIN");
+        for (var channel = 0; channel < followers.size(); channel++) {
+            for (var user : followers.get(channel)) {
+                batch.row(firstUserId + user, channel + 1, now);
+            }
+        }
+        return batch.finish();
+    }
+
+    private static long countFollowers(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            return statement.executeUpdate("""
+                                           INSERT INTO tb_channel_follower_counts (engage_channel_id, follower_count)
+                                           SELECT engage_channel_id, COUNT(*) FROM tb_channel_follows GROUP BY engage_channel_id
+                                           ON CONFLICT (engage_channel_id) DO UPDATE SET follower_count = EXCLUDED.follower_count
+                                           """);
+        }
+    }
+
+    private Instant[] notificationTimes(Random random, Instant now, long count) {
+        var spread = Duration.ofDays(scale.spreadDays()).toSeconds();
+        var createdAt = new Instant[(int) count];
+        for (var i = 0; i < count; i++) {
+            createdAt[i] = now.minusSeconds((long) (random.nextDouble() * spread));
+        }
+        return createdAt;
+    }
+
+    private static long channelOf(int notificationIndex, int notificationsPerChannel) {
+        return notificationIndex / notificationsPerChannel + 1L;
+    }
+
+    private long copyNotifications(CopyManager copy, long firstNotificationId, Instant[] createdAt) throws SQLException, IOException {
+        var batch = new CopyBatch(copy, """
+                                        COPY tb_notifications (id, source_service, source_type, engage_channel_id, title, description,
+                                                               report_size, item_count, created_at, last_occurred_at)
+                                        FROM STDIN
+                                        """);
+        for (var i = 0; i < createdAt.length; i++) {
+            batch.row(firstNotificationId + i,
+                      "engage",
+                      i % 3 == 0 ? "comment_sync" : "video_sync",
+                      channelOf(i, scale.notificationsPerChannel()),
+                      "Sync run %d".formatted(i),
+                      "Synthetic benchmark notification",
+                      0,
+                      scale.itemsPerNotification(),
+                      createdAt[i],
+                      createdAt[i]);
+        }
+        return batch.finish();
+    }
+
+    private long copyItems(CopyManager copy, long firstNotificationId, Instant[] createdAt) throws SQLException, IOException {
+        var batch = new CopyBatch(copy, "COPY tb_notification_items (notification_id, notification_created_at, title, sequence, report_size) FROM STDIN");
+        for (var i = 0; i < createdAt.length; i++) {
+            for (var sequence = 0; sequence < scale.itemsPerNotification(); sequence++) {
+                batch.row(firstNotificationId + i, createdAt[i], "Call %d".formatted(sequence), sequence, 0);
+            }
+        }
+        return batch.finish();
+    }
+
+    private long copyDeliveries(CopyManager copy,
+                                Random random,
+                                long firstUserId,
+                                long firstNotificationId,
+                                Instant[] createdAt,
+                                List<List<Integer>> followers,
+                                Instant now)
+            throws SQLException, IOException {
+        var batch = new CopyBatch(copy, """
+                                        COPY tb_user_notifications (user_id, notification_id, notification_created_at, read, read_at, created_at)
+                                        FROM STDIN
+                                        """);
+        for (var i = 0; i < createdAt.length; i++) {
+            var channel = (int) channelOf(i, scale.notificationsPerChannel()) - 1;
+            for (var user : followers.get(channel)) {
+                var read = random.nextDouble() < scale.readRatio();
+                var readAt = read ? createdAt[i].plusSeconds((long) (random.nextDouble() * Duration.between(createdAt[i], now).toSeconds()))
+                                  : null;
+                batch.row(firstUserId + user, firstNotificationId + i, createdAt[i], read ? "t" : "f", readAt, createdAt[i]);
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Buffers text-format COPY rows and ships them every {@value #COPY_BATCH_ROWS}
+     * rows. {@code null} becomes {@code \N}.
+     */
+    private static class CopyBatch {
+        private final CopyManager copy;
+        private final String sql;
+        private final StringBuilder buffer = new StringBuilder();
+        private int pending;
+        private long total;
+
+        CopyBatch(CopyManager copy, String sql) {
+            this.copy = copy;
+            this.sql = sql;
+        }
+
+        void row(Object... values) throws SQLException, IOException {
+            for (var i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                buffer.append(values[i] == null ? "\\N" : values[i].toString());
+            }
+            buffer.append('\n');
+            if (++pending == COPY_BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        long finish() throws SQLException, IOException {
+            flush();
+            return total;
+        }
+
+        private void flush() throws SQLException, IOException {
+            if (pending == 0) {
+                return;
+            }
+            total += copy.copyIn(sql, new StringReader(buffer.toString()));
+            buffer.setLength(0);
+            pending = 0;
+        }
+    }
+}
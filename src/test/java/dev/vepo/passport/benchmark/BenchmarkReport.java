@@ -0,0 +1,148 @@
+package dev.vepo.passport.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Times scenarios and writes a JSON report (stable keys, meant to be diffed or
+ * archived per build) and a Markdown summary to {@code benchmark.output}
+ * (default {@code target/benchmark}). When {@code benchmark.baseline} points to
+ * an earlier JSON report, or to a directory holding one with the same name, the
+ * summary shows the p50 change per scenario. Each scenario also records the
+ * bytes the calling thread allocated per iteration, and tests can add named
+ * {@link #metric(String, double) metrics} such as rows fetched.
+ */
+public class BenchmarkReport {
+
+    public record Scenario(String name, int iterations, double meanMs, double p50Ms, double p95Ms, double maxMs, double allocatedKbPerOp) {}
+
+    public record Report(String label,
+                         String generatedAt,
+                         BenchmarkScale scale,
+                         Map<String, Long> rows,
+                         double generationSeconds,
+                         List<Scenario> scenarios,
+                         Map<String, Double> metrics) {}
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private final Map<String, Double> metrics = new TreeMap<>();
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public Scenario time(String name, int warmup, int iterations, IntConsumer action) {
+        for (var i = 0; i < warmup; i++) {
+            action.accept(i);
+        }
+        var samples = new double[iterations];
+        var allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (var i = 0; i < iterations; i++) {
+            var startedAt = System.nanoTime();
+            action.accept(warmup + i);
+            samples[i] = (System.nanoTime() - startedAt) / 1_000_000.0;
+        }
+        var allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(samples);
+        var scenario = new Scenario(name,
+                                    iterations,
+                                    Arrays.stream(samples).average().orElse(0),
+                                    percentile(samples, 0.50),
+                                    percentile(samples, 0.95),
+                                    samples[samples.length - 1],
+                                    allocated / 1024.0 / iterations);
+        scenarios.add(scenario);
+        return scenario;
+    }
+
+    /**
+     * Records a value that is not a timing, e.g. rows or entities per request.
+     */
+    public void metric(String name, double value) {
+        metrics.put(name, value);
+    }
+
+    public Map<String, Double> metrics() {
+        return metrics;
+    }
+
+    /**
+     * Writes {@code <name>.json} and {@code <name>.md} to the output directory.
+     */
+    public Path write(String name, BenchmarkScale scale, BenchmarkDataGenerator.GeneratedData data) throws IOException {
+        var output = Path.of(System.getProperty("benchmark.output", "target/benchmark"));
+        Files.createDirectories(output);
+        var report = new Report(System.getProperty("benchmark.label", "local"),
+                                Instant.now().toString(),
+                                scale,
+                                data.rows(),
+                                data.elapsed().toMillis() / 1000.0,
+                                List.copyOf(scenarios),
+                                new TreeMap<>(metrics));
+        var json = output.resolve(name + ".json");
+        mapper.writeValue(json.toFile(), report);
+        Files.writeString(output.resolve(name + ".md"), markdown(name, report, baseline(name)));
+        return json;
+    }
+
+    private Map<String, Double> baseline(String name) throws IOException {
+        var baseline = new HashMap<String, Double>();
+        var path = System.getProperty("benchmark.baseline");
+        if (path == null || path.isBlank()) {
+            return baseline;
+        }
+        var file = Path.of(path);
+        if (Files.isDirectory(file)) {
+            file = file.resolve(name + ".json");
+        }
+        if (!Files.exists(file)) {
+            return baseline;
+        }
+        for (var scenario : mapper.readTree(file.toFile()).path("scenarios")) {
+            baseline.put(scenario.path("name").asText(), scenario.path("p50Ms").asDouble());
+        }
+        return baseline;
+    }
+
+    private static String markdown(String name, Report report, Map<String, Double> baseline) {
+        var markdown = new StringBuilder();
+        markdown.append("# %s (%s, %s)%n%n".formatted(name, report.label(), report.generatedAt()));
+        markdown.append("Generated in %.1fs: %s%n%n".formatted(report.generationSeconds(), report.rows()));
+        markdown.append("| Scenario | Iterations | Mean ms | p50 ms | p95 ms | Max ms | Alloc KB/op | p50 vs baseline |%n".formatted());
+        markdown.append("|---|---:|---:|---:|---:|---:|---:|---:|%n".formatted());
+        for (var scenario : report.scenarios()) {
+            var previous = baseline.get(scenario.name());
+            markdown.append("| %s | %d | %.2f | %.2f | %.2f | %.2f | %.1f | %s |%n".formatted(scenario.name(),
+                                                                                              scenario.iterations(),
+                                                                                              scenario.meanMs(),
+                                                                                              scenario.p50Ms(),
+                                                                                              scenario.p95Ms(),
+                                                                                              scenario.maxMs(),
+                                                                                              scenario.allocatedKbPerOp(),
+                                                                                              previous == null || previous == 0 ? "-"
+                                                                                                                                : "%+.1f%%".formatted((scenario.p50Ms()
+                                                                                                                                        - previous) / previous
+                                                                                                                                        * 100)));
+        }
+        if (!report.metrics().isEmpty()) {
+            markdown.append("%n| Metric | Value |%n|---|---:|%n".formatted());
+            report.metrics().forEach((metric, value) -> markdown.append("| %s | %.1f |%n".formatted(metric, value)));
+        }
+        return markdown.toString();
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,36 @@
+package dev.vepo.passport.benchmark;
+
+/**
+ * Size of the generated data set. Every field can be overridden with a system
+ * property, e.g. {@code -Dbenchmark.users=1000000}.
+ */
+public record BenchmarkScale(int users,
+                             int channels,
+                             int hotChannelFollowers,
+                             int followsPerUser,
+                             int notificationsPerChannel,
+                             int itemsPerNotification,
+                             double readRatio,
+                             int spreadDays,
+                             long seed) {
+
+    public static BenchmarkScale fromSystemProperties() {
+        return new BenchmarkScale(Integer.getInteger("benchmark.users", 10_000),
+                                  Integer.getInteger("benchmark.channels", 100),
+                                  Integer.getInteger("benchmark.hot-channel-followers", 10_000),
+                                  Integer.getInteger("benchmark.follows-per-user", 3),
+                                  Integer.getInteger("benchmark.notifications-per-channel", 30),
+                                  Integer.getInteger("benchmark.items-per-notification", 20),
+                                  Double.parseDouble(System.getProperty("benchmark.read-ratio", "0.7")),
+                                  Integer.getInteger("benchmark.spread-days", 60),
+                                  Long.getLong("benchmark.seed", 42L));
+    }
+
+    /**
+     * Channel 1 is the hot channel, followed by the first
+     * {@code hotChannelFollowers} users.
+     */
+    public long hotChannelId() {
+        return 1L;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.vepo.passport.benchmark;
+
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Production-like purge and retention settings; the test profile shrinks them
+ * to exercise chunking with a handful of rows. Hibernate statistics are on so
+ * benchmarks can count statements and entity loads.
+ */
+public class BenchmarkTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("passport.notifications.purge.chunk-size", "1000",
+                      "passport.notifications.purge.chunk-pause", "0s",
+                      "passport.notifications.retention.per-user-max", "1000",
+                      "quarkus.hibernate-orm.statistics", "true");
+    }
+}
@@ -0,0 +1,154 @@
+package dev.vepo.passport.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.directory.AuthorBatchLoader;
+import dev.vepo.passport.directory.DirectoryIndex;
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * Typeahead queries against the in-memory {@link DirectoryIndex} and the
+ * trigram-indexed SQL path over the generated users, and author lookups as
+ * entities versus the projection the endpoint uses, and concurrent author
+ * lookups with and without {@link AuthorBatchLoader} batching. Run with
+ * {@code ./mvnw test -Pbenchmark}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+@TestProfile(BenchmarkTestProfile.class)
+@DisplayName("Directory search benchmark")
+class DirectorySearchBenchmarkTest {
+
+    private static final int LOOKUP_THREADS = 32;
+    private static final List<String> QUERIES = List.of("be", "ben", "bench", "user 12", "bench00042", "passport", "@bench", "zz");
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    DirectoryIndex directoryIndex;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    @DisplayName("Should time directory searches and author lookups")
+    void benchmarkDirectorySearch() throws Exception {
+        Given.cleanup();
+        var scale = BenchmarkScale.fromSystemProperties();
+        var data = new BenchmarkDataGenerator(dataSource, scale).generate();
+        var report = new BenchmarkReport();
+
+        report.time("directory.index.rebuild", 0, 1, i -> directoryIndex.rebuild());
+        for (var query : QUERIES) {
+            var indexed = directoryIndex.search(query, 0, 20).orElseThrow();
+            var sql = QuarkusTransaction.requiringNew().call(() -> userRepository.countDirectory(query));
+            // Two-character queries only match word prefixes in the index.
+            if (query.length() > 2) {
+                assertEquals(sql, indexed.total(), "total for '%s'".formatted(query));
+            }
+        }
+
+        for (var query : QUERIES) {
+            var key = query.replace(' ', '_');
+            report.time("directory.index.%s".formatted(key), 5, 50, i -> directoryIndex.search(query, 0, 20));
+            report.time("directory.sql.%s".formatted(key), 2, 20,
+                        i -> QuarkusTransaction.requiringNew().run(() -> {
+                            userRepository.countDirectory(query);
+                            userRepository.searchDirectory(query, 0, 20);
+                        }));
+        }
+
+        var authorIds = LongStream.range(data.firstUserId(), data.firstUserId() + Math.min(50, scale.users()))
+                                  .boxed()
+                                  .toList();
+        report.time("authors.entity", 2, 20,
+                    i -> QuarkusTransaction.requiringNew().run(() -> userRepository.findActiveByIds(authorIds)));
+        report.time("authors.projection", 2, 20,
+                    i -> QuarkusTransaction.requiringNew().run(() -> userRepository.findActiveAuthorEntries(authorIds)));
+        count(report, "authors.entity", () -> userRepository.findActiveByIds(authorIds));
+        count(report, "authors.projection", () -> userRepository.findActiveAuthorEntries(authorIds));
+        count(report, "directory.sql.page", () -> userRepository.searchDirectory("bench", 0, 20));
+        assertEquals(0.0, report.metrics().get("authors.projection.entities-loaded"));
+        for (var window : List.of(Duration.ZERO, Duration.ofMillis(2), Duration.ofMillis(10))) {
+            batchedLookups(report, "authors.batch.%dms".formatted(window.toMillis()), window, data.firstUserId(), scale.users());
+        }
+
+        var json = report.write("directory-benchmark", scale, data);
+        assertTrue(Files.exists(json));
+    }
+
+    /**
+     * Statements, entities and collections one call loads, from Hibernate
+     * statistics (enabled by {@link BenchmarkTestProfile}).
+     */
+    private void count(BenchmarkReport report, String name, Runnable lookup) {
+        var statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        QuarkusTransaction.requiringNew().run(lookup);
+        report.metric(name + ".statements", statistics.getPrepareStatementCount());
+        report.metric(name + ".entities-loaded", statistics.getEntityLoadCount());
+        report.metric(name + ".collections-loaded", statistics.getCollectionLoadCount());
+    }
+
+    /**
+     * {@value #LOOKUP_THREADS} threads each resolving random small id lists, as
+     * peers rendering pages do; records how many lookups shared a query and how
+     * long they waited for it.
+     */
+    private void batchedLookups(BenchmarkReport report, String name, Duration window, long firstUserId, int users) throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var loader = new AuthorBatchLoader(userRepository, meterRegistry, window, 500);
+        report.time(name, 1, 5, iteration -> {
+            try (var executor = Executors.newFixedThreadPool(LOOKUP_THREADS)) {
+                var lookups = new ArrayList<Future<?>>();
+                for (var thread = 0; thread < LOOKUP_THREADS; thread++) {
+                    var seed = iteration * LOOKUP_THREADS + thread;
+                    lookups.add(executor.submit(() -> {
+                        for (var lookup = 0; lookup < 20; lookup++) {
+                            var offset = (seed * 31L + lookup * 7L) % Math.max(1, users - 5);
+                            loader.load(LongStream.range(firstUserId + offset, firstUserId + offset + 5).boxed().toList());
+                        }
+                    }));
+                }
+                for (var lookup : lookups) {
+                    lookup.get();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        var callers = meterRegistry.get("passport.directory.authors.batch.callers").summary();
+        var wait = meterRegistry.get("passport.directory.authors.batch.wait").timer();
+        report.metric(name + ".queries", callers.count());
+        report.metric(name + ".callers-per-query", callers.mean());
+        report.metric(name + ".ids-per-query", meterRegistry.get("passport.directory.authors.batch.ids").summary().mean());
+        report.metric(name + ".mean-wait-ms", wait.mean(TimeUnit.MILLISECONDS));
+    }
+}
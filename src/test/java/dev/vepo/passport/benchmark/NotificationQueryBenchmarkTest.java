@@ -0,0 +1,93 @@
+package dev.vepo.passport.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.channelfollow.ChannelFollowerIndex;
+import dev.vepo.passport.notification.CreateInternalNotificationRequest;
+import dev.vepo.passport.notification.NotificationService;
+import dev.vepo.passport.notification.UpdateReadStateRequest;
+import dev.vepo.passport.shared.Given;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * Scripted timings of the {@link NotificationService} paths over a generated
+ * data set. Excluded from the default build; run with
+ * {@code ./mvnw test -Pbenchmark} (scale via {@code -Dbenchmark.*}, see
+ * {@link BenchmarkScale}).
+ */
+@QuarkusTest
+@Tag("benchmark")
+@TestProfile(BenchmarkTestProfile.class)
+@DisplayName("Notification query benchmark")
+class NotificationQueryBenchmarkTest {
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    ChannelFollowerIndex followerIndex;
+
+    @Test
+    @DisplayName("Should time every notification path and write the report")
+    void benchmarkNotificationPaths() throws Exception {
+        Given.cleanup();
+        var scale = BenchmarkScale.fromSystemProperties();
+        var data = new BenchmarkDataGenerator(dataSource, scale).generate();
+        // Follows are bulk-copied, bypassing the follower index.
+        followerIndex.reload();
+        var report = new BenchmarkReport();
+
+        var reader = BenchmarkDataGenerator.username(0);
+        var hotChannel = scale.hotChannelId();
+        var hotNotifications = LongStream.range(data.firstNotificationId(), data.firstNotificationId() + scale.notificationsPerChannel())
+                                         .boxed()
+                                         .toList();
+
+        report.time("inbox.list", 2, 10, i -> notificationService.listForUser(reader, false));
+        report.time("inbox.list-unread", 2, 10, i -> notificationService.listForUser(reader, true));
+        report.time("inbox.unread-count", 3, 30, i -> notificationService.countUnreadForUser(reader));
+        report.time("channel.list", 3, 30, i -> notificationService.listByEngageChannel(reader, hotChannel, 0, 50));
+        report.time("notification.detail", 3, 30,
+                    i -> notificationService.findForUser(reader, hotNotifications.get(i % hotNotifications.size()), false));
+        report.time("notification.items", 3, 30,
+                    i -> notificationService.findItems(reader, hotNotifications.get(i % hotNotifications.size()), -1, 50, false));
+        report.time("read-state.bulk", 2, 20,
+                    i -> notificationService.updateReadState(reader,
+                                                             new UpdateReadStateRequest(hotNotifications.subList(0, Math.min(100, hotNotifications.size())),
+                                                                                        i % 2 == 0)));
+        report.time("read-state.mark-all", 0, Math.min(20, scale.users() - 1),
+                    i -> notificationService.markAllRead(BenchmarkDataGenerator.username(1 + i)));
+        report.time("ingest.fan-out-hot-channel", 1, 5,
+                    i -> notificationService.publishInternalNotification(new CreateInternalNotificationRequest("engage",
+                                                                                                               "video_sync",
+                                                                                                               hotChannel,
+                                                                                                               "Benchmark run %d".formatted(i),
+                                                                                                               null,
+                                                                                                               null,
+                                                                                                               List.of(),
+                                                                                                               null,
+                                                                                                               null),
+                                                                         null));
+        report.time("retention.preview", 1, 3, i -> notificationService.previewRetention(Duration.ofDays(2)));
+        report.time("retention.purge", 0, 1, i -> notificationService.purgeOldReadNotifications(Duration.ofDays(2)));
+
+        var json = report.write("notification-benchmark", scale, data);
+        assertTrue(Files.exists(json));
+    }
+}
@@ -0,0 +1,111 @@
+package dev.vepo.passport.channelfollow;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.shared.Given;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Bulk channel follow API")
+class ChannelFollowBulkEndpointTest {
+
+    @Inject
+    ChannelFollowerIndex followerIndex;
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should answer the status of many channels in one call")
+    void statuses_ReturnsOneEntryPerDistinctChannel() {
+        var user = Given.user()
+                        .withUsername("bulk-status")
+                        .withEmail("bulk-status@passport.vepo.dev")
+                        .withName("Bulk User")
+                        .withPassword("password123")
+                        .persist();
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 11}")
+               .post("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED);
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelIds\": [12, 11, 12, 13]}")
+               .when().post("/api/channel-follows/status")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("statuses", hasSize(3))
+               .body("statuses.engageChannelId", contains(12, 11, 13))
+               .body("statuses.following", contains(false, true, false));
+    }
+
+    @Test
+    @DisplayName("Should replace the follow set and report only the changes")
+    void replace_AppliesDiff() {
+        var user = Given.user()
+                        .withUsername("bulk-replace")
+                        .withEmail("bulk-replace@passport.vepo.dev")
+                        .withName("Bulk User")
+                        .withPassword("password123")
+                        .persist();
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelIds\": [21, 22]}")
+               .when().put("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("followed", contains(21, 22))
+               .body("unfollowed", empty());
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelIds\": [22, 23, 23]}")
+               .when().put("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("followed", contains(23))
+               .body("unfollowed", contains(21));
+
+        given().header(user.authenticated())
+               .when().get("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("engageChannelId", hasSize(2));
+
+        assertArrayEquals(new long[0], followerIndex.followers(21L));
+        assertArrayEquals(new long[] { user.user().getId() }, followerIndex.followers(23L));
+    }
+
+    @Test
+    @DisplayName("Should reject a replace without a channel list")
+    void replace_WithoutList_ReturnsBadRequest() {
+        var user = Given.user()
+                        .withUsername("bulk-invalid")
+                        .withEmail("bulk-invalid@passport.vepo.dev")
+                        .withName("Bulk User")
+                        .withPassword("password123")
+                        .persist();
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{}")
+               .when().put("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+}
@@ -0,0 +1,108 @@
+package dev.vepo.passport.channelfollow;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.shared.Given.GivenUser;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+@DisplayName("Channel follower counts API")
+class ChannelFollowerCountsEndpointTest {
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should keep counts in step with follow, unfollow and replace")
+    void counts_FollowAndUnfollow_UpdatesCounts() {
+        var first = Given.user()
+                         .withUsername("count-first")
+                         .withEmail("count-first@passport.vepo.dev")
+                         .withName("Count User")
+                         .withPassword("password123")
+                         .persist();
+        var second = Given.user()
+                          .withUsername("count-second")
+                          .withEmail("count-second@passport.vepo.dev")
+                          .withName("Count User")
+                          .withPassword("password123")
+                          .persist();
+        follow(first, 31);
+        follow(first, 31);
+        follow(second, 31);
+        follow(second, 32);
+
+        given().header(first.authenticated())
+               .when().delete("/api/channel-follows/31")
+               .then()
+               .statusCode(HttpStatus.SC_NO_CONTENT);
+
+        given().header(second.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelIds\": [31, 33]}")
+               .when().put("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+
+        given().header(first.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelIds\": [33, 32, 31, 34]}")
+               .when().post("/api/channel-follows/counts")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("counts.engageChannelId", contains(33, 32, 31, 34))
+               .body("counts.followers", contains(1, 0, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Should list the most followed channels for admins only")
+    void top_ListsLargestChannels() {
+        var first = Given.user()
+                         .withUsername("top-first")
+                         .withEmail("top-first@passport.vepo.dev")
+                         .withName("Count User")
+                         .withPassword("password123")
+                         .persist();
+        var second = Given.user()
+                          .withUsername("top-second")
+                          .withEmail("top-second@passport.vepo.dev")
+                          .withName("Count User")
+                          .withPassword("password123")
+                          .persist();
+        follow(first, 41);
+        follow(second, 41);
+        follow(second, 42);
+
+        given().header(first.authenticated())
+               .when().get("/api/channel-follows/top")
+               .then()
+               .statusCode(HttpStatus.SC_FORBIDDEN);
+
+        given().header(Given.admin().authenticated())
+               .queryParam("limit", 5)
+               .when().get("/api/channel-follows/top")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("counts.engageChannelId", contains(41, 42))
+               .body("counts.followers", contains(2, 1));
+    }
+
+    private static void follow(GivenUser user, long engageChannelId) {
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": %d}".formatted(engageChannelId))
+               .when().post("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.vepo.passport.channelfollow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.model.User;
+import dev.vepo.passport.shared.Given;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@QuarkusTest
+@DisplayName("Channel follower index")
+class ChannelFollowerIndexTest {
+
+    @Inject
+    ChannelFollowService channelFollowService;
+
+    @Inject
+    ChannelFollowerIndex followerIndex;
+
+    @Inject
+    ChannelFollowRepository channelFollowRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should apply follows and unfollows once committed")
+    void follow_UpdatesIndexOnCommit() {
+        var first = Given.user()
+                         .withUsername("index-first")
+                         .withEmail("index-first@passport.vepo.dev")
+                         .withName("Index User")
+                         .withPassword("password123")
+                         .persist()
+                         .user();
+        var second = Given.user()
+                          .withUsername("index-second")
+                          .withEmail("index-second@passport.vepo.dev")
+                          .withName("Index User")
+                          .withPassword("password123")
+                          .persist()
+                          .user();
+
+        channelFollowService.follow("index-second", 40L);
+        channelFollowService.follow("index-first", 40L);
+        channelFollowService.follow("index-first", 40L);
+
+        assertArrayEquals(sorted(first.getId(), second.getId()), followerIndex.followers(40L));
+
+        channelFollowService.unfollow("index-second", 40L);
+        assertArrayEquals(new long[] { first.getId() }, followerIndex.followers(40L));
+
+        channelFollowService.unfollow("index-first", 40L);
+        assertArrayEquals(new long[0], followerIndex.followers(40L));
+    }
+
+    @Test
+    @DisplayName("Should pick up follows logged by another replica on refresh")
+    void refresh_ReloadsChangedChannels() {
+        var user = Given.user()
+                        .withUsername("index-remote")
+                        .withEmail("index-remote@passport.vepo.dev")
+                        .withName("Index User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+        QuarkusTransaction.requiringNew().run(() -> {
+            entityManager.createNativeQuery("INSERT INTO tb_channel_follows (user_id, engage_channel_id) VALUES (:userId, 41)")
+                         .setParameter("userId", user.getId())
+                         .executeUpdate();
+            channelFollowRepository.recordChange(41L);
+        });
+
+        assertArrayEquals(new long[0], followerIndex.followers(41L));
+        followerIndex.refresh();
+        assertArrayEquals(new long[] { user.getId() }, followerIndex.followers(41L));
+    }
+
+    @Test
+    @DisplayName("Should keep follower arrays sorted and without duplicates")
+    void withAndWithout_KeepArraysSorted() {
+        var userIds = ChannelFollowerIndex.with(null, 5);
+        userIds = ChannelFollowerIndex.with(userIds, 1);
+        userIds = ChannelFollowerIndex.with(userIds, 9);
+        userIds = ChannelFollowerIndex.with(userIds, 5);
+        assertArrayEquals(new long[] { 1, 5, 9 }, userIds);
+
+        userIds = ChannelFollowerIndex.without(userIds, 5);
+        userIds = ChannelFollowerIndex.without(userIds, 7);
+        assertArrayEquals(new long[] { 1, 9 }, userIds);
+    }
+
+    private static long[] sorted(long first, long second) {
+        return first < second ? new long[] { first, second } : new long[] { second, first };
+    }
+}
@@ -0,0 +1,93 @@
+package dev.vepo.passport.directory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Author batch loader")
+class AuthorBatchLoaderTest {
+
+    private static final int CALLERS = 8;
+
+    @Inject
+    UserRepository userRepository;
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent lookups and give each caller its authors")
+    void load_CoalescesConcurrentLookups() throws Exception {
+        var ids = new ArrayList<Long>();
+        for (var i = 0; i < CALLERS; i++) {
+            ids.add(Given.user()
+                         .withUsername("batch%d".formatted(i))
+                         .withEmail("batch%d@passport.vepo.dev".formatted(i))
+                         .withName("Batch Author %d".formatted(i))
+                         .withPassword("Password123")
+                         .persist()
+                         .id());
+        }
+        var meterRegistry = new SimpleMeterRegistry();
+        // A wide window so every caller lands in the first batch.
+        var loader = new AuthorBatchLoader(userRepository, meterRegistry, Duration.ofMillis(200), 500);
+
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<Map<Long, PublicAuthorResponse>>>();
+        try (var executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (var id : ids) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loader.load(List.of(id, 99999L));
+                }));
+            }
+            start.countDown();
+            for (var i = 0; i < CALLERS; i++) {
+                var authors = results.get(i).get();
+                assertEquals("Batch Author %d".formatted(i), authors.get(ids.get(i)).name());
+                assertTrue(!authors.containsKey(99999L));
+            }
+        }
+
+        var batches = meterRegistry.get("passport.directory.authors.batch.callers").summary();
+        assertTrue(batches.count() < CALLERS, "expected fewer queries than callers, got %d".formatted(batches.count()));
+        assertEquals(CALLERS, (long) batches.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should dispatch early once the id limit is reached")
+    void load_DispatchesAtIdLimit() {
+        var id = Given.user()
+                      .withUsername("limit")
+                      .withEmail("limit@passport.vepo.dev")
+                      .withName("Limit Author")
+                      .withPassword("Password123")
+                      .persist()
+                      .id();
+        var loader = new AuthorBatchLoader(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 1);
+
+        var startedAt = System.nanoTime();
+        assertEquals("Limit Author", loader.load(List.of(id)).get(id).name());
+        assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).compareTo(Duration.ofSeconds(10)) < 0);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.vepo.passport.directory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.shared.search.SearchText;
+import dev.vepo.passport.user.UserChangePoller;
+import dev.vepo.passport.user.UserDirectoryEntry;
+import dev.vepo.passport.user.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@QuarkusTest
+@DisplayName("Directory search index")
+class DirectoryIndexTest {
+
+    @Inject
+    DirectoryIndex directoryIndex;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    UserChangePoller userChangePoller;
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should rank exact, prefix, word prefix and substring matches in that order")
+    void search_RanksMatches() {
+        var index = new NgramIndex();
+        index.put(new UserDirectoryEntry(1, "xana", "Roxana Prado", "roxana@example.com", false));
+        index.put(new UserDirectoryEntry(2, "anabel", "Anabel Souza", "anabel@example.com", false));
+        index.put(new UserDirectoryEntry(3, "m.ana", "Maria Ana", "maria@example.com", false));
+        index.put(new UserDirectoryEntry(4, "ana", "Ana", "ana@example.com", false));
+        index.put(new UserDirectoryEntry(5, "off", "Ana Off", "off@example.com", true));
+
+        var result = index.search("ANA", 0, 10);
+
+        assertEquals(4, result.total());
+        assertEquals(List.of(4L, 2L, 3L, 1L), result.hits().stream().map(hit -> hit.entry().id()).toList());
+        assertEquals(List.of(0, 1, 2, 3), result.hits().stream().map(NgramIndex.Hit::rank).toList());
+    }
+
+    @Test
+    @DisplayName("Should page, match accents and short substrings, and forget replaced users")
+    void search_PagesAndReplaces() {
+        var index = new NgramIndex();
+        index.put(new UserDirectoryEntry(1, "joao", "João Conceição", "joao@example.com", false));
+        index.put(new UserDirectoryEntry(2, "bob", "Bob Conceicao", "bob@example.com", false));
+
+        assertEquals(2, index.search("concei", 0, 10).total());
+        assertEquals(1, index.search("concei", 1, 1).hits().size());
+        assertEquals(2, index.search("co", 0, 10).total());
+        assertEquals(2, index.search("ce", 0, 10).total());
+        assertEquals(List.of(2L), index.search("ob", 0, 10).hits().stream().map(hit -> hit.entry().id()).toList());
+        assertEquals(0, index.search("zq", 0, 10).total());
+
+        index.put(new UserDirectoryEntry(2, "bob", "Bob Silva", "bob@example.com", false));
+        assertEquals(1, index.search("concei", 0, 10).total());
+        assertTrue(index.deadRatio() > 0);
+
+        index.put(new UserDirectoryEntry(1, "joao", "João Conceição", "joao@example.com", true));
+        assertEquals(0, index.search("concei", 0, 10).total());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should normalize names exactly as passport_normalize does")
+    void search_NormalizesLikeDatabase() {
+        var samples = List.of("Łukasz Żółć", "Søren Ærø", "Straße", "Đorđe Œuvre", "Þóra Ðís", "João Conceição", "ﬁona", "Ĳsbrand");
+        for (var sample : samples) {
+            var expected = (String) entityManager.createNativeQuery("SELECT passport_normalize(:value)")
+                                                 .setParameter("value", sample)
+                                                 .getSingleResult();
+            assertEquals(expected, SearchText.normalize(sample), sample);
+        }
+
+        var index = new NgramIndex();
+        index.put(new UserDirectoryEntry(1, "lukasz", "Łukasz Ørsted", "lukasz@example.com", false));
+        index.put(new UserDirectoryEntry(2, "strasse", "Hans Straße", "hans@example.com", false));
+        assertEquals(1, index.search("orsted", 0, 10).total());
+        assertEquals(1, index.search("łuk", 0, 10).total());
+        assertEquals(1, index.search("strasse", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("Should follow user creation, disabling and remote changes")
+    void directoryIndex_FollowsUserChanges() {
+        var user = Given.user()
+                        .withUsername("idx.carol")
+                        .withEmail("carol.index@example.com")
+                        .withName("Carol Índice")
+                        .withPassword("Password123")
+                        .persist();
+
+        assertEquals(1, directoryIndex.search("indice", 0, 20).orElseThrow().total());
+
+        QuarkusTransaction.requiringNew().run(() -> userRepository.findById(user.id()).orElseThrow().setDisabled(true));
+        assertEquals(0, directoryIndex.search("indice", 0, 20).orElseThrow().total());
+
+        QuarkusTransaction.requiringNew().run(() -> userRepository.findById(user.id()).orElseThrow().setDisabled(false));
+        assertEquals(1, directoryIndex.search("carol.index", 0, 20).orElseThrow().total());
+
+        // As another replica would: no local event, only updated_at moves.
+        QuarkusTransaction.requiringNew()
+                          .run(() -> entityManager.createNativeQuery("UPDATE tb_users SET name = 'Carol Remota', updated_at = NOW() WHERE id = :id")
+                                                  .setParameter("id", user.id())
+                                                  .executeUpdate());
+        assertEquals(0, directoryIndex.search("remota", 0, 20).orElseThrow().total());
+        userChangePoller.poll();
+        assertEquals(1, directoryIndex.search("remota", 0, 20).orElseThrow().total());
+    }
+}
@@ -0,0 +1,113 @@
+package dev.vepo.passport.directory.authors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.shared.Given;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+@DisplayName("Find public authors API")
+class FindAuthorsEndpointTest {
+
+    private static final String PATH = "/api/directory/authors";
+
+    private Given.GivenUser author;
+    private Given.GivenUser caller;
+
+    @BeforeEach
+    void setUp() {
+        Given.cleanup();
+        author = Given.user()
+                      .withEmail("author@passport.vepo.dev")
+                      .withName("Author Name")
+                      .withUsername("author1")
+                      .withPassword("encryptedPassword123")
+                      .persist();
+        caller = Given.user()
+                      .withEmail("caller@passport.vepo.dev")
+                      .withName("Caller")
+                      .withUsername("caller1")
+                      .withPassword("encryptedPassword123")
+                      .persist();
+    }
+
+    @Test
+    @DisplayName("Should return cacheable author cards with an ETag")
+    void shouldReturnCacheableAuthorCardsWithEtag() {
+        var etag = given().header(caller.authenticated())
+                          .queryParam("id", author.id())
+                          .queryParam("id", 99999L)
+                          .when()
+                          .get(PATH)
+                          .then()
+                          .statusCode(HttpStatus.SC_OK)
+                          .header("ETag", notNullValue())
+                          .header("Cache-Control", containsString("public"))
+                          .header("Cache-Control", containsString("max-age=60"))
+                          .header("Cache-Control", containsString("stale-while-revalidate="))
+                          .body("$", hasSize(1))
+                          .body("[0].username", is("author1"))
+                          .extract()
+                          .header("ETag");
+
+        given().header(caller.authenticated())
+               .header("If-None-Match", etag)
+               .queryParam("id", author.id())
+               .queryParam("id", 99999L)
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("Should change the ETag when the card changes")
+    void shouldChangeEtagWhenCardChanges() {
+        var etag = given().header(caller.authenticated())
+                          .queryParam("id", author.id())
+                          .when()
+                          .get(PATH)
+                          .then()
+                          .statusCode(HttpStatus.SC_OK)
+                          .extract()
+                          .header("ETag");
+
+        given().header(author.authenticated())
+               .contentType("application/json")
+               .body("""
+                     {"name":"Author Renamed","email":"author@passport.vepo.dev","description":""}
+                     """)
+               .when()
+               .put("/api/auth/me")
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+
+        given().header(caller.authenticated())
+               .header("If-None-Match", etag)
+               .queryParam("id", author.id())
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("[0].name", is("Author Renamed"));
+    }
+
+    @Test
+    @DisplayName("Should require at least one author id")
+    void shouldRequireAtLeastOneAuthorId() {
+        given().header(caller.authenticated())
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+}
@@ -10,13 +10,24 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.user.UserChangePoller;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 
 @QuarkusTest
 @DisplayName("Lookup public authors API")
 class LookupAuthorsEndpointTest {
 
+    @Inject
+    UserChangePoller userChangePoller;
+
+    @Inject
+    EntityManager entityManager;
+
     @BeforeEach
     void cleanup() {
         Given.cleanup();
@@ -63,4 +74,69 @@ class LookupAuthorsEndpointTest {
                .body("[0].description", is("Teacher bio"))
                .body("[0].username", is("author1"));
     }
+
+    @Test
+    @DisplayName("Should drop cached cards when the author is updated or disabled")
+    void shouldDropCachedCardsWhenAuthorIsUpdatedOrDisabled() {
+        var author = Given.user()
+                          .withEmail("cached@passport.vepo.dev")
+                          .withName("Cached Author")
+                          .withUsername("cached1")
+                          .withPassword("encryptedPassword123")
+                          .persist();
+        var body = "{\"ids\":[%d]}".formatted(author.id());
+
+        lookup(author, body).body("[0].name", is("Cached Author"));
+
+        given().header(author.authenticated())
+               .contentType(ContentType.JSON)
+               .body("""
+                     {"name":"Renamed Author","email":"cached@passport.vepo.dev","description":""}
+                     """)
+               .when()
+               .put("/api/auth/me")
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+        lookup(author, body).body("[0].name", is("Renamed Author"));
+
+        given().header(Given.admin().authenticated())
+               .contentType(ContentType.JSON)
+               .when()
+               .post("/api/users/%d/disable".formatted(author.id()))
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+        lookup(Given.admin(), body).body("$", hasSize(0));
+    }
+
+    @Test
+    @DisplayName("Should pick up changes made elsewhere once polled")
+    void shouldPickUpChangesMadeElsewhereOnRevalidation() {
+        var author = Given.user()
+                          .withEmail("replica@passport.vepo.dev")
+                          .withName("Before")
+                          .withUsername("replica1")
+                          .withPassword("encryptedPassword123")
+                          .persist();
+        var body = "{\"ids\":[%d]}".formatted(author.id());
+        lookup(author, body).body("[0].name", is("Before"));
+
+        // As another replica would: no local event, only updated_at moves.
+        QuarkusTransaction.requiringNew().run(() -> entityManager.createNativeQuery("UPDATE tb_users SET name = 'After', updated_at = NOW() WHERE id = :id")
+                                                                 .setParameter("id", author.id())
+                                                                 .executeUpdate());
+        lookup(author, body).body("[0].name", is("Before"));
+
+        userChangePoller.poll();
+        lookup(author, body).body("[0].name", is("After"));
+    }
+
+    private static ValidatableResponse lookup(Given.GivenUser caller, String body) {
+        return given().header(caller.authenticated())
+                      .contentType(ContentType.JSON)
+                      .body(body)
+                      .when()
+                      .post("/api/directory/authors")
+                      .then()
+                      .statusCode(HttpStatus.SC_OK);
+    }
 }
@@ -8,6 +8,12 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -125,4 +131,110 @@ class SearchDirectoryUsersEndpointTest {
                .body("items.email", hasItem("alice.teacher@example.com"))
                .body("items.email", everyItem(not(equalTo("gone@example.com"))));
     }
+
+    @Test
+    @DisplayName("shouldMatchDirectoryUsersIgnoringAccentsAndWildcards")
+    void shouldMatchDirectoryUsersIgnoringAccentsAndWildcards() {
+        Given.user()
+             .withUsername("joao.s")
+             .withEmail("joao.silva@example.com")
+             .withName("João Conceição")
+             .withPassword("Password123")
+             .withProfile("Regular User")
+             .persist();
+
+        given().header(teacher.authenticated())
+               .queryParam("q", "CONCEICAO")
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("items.name", hasItem("João Conceição"))
+               .body("total", equalTo(1));
+
+        given().header(teacher.authenticated())
+               .queryParam("q", "%%")
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("total", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("shouldWalkDirectoryWithCursorWithoutCounting")
+    void shouldWalkDirectoryWithCursorWithoutCounting() {
+        for (var i = 0; i < 5; i++) {
+            // Same name for two of them, so the id breaks the tie.
+            var name = i < 2 ? "Pager Twin" : "Pager %d".formatted(i);
+            Given.user()
+                 .withUsername("pager.%d".formatted(i))
+                 .withEmail("pager.%d@example.com".formatted(i))
+                 .withName(name)
+                 .withPassword("Password123")
+                 .withProfile("Regular User")
+                 .persist();
+        }
+        var seen = new ArrayList<String>();
+        var cursor = "";
+        do {
+            var page = given().header(teacher.authenticated())
+                              .queryParam("q", "pager")
+                              .queryParam("size", 2)
+                              .queryParam("cursor", cursor)
+                              .when()
+                              .get(PATH)
+                              .then()
+                              .statusCode(HttpStatus.SC_OK)
+                              .body("$", not(hasKey("total")))
+                              .body("estimatedTotal", nullValue())
+                              .extract()
+                              .jsonPath();
+            seen.addAll(page.getList("items.username", String.class));
+            cursor = page.getBoolean("hasMore") ? page.getString("nextCursor") : null;
+        } while (cursor != null);
+
+        assertEquals(List.of("pager.2", "pager.3", "pager.4", "pager.0", "pager.1"), seen);
+    }
+
+    @Test
+    @DisplayName("shouldEndCursorWalkOnLastPage")
+    void shouldEndCursorWalkOnLastPage() {
+        given().header(teacher.authenticated())
+               .queryParam("q", "bob")
+               .queryParam("cursor", "")
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("items.username", hasItem(student.user().getUsername()))
+               .body("hasMore", equalTo(false))
+               .body("nextCursor", nullValue());
+    }
+
+    @Test
+    @DisplayName("shouldEstimateDirectoryTotalOnRequest")
+    void shouldEstimateDirectoryTotalOnRequest() {
+        given().header(teacher.authenticated())
+               .queryParam("q", "alice")
+               .queryParam("cursor", "")
+               .queryParam("estimate", true)
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("estimatedTotal", notNullValue());
+    }
+
+    @Test
+    @DisplayName("shouldRejectInvalidDirectoryCursor")
+    void shouldRejectInvalidDirectoryCursor() {
+        given().header(teacher.authenticated())
+               .queryParam("q", "alice")
+               .queryParam("cursor", "not-a-cursor")
+               .when()
+               .get(PATH)
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
 }
@@ -4,6 +4,13 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
 
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +21,7 @@ import dev.vepo.passport.shared.Given;
 import dev.vepo.passport.shared.security.InternalServiceKeyFilter;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
 
 @QuarkusTest
 @DisplayName("Notification API Endpoint Tests")
@@ -21,6 +29,9 @@ class NotificationEndpointTest {
 
     private static final String SERVICE_KEY = "test-service-key";
 
+    @Inject
+    InboxVersionService inboxVersionService;
+
     @BeforeEach
     void cleanup() {
         Given.cleanup();
@@ -259,6 +270,516 @@ class NotificationEndpointTest {
                .then()
                .statusCode(HttpStatus.SC_OK)
                .body("$", hasSize(1))
-               .body("[0].title", is("Relatório do canal"));
+               .body("[0].title", is("Relatório do canal"))
+               .body("[0].read", is(false))
+               .body("[0].itemCount", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Should page channel reports newest first with the reader's read flag")
+    void listByEngageChannel_WithPaging_ReturnsRequestedPage() {
+        Given.profile().withName("Engage Pager").withRole("engage.admin").persist();
+        var admin = Given.user()
+                         .withUsername("engage-pager")
+                         .withEmail("engage-pager@passport.vepo.dev")
+                         .withName("Engage Pager")
+                         .withPassword("password123")
+                         .withProfile("Engage Pager")
+                         .persist();
+
+        given().header(admin.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 12}")
+               .post("/api/channel-follows");
+
+        for (var title : new String[] { "Primeiro", "Segundo" }) {
+            given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                   .contentType(ContentType.JSON)
+                   .body("""
+                         {
+                           "sourceService": "engage",
+                           "sourceType": "video_sync",
+                           "engageChannelId": 12,
+                           "title": "%s",
+                           "description": "Sync",
+                           "report": "{}",
+                           "items": [
+                             { "title": "youtube.search.list", "description": "1 página", "report": "{}" },
+                             { "title": "youtube.videos.list", "description": "1 página", "report": "{}" }
+                           ]
+                         }
+                         """.formatted(title))
+                   .when().post("/api/internal/notifications")
+                   .then()
+                   .statusCode(HttpStatus.SC_CREATED);
+        }
+
+        given().header(admin.authenticated())
+               .contentType(ContentType.JSON)
+               .patch("/api/notifications/read-all")
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+
+        given().header(admin.authenticated())
+               .when().get("/api/notifications/by-channel/12?page=0&size=1")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("$", hasSize(1))
+               .body("[0].title", is("Segundo"))
+               .body("[0].read", is(true))
+               .body("[0].itemCount", equalTo(2));
+
+        given().header(admin.authenticated())
+               .when().get("/api/notifications/by-channel/12?page=1&size=1")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("$", hasSize(1))
+               .body("[0].title", is("Primeiro"));
+    }
+
+    @Test
+    @DisplayName("Should answer inbox polling with ETag and not modified until the inbox changes")
+    void pollInbox_WithIfNoneMatch_ReturnsNotModifiedUntilChange() {
+        var user = Given.user()
+                        .withUsername("poll-user")
+                        .withEmail("poll@passport.vepo.dev")
+                        .withName("Poll User")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 11}")
+               .post("/api/channel-follows");
+
+        var etag = given().header(user.authenticated())
+                          .when().get("/api/notifications/unread-count")
+                          .then()
+                          .statusCode(HttpStatus.SC_OK)
+                          .header("ETag", notNullValue())
+                          .body("count", equalTo(0))
+                          .extract()
+                          .header("ETag");
+
+        given().header(user.authenticated())
+               .header("If-None-Match", etag)
+               .when().get("/api/notifications/unread-count")
+               .then()
+               .statusCode(HttpStatus.SC_NOT_MODIFIED);
+
+        given().header(user.authenticated())
+               .header("If-None-Match", etag)
+               .when().get("/api/notifications?wait=1s")
+               .then()
+               .statusCode(HttpStatus.SC_NOT_MODIFIED);
+        assertEquals(0, inboxVersionService.waitingUsers());
+
+        given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+               .contentType(ContentType.JSON)
+               .body("""
+                     {
+                       "sourceService": "engage",
+                       "sourceType": "video_sync",
+                       "engageChannelId": 11,
+                       "title": "Nova sincronização",
+                       "description": "Sync",
+                       "report": "{}",
+                       "items": []
+                     }
+                     """)
+               .when().post("/api/internal/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED);
+
+        given().header(user.authenticated())
+               .header("If-None-Match", etag)
+               .when().get("/api/notifications/unread-count")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .header("ETag", not(equalTo(etag)))
+               .body("count", equalTo(1));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid wait parameter")
+    void pollInbox_WithInvalidWait_ReturnsBadRequest() {
+        var user = Given.user()
+                        .withUsername("poll-invalid")
+                        .withEmail("poll-invalid@passport.vepo.dev")
+                        .withName("Poll Invalid")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications/unread-count?wait=forever")
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Should serve reports from a separate compressed endpoint")
+    void findNotification_ReportServedSeparately() {
+        var user = Given.user()
+                        .withUsername("report-user")
+                        .withEmail("report@passport.vepo.dev")
+                        .withName("Report User")
+                        .withPassword("password123")
+                        .persist();
+        var outsider = Given.user()
+                            .withUsername("report-outsider")
+                            .withEmail("report-outsider@passport.vepo.dev")
+                            .withName("Report Outsider")
+                            .withPassword("password123")
+                            .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 13}")
+               .post("/api/channel-follows");
+
+        var notificationId = given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                                    .contentType(ContentType.JSON)
+                                    .body("""
+                                          {
+                                            "sourceService": "engage",
+                                            "sourceType": "video_sync",
+                                            "engageChannelId": 13,
+                                            "title": "Relatório compactado",
+                                            "description": "Sync",
+                                            "report": "{\\"status\\":\\"ok\\"}",
+                                            "items": [
+                                              {
+                                                "title": "youtube.search.list",
+                                                "description": "1 página",
+                                                "report": "{\\"count\\":1}"
+                                              }
+                                            ]
+                                          }
+                                          """)
+                                    .post("/api/internal/notifications")
+                                    .then()
+                                    .statusCode(HttpStatus.SC_CREATED)
+                                    .extract()
+                                    .<Integer>path("id");
+
+        var itemReportUrl = given().header(user.authenticated())
+                                   .when().get("/api/notifications/%d".formatted(notificationId))
+                                   .then()
+                                   .statusCode(HttpStatus.SC_OK)
+                                   .body("report", nullValue())
+                                   .body("reportSize", equalTo(15))
+                                   .body("reportUrl", is("/api/notifications/%d/report".formatted(notificationId)))
+                                   .body("items[0].reportSize", equalTo(11))
+                                   .extract()
+                                   .<String>path("items[0].reportUrl");
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications/%d/report".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("status", is("ok"));
+
+        given().header(user.authenticated())
+               .header("Accept-Encoding", "identity")
+               .when().get("/api/notifications/%d/report".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("status", is("ok"));
+
+        given().header(user.authenticated())
+               .when().get(itemReportUrl)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("count", equalTo(1));
+
+        given().header(outsider.authenticated())
+               .when().get("/api/notifications/%d/report".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should page notification items by sequence and stream them as NDJSON")
+    void listItems_PagesBySequenceAndStreams() {
+        var user = Given.user()
+                        .withUsername("items-user")
+                        .withEmail("items@passport.vepo.dev")
+                        .withName("Items User")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 14}")
+               .post("/api/channel-follows");
+
+        var notificationId = given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                                    .contentType(ContentType.JSON)
+                                    .body("""
+                                          {
+                                            "sourceService": "engage",
+                                            "sourceType": "video_sync",
+                                            "engageChannelId": 14,
+                                            "title": "Muitos itens",
+                                            "description": "Sync",
+                                            "report": "{}",
+                                            "items": [
+                                              { "title": "call-0", "description": "", "report": "{}" },
+                                              { "title": "call-1", "description": "", "report": "{}" },
+                                              { "title": "call-2", "description": "", "report": "{}" }
+                                            ]
+                                          }
+                                          """)
+                                    .post("/api/internal/notifications")
+                                    .then()
+                                    .statusCode(HttpStatus.SC_CREATED)
+                                    .extract()
+                                    .<Integer>path("id");
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications/%d".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("itemCount", equalTo(3))
+               .body("items", hasSize(3))
+               .body("nextItemsAfter", nullValue());
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications/%d/items?limit=2".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("items", hasSize(2))
+               .body("items[0].title", is("call-0"))
+               .body("nextAfter", equalTo(1));
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications/%d/items?after=1&limit=2".formatted(notificationId))
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("items", hasSize(1))
+               .body("items[0].title", is("call-2"))
+               .body("nextAfter", nullValue());
+
+        var lines = given().header(user.authenticated())
+                           .accept("application/x-ndjson")
+                           .when().get("/api/notifications/%d/items".formatted(notificationId))
+                           .then()
+                           .statusCode(HttpStatus.SC_OK)
+                           .extract()
+                           .asString()
+                           .lines()
+                           .toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("\"title\":\"call-2\""));
+    }
+
+    @Test
+    @DisplayName("Should update read state of several notifications at once")
+    void updateReadState_AppliesToCallerDeliveriesOnly() {
+        var user = Given.user()
+                        .withUsername("bulk-user")
+                        .withEmail("bulk@passport.vepo.dev")
+                        .withName("Bulk User")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 15}")
+               .post("/api/channel-follows");
+
+        var ids = new ArrayList<Integer>();
+        for (var title : new String[] { "Um", "Dois", "Três" }) {
+            ids.add(given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                           .contentType(ContentType.JSON)
+                           .body("""
+                                 {
+                                   "sourceService": "engage",
+                                   "sourceType": "video_sync",
+                                   "engageChannelId": 15,
+                                   "title": "%s",
+                                   "description": "Sync",
+                                   "report": "{}",
+                                   "items": []
+                                 }
+                                 """.formatted(title))
+                           .post("/api/internal/notifications")
+                           .then()
+                           .statusCode(HttpStatus.SC_CREATED)
+                           .extract()
+                           .<Integer>path("id"));
+        }
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"ids\": [%d, %d, 999999], \"read\": true}".formatted(ids.get(0), ids.get(1)))
+               .when().patch("/api/notifications/read-state")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("updatedCount", equalTo(2))
+               .body("unreadCount", equalTo(1));
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"ids\": [%d], \"read\": false}".formatted(ids.get(0)))
+               .when().patch("/api/notifications/read-state")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("updatedCount", equalTo(1))
+               .body("unreadCount", equalTo(2));
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"ids\": [], \"read\": true}")
+               .when().patch("/api/notifications/read-state")
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Should replay the original notification for a repeated idempotency key")
+    void createInternalNotification_WithRepeatedIdempotencyKey_DeliversOnce() {
+        var user = Given.user()
+                        .withUsername("idem-user")
+                        .withEmail("idem@passport.vepo.dev")
+                        .withName("Idempotent User")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 11}")
+               .when().post("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED);
+
+        var body = """
+                   {
+                     "sourceService": "engage",
+                     "sourceType": "video_sync",
+                     "engageChannelId": 11,
+                     "title": "Sync run 42",
+                     "items": []
+                   }
+                   """;
+        Integer id = given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                            .header("Idempotency-Key", "sync-run-42")
+                            .contentType(ContentType.JSON)
+                            .body(body)
+                            .when().post("/api/internal/notifications")
+                            .then()
+                            .statusCode(HttpStatus.SC_CREATED)
+                            .header("Idempotent-Replayed", nullValue())
+                            .extract()
+                            .path("id");
+
+        given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+               .header("Idempotency-Key", "sync-run-42")
+               .contentType(ContentType.JSON)
+               .body(body)
+               .when().post("/api/internal/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .header("Idempotent-Replayed", "true")
+               .body("id", equalTo(id))
+               .body("title", is("Sync run 42"));
+
+        given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+               .contentType(ContentType.JSON)
+               .body("""
+                     {
+                       "sourceService": "engage",
+                       "sourceType": "video_sync",
+                       "engageChannelId": 11,
+                       "title": "Sync run 42",
+                       "externalId": "sync-run-42",
+                       "items": []
+                     }
+                     """)
+               .when().post("/api/internal/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("id", equalTo(id));
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("$", hasSize(1))
+               .body("[0].id", equalTo(id));
+    }
+
+    @Test
+    @DisplayName("Should fold repeated aggregate reports into one delivery")
+    void createInternalNotification_WithAggregate_UpdatesRollingNotification() {
+        var user = Given.user()
+                        .withUsername("agg-user")
+                        .withEmail("agg@passport.vepo.dev")
+                        .withName("Aggregate User")
+                        .withPassword("password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"engageChannelId\": 12}")
+               .when().post("/api/channel-follows")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED);
+
+        Integer id = given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+                            .contentType(ContentType.JSON)
+                            .body("""
+                                  {
+                                    "sourceService": "engage",
+                                    "sourceType": "video_sync",
+                                    "engageChannelId": 12,
+                                    "title": "Sync run 1",
+                                    "aggregate": true,
+                                    "items": [{ "title": "first" }]
+                                  }
+                                  """)
+                            .when().post("/api/internal/notifications")
+                            .then()
+                            .statusCode(HttpStatus.SC_CREATED)
+                            .body("occurrenceCount", is(1))
+                            .extract()
+                            .path("id");
+
+        given().header(user.authenticated())
+               .contentType(ContentType.JSON)
+               .body("{\"ids\": [%d], \"read\": true}".formatted(id))
+               .when().patch("/api/notifications/read-state")
+               .then()
+               .statusCode(HttpStatus.SC_OK);
+
+        given().header(InternalServiceKeyFilter.SERVICE_KEY_HEADER, SERVICE_KEY)
+               .contentType(ContentType.JSON)
+               .body("""
+                     {
+                       "sourceService": "engage",
+                       "sourceType": "video_sync",
+                       "engageChannelId": 12,
+                       "title": "Sync run 2",
+                       "aggregate": true,
+                       "items": [{ "title": "second" }, { "title": "third" }]
+                     }
+                     """)
+               .when().post("/api/internal/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_CREATED)
+               .body("id", equalTo(id))
+               .body("occurrenceCount", is(2))
+               .body("itemCount", is(2))
+               .body("items[0].title", is("second"));
+
+        given().header(user.authenticated())
+               .when().get("/api/notifications")
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("$", hasSize(1))
+               .body("[0].id", equalTo(id))
+               .body("[0].title", is("Sync run 2"))
+               .body("[0].occurrenceCount", is(2))
+               .body("[0].read", is(false));
     }
 }
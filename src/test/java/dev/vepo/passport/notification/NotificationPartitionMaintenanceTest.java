@@ -0,0 +1,111 @@
+package dev.vepo.passport.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.model.Notification;
+import dev.vepo.passport.model.User;
+import dev.vepo.passport.model.UserNotification;
+import dev.vepo.passport.shared.Given;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Notification partition maintenance")
+class NotificationPartitionMaintenanceTest {
+
+    private static final Duration READ_RETENTION = Duration.ofHours(48);
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    NotificationRepository notificationRepository;
+
+    @Inject
+    UserNotificationRepository userNotificationRepository;
+
+    @Inject
+    NotificationPartitionRepository notificationPartitionRepository;
+
+    @BeforeEach
+    void cleanup() {
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should pre-create upcoming months")
+    void maintainPartitions_CreatesUpcomingMonths() {
+        notificationService.maintainPartitions(3, Optional.empty(), READ_RETENTION);
+
+        var currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        assertEquals(0, notificationPartitionRepository.ensurePartitions(currentMonth, 3));
+    }
+
+    @Test
+    @DisplayName("Should drop expired months with their items and deliveries")
+    void maintainPartitions_DropsExpiredMonths() {
+        var user = Given.user()
+                        .withUsername("partition-user")
+                        .withEmail("partition@passport.vepo.dev")
+                        .withName("Partition User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+
+        var expired = givenExpiredDelivery(user, true);
+
+        var recent = notificationRepository.save(new Notification("engage", "video_sync", 1L, "Recente", "Sync", "{}"));
+        userNotificationRepository.save(new UserNotification(user, recent));
+
+        var result = notificationService.maintainPartitions(3, Optional.of(6), READ_RETENTION);
+
+        assertTrue(result.droppedMonths() >= 1);
+        assertEquals(0, result.defaultPartitionRows());
+        assertTrue(notificationRepository.findById(expired.getId()).isEmpty());
+        assertTrue(notificationRepository.findById(recent.getId()).isPresent());
+        assertEquals(1, userNotificationRepository.findByUser(user, null).size());
+    }
+
+    @Test
+    @DisplayName("Should keep expired months without retention or with unread deliveries")
+    void maintainPartitions_KeepsMonthsTheRetentionRulesKeep() {
+        var user = Given.user()
+                        .withUsername("partition-keep")
+                        .withEmail("partition-keep@passport.vepo.dev")
+                        .withName("Partition Keep")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+
+        var unread = givenExpiredDelivery(user, false);
+
+        assertEquals(0, notificationService.maintainPartitions(3, Optional.empty(), READ_RETENTION).droppedMonths());
+        assertEquals(0, notificationService.maintainPartitions(3, Optional.of(6), READ_RETENTION).droppedMonths());
+        assertTrue(notificationRepository.findById(unread.getId()).isPresent());
+    }
+
+    private Notification givenExpiredDelivery(User user, boolean read) {
+        var expiredMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).minusMonths(14);
+        notificationPartitionRepository.ensurePartitions(expiredMonth, 0);
+
+        var expired = new Notification("engage", "video_sync", 1L, "Expirada", "Sync", "{}");
+        expired.setCreatedAt(expiredMonth.plusDays(10).atStartOfDay(ZoneOffset.UTC).toInstant());
+        notificationRepository.save(expired);
+        var delivery = new UserNotification(user, expired);
+        if (read) {
+            delivery.markRead();
+        }
+        userNotificationRepository.save(delivery);
+        return expired;
+    }
+}
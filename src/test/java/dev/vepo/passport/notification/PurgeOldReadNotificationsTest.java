@@ -1,6 +1,7 @@
 package dev.vepo.passport.notification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Duration;
@@ -22,6 +23,7 @@ import jakarta.inject.Inject;
 class PurgeOldReadNotificationsTest {
 
     private static final Duration RETENTION = Duration.ofDays(2);
+    private static final int PER_USER_MAX = 20;
 
     @Inject
     NotificationService notificationService;
@@ -32,9 +34,18 @@ class PurgeOldReadNotificationsTest {
     @Inject
     UserNotificationRepository userNotificationRepository;
 
+    @Inject
+    NotificationPurgeEngine purgeEngine;
+
+    @Inject
+    PurgeCheckpointRepository checkpointRepository;
+
     @BeforeEach
     void cleanup() {
         Given.cleanup();
+        checkpointRepository.save(NotificationPurgeEngine.DELIVERIES_CHECKPOINT, 0);
+        checkpointRepository.save(NotificationPurgeEngine.NOTIFICATIONS_CHECKPOINT, 0);
+        checkpointRepository.save(NotificationPurgeEngine.USER_CAP_CHECKPOINT, 0);
     }
 
     @Test
@@ -144,4 +155,127 @@ class PurgeOldReadNotificationsTest {
         assertEquals(1, userNotificationRepository.findByUser(secondUser, null).size());
         assertTrue(userNotificationRepository.findByUser(firstUser, null).isEmpty());
     }
+
+    @Test
+    @DisplayName("Should only check notifications queued as purge candidates")
+    void purge_OnlyChecksQueuedCandidates() {
+        var unqueued = notificationRepository.save(new Notification("engage", "video_sync", 5L, "Fora da fila", "Sync", "{}"));
+        var queued = notificationRepository.save(new Notification("engage", "video_sync", 5L, "Na fila", "Sync", "{}"));
+        notificationRepository.queuePurgeCandidate(queued);
+
+        var result = purgeEngine.purge(RETENTION, Instant.MAX);
+
+        assertEquals(1, result.deletedNotifications());
+        assertTrue(notificationRepository.findById(unqueued.getId()).isPresent());
+        assertTrue(notificationRepository.findById(queued.getId()).isEmpty());
+        assertEquals(0, notificationRepository.countPurgeCandidates(10));
+    }
+
+    @Test
+    @DisplayName("Should stop at the deadline and resume from the checkpoint")
+    void purge_PastDeadline_ResumesFromCheckpoint() {
+        var user = Given.user()
+                        .withUsername("resume-user")
+                        .withEmail("resume@passport.vepo.dev")
+                        .withName("Resume User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+
+        for (var i = 0; i < 5; i++) {
+            var notification = notificationRepository.save(new Notification("engage",
+                                                                            "video_sync",
+                                                                            4L,
+                                                                            "Lote %d".formatted(i),
+                                                                            "Sync",
+                                                                            "{}"));
+            var delivery = new UserNotification(user, notification);
+            delivery.markRead();
+            delivery.setReadAt(Instant.now().minus(3, ChronoUnit.DAYS));
+            userNotificationRepository.save(delivery);
+        }
+
+        var partial = purgeEngine.purge(RETENTION, Instant.now());
+
+        assertFalse(partial.complete());
+        assertEquals(2, partial.deletedDeliveries());
+        assertTrue(checkpointRepository.findLastId(NotificationPurgeEngine.DELIVERIES_CHECKPOINT) > 0);
+
+        var rest = purgeEngine.purge(RETENTION, Instant.MAX);
+
+        assertTrue(rest.complete());
+        assertEquals(3, rest.deletedDeliveries());
+        assertEquals(5, rest.deletedNotifications());
+        assertEquals(0, checkpointRepository.findLastId(NotificationPurgeEngine.DELIVERIES_CHECKPOINT));
+        assertTrue(userNotificationRepository.findByUser(user, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply the most specific source rule before the default read retention")
+    void purge_WithSourceRule_UsesRuleReadMaxAge() {
+        var user = Given.user()
+                        .withUsername("rule-user")
+                        .withEmail("rule@passport.vepo.dev")
+                        .withName("Rule User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+
+        var audit = notificationRepository.save(new Notification("engage", "audit_export", 5L, "Auditoria", "Export", "{}"));
+        var auditDelivery = new UserNotification(user, audit);
+        auditDelivery.markRead();
+        auditDelivery.setReadAt(Instant.now().minus(13, ChronoUnit.HOURS));
+        userNotificationRepository.save(auditDelivery);
+
+        var sync = notificationRepository.save(new Notification("engage", "video_sync", 5L, "Sync", "Sync", "{}"));
+        var syncDelivery = new UserNotification(user, sync);
+        syncDelivery.markRead();
+        syncDelivery.setReadAt(Instant.now().minus(13, ChronoUnit.HOURS));
+        userNotificationRepository.save(syncDelivery);
+
+        var preview = notificationService.previewRetention(RETENTION);
+
+        assertEquals(1, preview.expiredDeliveries());
+        assertEquals("audit_export", preview.expired().getFirst().sourceType());
+
+        var result = notificationService.purgeOldReadNotifications(RETENTION);
+
+        assertEquals(1, result.deletedDeliveries());
+        var remaining = userNotificationRepository.findByUser(user, null);
+        assertEquals(1, remaining.size());
+        assertEquals(sync.getId(), remaining.getFirst().getNotification().getId());
+    }
+
+    @Test
+    @DisplayName("Should keep only the newest deliveries of a user over the cap")
+    void purge_OverPerUserCap_KeepsNewestDeliveries() {
+        var user = Given.user()
+                        .withUsername("cap-user")
+                        .withEmail("cap@passport.vepo.dev")
+                        .withName("Cap User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+
+        var first = notificationRepository.save(new Notification("engage", "video_sync", 6L, "Primeira", "Sync", "{}"));
+        userNotificationRepository.save(new UserNotification(user, first));
+        for (var i = 0; i < PER_USER_MAX + 1; i++) {
+            var notification = notificationRepository.save(new Notification("engage",
+                                                                            "video_sync",
+                                                                            6L,
+                                                                            "Lote %d".formatted(i),
+                                                                            "Sync",
+                                                                            "{}"));
+            userNotificationRepository.save(new UserNotification(user, notification));
+        }
+
+        assertEquals(2, notificationService.previewRetention(RETENTION).beyondUserCap());
+
+        var result = notificationService.purgeOldReadNotifications(RETENTION);
+
+        assertEquals(2, result.deletedDeliveries());
+        var remaining = userNotificationRepository.findByUser(user, null);
+        assertEquals(PER_USER_MAX, remaining.size());
+        assertTrue(remaining.stream().noneMatch(delivery -> delivery.getNotification().getId().equals(first.getId())));
+    }
 }
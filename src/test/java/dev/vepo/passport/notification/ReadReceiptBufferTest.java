@@ -0,0 +1,133 @@
+package dev.vepo.passport.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.model.Notification;
+import dev.vepo.passport.model.User;
+import dev.vepo.passport.model.UserNotification;
+import dev.vepo.passport.shared.Given;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Read receipt write-behind buffer")
+class ReadReceiptBufferTest {
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    NotificationRepository notificationRepository;
+
+    @Inject
+    UserNotificationRepository userNotificationRepository;
+
+    @Inject
+    ReadReceiptBuffer readReceiptBuffer;
+
+    @BeforeEach
+    void cleanup() {
+        readReceiptBuffer.flushAll();
+        Given.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should defer the open write but show it to the same user")
+    void findForUser_DefersWriteButKeepsReadYourWrites() {
+        var user = Given.user()
+                        .withUsername("receipt-user")
+                        .withEmail("receipt-user@passport.vepo.dev")
+                        .withName("Receipt User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+        var notification = givenDelivery(user, "Aberta");
+
+        var response = notificationService.findForUser("receipt-user", notification.getId(), false);
+
+        assertTrue(response.read());
+        assertEquals(1, userNotificationRepository.countUnreadByUser(user));
+        assertEquals(0, notificationService.countUnreadForUser("receipt-user"));
+    }
+
+    @Test
+    @DisplayName("Should write coalesced opens on flush")
+    void flushAll_WritesCoalescedOpens() {
+        var user = Given.user()
+                        .withUsername("receipt-flush")
+                        .withEmail("receipt-flush@passport.vepo.dev")
+                        .withName("Receipt User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+        var first = givenDelivery(user, "Primeira");
+        var second = givenDelivery(user, "Segunda");
+
+        notificationService.findForUser("receipt-flush", first.getId(), false);
+        notificationService.findForUser("receipt-flush", first.getId(), false);
+        notificationService.findForUser("receipt-flush", second.getId(), false);
+        assertEquals(2, userNotificationRepository.countUnreadByUser(user));
+
+        readReceiptBuffer.flushAll();
+
+        assertEquals(0, userNotificationRepository.countUnreadByUser(user));
+    }
+
+    @Test
+    @DisplayName("Should not mark read an aggregate refreshed after the open")
+    void flushAll_SkipsReadForAggregateRefreshedAfterOpen() {
+        var user = Given.user()
+                        .withUsername("receipt-aggregate")
+                        .withEmail("receipt-aggregate@passport.vepo.dev")
+                        .withName("Receipt User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+        var notification = givenDelivery(user, "Agregada");
+
+        notificationService.findForUser("receipt-aggregate", notification.getId(), false);
+        QuarkusTransaction.requiringNew().run(() -> {
+            var aggregate = notificationRepository.findById(notification.getId()).orElseThrow();
+            aggregate.recordOccurrence("Agregada", "Sync again", "{}");
+            userNotificationRepository.markUnreadByNotification(aggregate);
+        });
+        readReceiptBuffer.flushAll();
+
+        assertEquals(1, userNotificationRepository.countUnreadByUser(user));
+    }
+
+    @Test
+    @DisplayName("Should not undo a mark-unread made after the open on another replica")
+    void flushAll_SkipsReadForDeliveryMarkedUnreadAfterOpen() {
+        var user = Given.user()
+                        .withUsername("receipt-unread")
+                        .withEmail("receipt-unread@passport.vepo.dev")
+                        .withName("Receipt User")
+                        .withPassword("password123")
+                        .persist()
+                        .user();
+        var notification = givenDelivery(user, "Desmarcada");
+
+        notificationService.findForUser("receipt-unread", notification.getId(), false);
+        // As another replica would: straight to the table, without this buffer.
+        QuarkusTransaction.requiringNew().run(() -> userNotificationRepository.updateReadState(user, Set.of(notification.getId()), true));
+        QuarkusTransaction.requiringNew().run(() -> userNotificationRepository.updateReadState(user, Set.of(notification.getId()), false));
+        readReceiptBuffer.flushAll();
+
+        assertEquals(1, userNotificationRepository.countUnreadByUser(user));
+    }
+
+    private Notification givenDelivery(User user, String title) {
+        var notification = notificationRepository.save(new Notification("engage", "video_sync", 5L, title, "Sync", "{}"));
+        userNotificationRepository.save(new UserNotification(user, notification));
+        return notification;
+    }
+}
@@ -0,0 +1,41 @@
+package dev.vepo.passport.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Records the SQL Hibernate sends while {@link #capture(Runnable)} runs on the
+ * current thread, so tests can check the statements repository methods really
+ * emit. Statements are passed through unchanged.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class CapturedSql implements StatementInspector {
+
+    private final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        var captured = statements.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        return sql;
+    }
+
+    public List<String> capture(Runnable action) {
+        var captured = new ArrayList<String>();
+        statements.set(captured);
+        try {
+            action.run();
+        } finally {
+            statements.remove();
+        }
+        return captured;
+    }
+}
@@ -14,6 +14,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.vepo.passport.auth.JwtGenerator;
+import dev.vepo.passport.channelfollow.ChannelFollowerIndex;
+import dev.vepo.passport.directory.AuthorCardCache;
+import dev.vepo.passport.directory.DirectoryIndex;
 import dev.vepo.passport.model.Profile;
 import dev.vepo.passport.model.ResetPasswordToken;
 import dev.vepo.passport.model.Role;
@@ -318,12 +321,17 @@ public class Given {
             em.createQuery("DELETE FROM UserNotification").executeUpdate();
             em.createQuery("DELETE FROM NotificationItem").executeUpdate();
             em.createQuery("DELETE FROM Notification").executeUpdate();
+            em.createNativeQuery("DELETE FROM tb_notification_purge_candidates").executeUpdate();
             em.createQuery("DELETE FROM ChannelFollow").executeUpdate();
+            em.createNativeQuery("DELETE FROM tb_channel_follower_counts").executeUpdate();
             em.createQuery("DELETE FROM ResetPasswordToken").executeUpdate();
             em.createQuery("DELETE FROM User").executeUpdate();
             em.createQuery("DELETE FROM Profile").executeUpdate();
             em.createQuery("DELETE FROM Role").executeUpdate();
         });
+        inject(ChannelFollowerIndex.class).reload();
+        inject(DirectoryIndex.class).rebuild();
+        inject(AuthorCardCache.class).clear();
     }
 
     public static Profile adminProfile() {
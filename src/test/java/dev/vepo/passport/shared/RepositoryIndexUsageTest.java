@@ -0,0 +1,233 @@
+package dev.vepo.passport.shared;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.model.User;
+import dev.vepo.passport.notification.NotificationIdempotencyRepository;
+import dev.vepo.passport.notification.NotificationRepository;
+import dev.vepo.passport.notification.UserNotificationRepository;
+import dev.vepo.passport.profile.ProfileRepository;
+import dev.vepo.passport.role.RoleRepository;
+import dev.vepo.passport.user.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Calls hot repository methods, captures the SQL Hibernate emits for them with
+ * {@link CapturedSql} and plans it with sequential scans disabled, checking
+ * that the intended index is picked. Parameters are planned generically
+ * ({@code EXPLAIN (GENERIC_PLAN)}, PostgreSQL 16+). On partitioned tables the
+ * scan runs on the per-partition copies of the index, which are matched too.
+ * Every call is rolled back.
+ */
+@QuarkusTest
+@DisplayName("Repository index usage")
+class RepositoryIndexUsageTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    CapturedSql capturedSql;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    ProfileRepository profileRepository;
+
+    @Inject
+    RoleRepository roleRepository;
+
+    @Inject
+    NotificationRepository notificationRepository;
+
+    @Inject
+    UserNotificationRepository userNotificationRepository;
+
+    @Inject
+    NotificationIdempotencyRepository notificationIdempotencyRepository;
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        Given.cleanup();
+        reader = Given.user()
+                      .withUsername("index-reader")
+                      .withEmail("index-reader@passport.vepo.dev")
+                      .withName("Index Reader")
+                      .withPassword("password123")
+                      .persist()
+                      .user();
+    }
+
+    @Test
+    @DisplayName("Channel listing uses the channel/created_at index")
+    void findSummariesByEngageChannelId_UsesChannelIndex() {
+        assertUsesIndex("idx_notifications_engage_channel_created_at",
+                        () -> notificationRepository.findSummariesByEngageChannelId(reader, 1L, 0, 50));
+    }
+
+    @Test
+    @DisplayName("Reset token lookup by token uses the partial token index")
+    void findValidResetPasswordTokenByTokenAndPassword_UsesTokenIndex() {
+        assertUsesIndex("idx_reset_password_token_token",
+                        () -> userRepository.findValidResetPasswordTokenByTokenAndPassword("token", "password"));
+    }
+
+    @Test
+    @DisplayName("Reset token lookup by user uses the partial user index")
+    void findValidResetPasswordTokenByUserId_UsesUserIndex() {
+        assertUsesIndex("idx_reset_password_token_user_requested",
+                        () -> userRepository.findValidResetPasswordTokenByUserId(reader.getId()));
+    }
+
+    @Test
+    @DisplayName("Profile lookup by name uses the lower(name) index")
+    void profileFindByName_UsesLowerNameIndex() {
+        assertUsesIndex("idx_profiles_lower_name", () -> profileRepository.findByName("Admin"));
+    }
+
+    @Test
+    @DisplayName("Role lookup by name uses the lower(name) index")
+    void roleFindByName_UsesLowerNameIndex() {
+        assertUsesIndex("idx_roles_lower_name", () -> roleRepository.findByName("passport.admin"));
+    }
+
+    @Test
+    @DisplayName("Role deletion finds the profiles granting it through the role index")
+    void roleDelete_UsesRoleIndex() {
+        assertUsesIndex("idx_profile_roles_role", () -> roleRepository.delete(1L));
+    }
+
+    @Test
+    @DisplayName("Admin user search by profile uses the profile index")
+    void userSearchByProfile_UsesProfileIndex() {
+        assertUsesIndex("idx_users_profiles_profile",
+                        () -> userRepository.search()
+                                            .profileIds(List.of(1L))
+                                            .execute());
+    }
+
+    @Test
+    @DisplayName("Purge backlog count uses the partial read_at index")
+    void countReadOlderThan_UsesReadAtIndex() {
+        assertUsesIndex("idx_user_notifications_read_at",
+                        () -> userNotificationRepository.countReadOlderThan(Instant.now().minus(2, ChronoUnit.DAYS), 1000));
+    }
+
+    @Test
+    @DisplayName("Per-user cap ranks deliveries through the user/recent index")
+    void deleteBeyondCap_UsesUserRecentIndex() {
+        assertUsesIndex("idx_user_notifications_user_recent",
+                        () -> userNotificationRepository.deleteBeyondCap(List.of(reader.getId()), 1000));
+    }
+
+    @Test
+    @DisplayName("Ingest deduplication uses the idempotency key primary key")
+    void findNotificationId_UsesIdempotencyPrimaryKey() {
+        assertUsesIndex("tb_notification_idempotency_keys_pkey",
+                        () -> notificationIdempotencyRepository.findNotificationId("engage", "key"));
+    }
+
+    @Test
+    @DisplayName("Directory search uses the search_text trigram index")
+    void searchDirectory_UsesSearchTextTrigramIndex() {
+        assertUsesIndex("idx_users_search_text_trgm", () -> userRepository.searchDirectory("conceicao", 0, 20));
+    }
+
+    @Test
+    @DisplayName("Admin user search by e-mail uses the e-mail trigram index")
+    void userSearchByEmail_UsesEmailTrigramIndex() {
+        assertUsesIndex("idx_users_email_trgm",
+                        () -> userRepository.search()
+                                            .email("example")
+                                            .execute());
+    }
+
+    @Test
+    @DisplayName("Profile search by name uses the name trigram index")
+    void profileSearchByName_UsesNameTrigramIndex() {
+        assertUsesIndex("idx_profiles_name_trgm",
+                        () -> profileRepository.search()
+                                               .name("admin")
+                                               .execute());
+    }
+
+    private void assertUsesIndex(String index, Runnable repositoryCall) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            var statements = capturedSql.capture(repositoryCall);
+            assertFalse(statements.isEmpty(), "No SQL captured for %s".formatted(index));
+            entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            var names = indexWithPartitions(index);
+            var plans = statements.stream()
+                                  .map(sql -> String.join("\n", explain(sql)))
+                                  .toList();
+            assertTrue(plans.stream().anyMatch(plan -> names.stream().anyMatch(plan::contains)),
+                       "Expected %s in plans of:\n%s\n\n%s".formatted(index, String.join("\n", statements), String.join("\n\n", plans)));
+            QuarkusTransaction.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Plans {@code sql} as emitted, with JDBC placeholders numbered for a generic
+     * plan.
+     */
+    private List<String> explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.createStatement();
+                    var rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) %s".formatted(numberPlaceholders(sql)))) {
+                var plan = new ArrayList<String>();
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+                return plan;
+            }
+        });
+    }
+
+    private static String numberPlaceholders(String sql) {
+        var numbered = new StringBuilder();
+        var parameter = 0;
+        var quoted = false;
+        for (var c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexWithPartitions(String index) {
+        var names = new ArrayList<String>();
+        names.add(index);
+        names.addAll(entityManager.createNativeQuery("""
+                                                     SELECT CAST(c.relname AS text) FROM pg_inherits i
+                                                     JOIN pg_class c ON c.oid = i.inhrelid
+                                                     WHERE i.inhparent = CAST(:index AS regclass)
+                                                     """)
+                                  .setParameter("index", index)
+                                  .getResultList());
+        return names;
+    }
+}
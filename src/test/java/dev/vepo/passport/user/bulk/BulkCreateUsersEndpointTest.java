@@ -0,0 +1,201 @@
+package dev.vepo.passport.user.bulk;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import dev.vepo.passport.model.Profile;
+import dev.vepo.passport.model.User;
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.shared.security.PasswordEncoder;
+import dev.vepo.passport.user.UserRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Bulk Create Users Endpoint")
+class BulkCreateUsersEndpointTest {
+
+    private static final String BULK_CREATE_USERS_PATH = "/api/users/bulk";
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    BulkPasswordHasher passwordHasher;
+
+    @Inject
+    PasswordEncoder passwordEncoder;
+
+    private Given.GivenUser admin;
+    private Profile profile;
+
+    @BeforeEach
+    void setUp() {
+        Given.cleanup();
+        admin = Given.admin();
+        profile = Given.profile()
+                       .withName("Regular User")
+                       .withRole("USER")
+                       .persist();
+        Given.user()
+             .withUsername("john.doe")
+             .withEmail("john.doe@example.com")
+             .withName("John Doe")
+             .withPassword("Password123")
+             .withProfile("Regular User")
+             .persist();
+    }
+
+    @Test
+    @DisplayName("POST /users/bulk - should create NDJSON users and report every line")
+    void bulkCreate_Ndjson_ShouldReportEveryLine() {
+        var body = String.join("\n",
+                               """
+                               {"username":"jane.smith","name":"Jane Smith","email":"jane.smith@example.com","profileIds":[%d]}\
+                               """.formatted(profile.getId()),
+                               """
+                               {"username":"john.doe","name":"Another John","email":"another.john@example.com","profileIds":[%d]}\
+                               """.formatted(profile.getId()),
+                               """
+                               {"username":"bob","name":"Bob","email":"not-an-email","profileIds":[%d]}\
+                               """.formatted(profile.getId()),
+                               """
+                               {"username":"mary.jones","name":"Mary Jones","email":"mary.jones@example.com","profileIds":[999999]}\
+                               """,
+                               """
+                               {"username":"jane.smith","name":"Jane Again","email":"jane.again@example.com","profileIds":[%d]}\
+                               """.formatted(profile.getId()),
+                               "{not json");
+
+        given().header(admin.authenticated())
+               .contentType(BulkCreateUsersEndpoint.APPLICATION_NDJSON)
+               .body(body)
+               .when()
+               .post(BULK_CREATE_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("created", is(1))
+               .body("failed", is(5))
+               .body("results[0].line", is(1))
+               .body("results[0].status", is("CREATED"))
+               .body("results[0].id", notNullValue())
+               .body("results[1].status", is("CONFLICT"))
+               .body("results[1].message", containsString("Username 'john.doe' already exists"))
+               .body("results[2].status", is("INVALID"))
+               .body("results[2].message", containsString("email"))
+               .body("results[3].status", is("INVALID"))
+               .body("results[3].message", containsString("999999"))
+               .body("results[4].status", is("CONFLICT"))
+               .body("results[4].id", nullValue())
+               .body("results[5].status", is("INVALID"))
+               .body("results[5].message", containsString("Malformed JSON"));
+
+        var created = userRepository.findActiveByUsername("jane.smith").orElseThrow();
+        assertThat(created.getName()).isEqualTo("Jane Smith");
+        assertThat(created.getProfiles()).extracting(Profile::getId)
+                                         .containsExactly(profile.getId());
+        assertThat(userRepository.findActiveByUsername("mary.jones")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("POST /users/bulk - should create CSV users with quoted fields")
+    void bulkCreate_Csv_ShouldCreateUsers() {
+        var body = """
+                   username,name,email,profileIds
+                   jane.smith,"Smith, Jane",jane.smith@example.com,%d
+                   mary.jones,Mary Jones,mary.jones@example.com,%d
+                   """.formatted(profile.getId(), profile.getId());
+
+        given().header(admin.authenticated())
+               .contentType(BulkCreateUsersEndpoint.TEXT_CSV)
+               .body(body)
+               .when()
+               .post(BULK_CREATE_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("created", is(2))
+               .body("results[0].line", is(2))
+               .body("results[1].username", equalTo("mary.jones"));
+
+        assertThat(userRepository.findActiveByUsername("jane.smith")).get()
+                                                                     .extracting(User::getName)
+                                                                     .isEqualTo("Smith, Jane");
+    }
+
+    @Test
+    @DisplayName("POST /users/bulk - should report fields longer than their columns as invalid")
+    void bulkCreate_OverLengthFields_ShouldBeInvalid() {
+        var body = """
+                   username,name,email,profileIds
+                   long.name,%s,long.name@example.com,%d
+                   long.mail,Long Mail,%s@example.com,%d
+                   mary.jones,Mary Jones,mary.jones@example.com,%d
+                   """.formatted("n".repeat(256), profile.getId(), "m".repeat(250), profile.getId(), profile.getId());
+
+        given().header(admin.authenticated())
+               .contentType(BulkCreateUsersEndpoint.TEXT_CSV)
+               .body(body)
+               .when()
+               .post(BULK_CREATE_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_OK)
+               .body("created", is(1))
+               .body("results[0].status", is("INVALID"))
+               .body("results[0].message", containsString("name"))
+               .body("results[1].status", is("INVALID"))
+               .body("results[1].message", containsString("email"))
+               .body("results[2].status", is("CREATED"));
+    }
+
+    @Test
+    @DisplayName("POST /users/bulk - should reject CSV without the header")
+    void bulkCreate_CsvWithoutHeader_ShouldReturnBadRequest() {
+        given().header(admin.authenticated())
+               .contentType(BulkCreateUsersEndpoint.TEXT_CSV)
+               .body("jane.smith,Jane Smith,jane.smith@example.com,1\n")
+               .when()
+               .post(BULK_CREATE_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("POST /users/bulk - should return 403 for non-admin user")
+    void bulkCreate_NonAdminUser_ShouldReturnForbidden() {
+        var user = Given.user()
+                        .withUsername("regular")
+                        .withEmail("regular@example.com")
+                        .withName("Regular")
+                        .withPassword("Password123")
+                        .persist();
+
+        given().header(user.authenticated())
+               .contentType(BulkCreateUsersEndpoint.TEXT_CSV)
+               .body("username,name,email,profileIds\n")
+               .when()
+               .post(BULK_CREATE_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("BulkPasswordHasher - should hash like the password encoder, in order")
+    void hashAll_ShouldKeepOrder() {
+        var passwords = List.of("first-password", "second-password", "third-password");
+        assertThat(passwordHasher.hashAll(passwords)).containsExactlyElementsOf(passwords.stream()
+                                                                                         .map(passwordEncoder::hashPassword)
+                                                                                         .toList());
+    }
+}
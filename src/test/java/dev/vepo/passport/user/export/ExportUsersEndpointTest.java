@@ -0,0 +1,144 @@
+package dev.vepo.passport.user.export;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.vepo.passport.shared.Given;
+import dev.vepo.passport.user.UserExportRow;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@DisplayName("Export Users Endpoint")
+class ExportUsersEndpointTest {
+
+    private static final String EXPORT_USERS_PATH = "/api/users/export";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private Given.GivenUser admin;
+    private Given.GivenUser editor;
+
+    @BeforeEach
+    void setUp() {
+        Given.cleanup();
+        Given.role()
+             .withName("USER")
+             .persist();
+        Given.role()
+             .withName("EDITOR")
+             .persist();
+        Given.profile()
+             .withName("Regular User")
+             .withRole("USER")
+             .persist();
+        Given.profile()
+             .withName("Editor")
+             .withRole("USER")
+             .withRole("EDITOR")
+             .persist();
+
+        admin = Given.admin();
+        editor = Given.user()
+                      .withUsername("jane.smith")
+                      .withEmail("jane.smith@example.com")
+                      .withName("Smith, Jane \"JS\"")
+                      .withPassword("Password123")
+                      .withProfile("Regular User")
+                      .withProfile("Editor")
+                      .persist();
+        Given.user()
+             .withUsername("inactive.user")
+             .withEmail("inactive@example.com")
+             .withName("Inactive User")
+             .withPassword("Password123")
+             .withDisabled(true)
+             .persist();
+    }
+
+    @Test
+    @DisplayName("GET /users/export - should stream one JSON object per user with profiles and effective roles")
+    void export_Ndjson_ShouldStreamEveryUser() throws IOException {
+        var body = given().header(admin.authenticated())
+                          .accept(ExportUsersEndpoint.APPLICATION_NDJSON)
+                          .when()
+                          .get(EXPORT_USERS_PATH)
+                          .then()
+                          .statusCode(HttpStatus.SC_OK)
+                          .header("Content-Disposition", containsString("users.ndjson"))
+                          .extract()
+                          .asString();
+
+        var rows = body.lines()
+                       .map(line -> {
+                           try {
+                               return objectMapper.readValue(line, UserExportRow.class);
+                           } catch (IOException e) {
+                               throw new IllegalStateException(e);
+                           }
+                       })
+                       .toList();
+        assertThat(rows).extracting(UserExportRow::username)
+                        .containsExactlyInAnyOrder(admin.username(), editor.username(), "inactive.user");
+        assertThat(rows).extracting(UserExportRow::id)
+                        .isSorted();
+        var exported = rows.stream()
+                           .filter(row -> row.username().equals(editor.username()))
+                           .findFirst()
+                           .orElseThrow();
+        assertThat(exported.profiles()).containsExactly("Editor", "Regular User");
+        assertThat(exported.roles()).containsExactly("EDITOR", "USER");
+        assertThat(exported.createdAt()).isNotNull();
+        assertThat(rows.stream()
+                       .filter(row -> row.username().equals("inactive.user"))
+                       .findFirst()
+                       .orElseThrow()).satisfies(row -> {
+                           assertThat(row.disabled()).isTrue();
+                           assertThat(row.profiles()).isEmpty();
+                           assertThat(row.roles()).isEmpty();
+                       });
+    }
+
+    @Test
+    @DisplayName("GET /users/export - should stream CSV with a header and quoted fields")
+    void export_Csv_ShouldStreamHeaderAndRows() {
+        var body = given().header(admin.authenticated())
+                          .accept(ExportUsersEndpoint.TEXT_CSV)
+                          .when()
+                          .get(EXPORT_USERS_PATH)
+                          .then()
+                          .statusCode(HttpStatus.SC_OK)
+                          .header("Content-Disposition", containsString("users.csv"))
+                          .extract()
+                          .asString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.getFirst()).isEqualTo(UserExportRow.CSV_HEADER);
+        assertThat(lines).anySatisfy(line -> assertThat(line).contains("jane.smith,\"Smith, Jane \"\"JS\"\"\",jane.smith@example.com,false,")
+                                                             .endsWith(",Editor;Regular User,EDITOR;USER"));
+    }
+
+    @Test
+    @DisplayName("GET /users/export - should return 403 for non-admin user")
+    void export_NonAdminUser_ShouldReturnForbidden() {
+        given().header(editor.authenticated())
+               .accept(ExportUsersEndpoint.TEXT_CSV)
+               .when()
+               .get(EXPORT_USERS_PATH)
+               .then()
+               .statusCode(HttpStatus.SC_FORBIDDEN);
+    }
+}
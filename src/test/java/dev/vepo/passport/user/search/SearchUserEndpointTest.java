@@ -2,6 +2,7 @@ package dev.vepo.passport.user.search;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.everyItem;
@@ -12,6 +13,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -534,4 +536,115 @@ class SearchUserEndpointTest {
             assertThat(user.profiles()).isNotNull();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Pagination and sorting")
+    class Pagination {
+
+        @Test
+        @DisplayName("GET /users/search - should walk all pages with the next cursor")
+        void searchUsers_Cursor_ShouldWalkAllPages() {
+            var usernames = new ArrayList<String>();
+            String cursor = null;
+            do {
+                var request = given().header(admin.authenticated())
+                                     .queryParam("disabled", false)
+                                     .queryParam("size", 3);
+                if (cursor != null) {
+                    request.queryParam("cursor", cursor);
+                }
+                var response = request.when()
+                                      .get(SEARCH_USERS_PATH)
+                                      .then()
+                                      .statusCode(HttpStatus.SC_OK)
+                                      .extract();
+                usernames.addAll(response.jsonPath().getList("username", String.class));
+                cursor = Boolean.parseBoolean(response.header(SearchUserEndpoint.HAS_MORE_HEADER)) ? response.header(SearchUserEndpoint.NEXT_CURSOR_HEADER)
+                                                                                                   : null;
+            } while (cursor != null);
+
+            assertThat(usernames).containsExactly(admin.username(), user3.username(), user2.username(), user1.username());
+        }
+
+        @Test
+        @DisplayName("GET /users/search - should page by page number and flag the last page")
+        void searchUsers_Page_ShouldFlagLastPage() {
+            given().header(admin.authenticated())
+                   .queryParam("disabled", false)
+                   .queryParam("size", 3)
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_OK)
+                   .header(SearchUserEndpoint.HAS_MORE_HEADER, "true")
+                   .body("$", hasSize(3));
+
+            given().header(admin.authenticated())
+                   .queryParam("disabled", false)
+                   .queryParam("size", 3)
+                   .queryParam("page", 1)
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_OK)
+                   .header(SearchUserEndpoint.HAS_MORE_HEADER, "false")
+                   .body("$", hasSize(1))
+                   .body("[0].username", is(user1.username()))
+                   .body("[0].profiles", hasSize(1));
+        }
+
+        @Test
+        @DisplayName("GET /users/search - should sort descending by a whitelisted field")
+        void searchUsers_SortDescending_ShouldOrderByField() {
+            given().header(admin.authenticated())
+                   .queryParam("disabled", false)
+                   .queryParam("sort", "-username")
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_OK)
+                   .body("username", contains(user1.username(), user2.username(), user3.username(), admin.username()));
+        }
+
+        @Test
+        @DisplayName("GET /users/search - should reject unknown sort fields and foreign cursors")
+        void searchUsers_InvalidSortOrCursor_ShouldReturnBadRequest() {
+            given().header(admin.authenticated())
+                   .queryParam("sort", "encodedPassword")
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+            var cursor = given().header(admin.authenticated())
+                                .queryParam("disabled", false)
+                                .queryParam("size", 1)
+                                .when()
+                                .get(SEARCH_USERS_PATH)
+                                .then()
+                                .statusCode(HttpStatus.SC_OK)
+                                .extract()
+                                .header(SearchUserEndpoint.NEXT_CURSOR_HEADER);
+
+            given().header(admin.authenticated())
+                   .queryParam("sort", "email")
+                   .queryParam("cursor", cursor)
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_BAD_REQUEST);
+        }
+
+        @Test
+        @DisplayName("GET /users/search - should reject pages whose offset overflows")
+        void searchUsers_PageOffsetOverflow_ShouldReturnBadRequest() {
+            given().header(admin.authenticated())
+                   .queryParam("page", Integer.MAX_VALUE)
+                   .queryParam("size", 200)
+                   .when()
+                   .get(SEARCH_USERS_PATH)
+                   .then()
+                   .statusCode(HttpStatus.SC_BAD_REQUEST);
+        }
+    }
+}